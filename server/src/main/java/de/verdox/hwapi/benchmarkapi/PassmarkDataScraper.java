@@ -1,6 +1,5 @@
 package de.verdox.hwapi.benchmarkapi;
 
-import de.verdox.hwapi.configuration.DataStorage;
 import de.verdox.hwapi.io.api.selenium.*;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -15,7 +14,7 @@ import java.net.MalformedURLException;
 import java.time.Duration;
 
 public class PassmarkDataScraper {
-    private final SeleniumBasedWebScraper scraper = new SeleniumBasedWebScraper("passmark", new FScrapingCache(), new CookieJar(DataStorage.resolve("scraping")));
+    private final SeleniumBasedWebScraper scraper = new SeleniumBasedWebScraper("passmark", ScrapingCaches.shared(), CookieJar.shared());
 
     public void tryScrapeCPUData(CPUDataConsumer consumer) throws MalformedURLException, SeleniumBasedWebScraper.ChallengeFoundException {
         Document document = scraper.fetch("cpubenchmark.net", "CPU-Benchmark-Data-Scraper", "https://www.cpubenchmark.net/CPU_mega_page.html",
@@ -0,0 +1,14 @@
+package de.verdox.hwapi.configuration;
+
+import de.verdox.hwapi.util.DomainCircuitBreaker;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ScrapingMetricsConfig {
+    @Bean
+    public MeterBinder domainCircuitBreakerMetrics() {
+        return DomainCircuitBreaker.shared();
+    }
+}
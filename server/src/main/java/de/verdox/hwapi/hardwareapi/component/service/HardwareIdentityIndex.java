@@ -0,0 +1,408 @@
+package de.verdox.hwapi.hardwareapi.component.service;
+
+import de.verdox.hwapi.component.repository.HardwareSpecRepository;
+import de.verdox.hwapi.component.repository.HardwareSpecificRepo;
+import de.verdox.hwapi.model.HardwareSpec;
+import org.hibernate.Hibernate;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * EAN/MPN → Spec-ID und Typ im Speicher, damit die Zuordnung gescrapter Produkte ohne Datenbank-Roundtrip
+ * auskommt; vor allem der häufige Fall "noch unbekannt" kostet so keine Query mehr.
+ * <p>
+ * Schlüssel sind {@code long}s in offenen Hash-Tabellen ohne Boxing: EANs aus Ziffern werden samt Länge direkt
+ * kodiert, MPNs (und sonstige EAN-Strings) als 64-Bit-Hash. Eine Hash-Kollision mit einem anderen Bezeichner ist
+ * bei einigen Millionen Einträgen praktisch ausgeschlossen. Pro Bezeichner gilt wie in
+ * {@link HardwareSpecService#saveHardwareBatch} der erste bekannte Spec.
+ * <p>
+ * Bezeichner werden vor dem Schlüsseln mit {@link HardwareSpecificRepo#normalizeEAN_MPN} normalisiert, Schreibweisen
+ * wie {@code "ab-12"} und {@code "AB12"} landen also auf demselben Eintrag. Ein Fehlen ist damit weiterhin ein
+ * sicheres Fehlen auch für die exakte Query; ein Treffer dagegen ist nur ein Kandidat, den der Aufrufer am geladenen
+ * Spec prüft (siehe {@link #evictIfStale}).
+ * <p>
+ * Beim Start wird der Index im Hintergrund aus der Datenbank gefüllt; bis dahin ist {@link #isReady()}
+ * {@code false} und Aufrufer fragen weiter die Datenbank. Schreibpfade melden gespeicherte und gelöschte Specs über
+ * {@link #indexAfterCommit}/{@link #removeAfterCommit}; übernommen wird erst nach dem Commit, der Index zeigt also
+ * wie eine Query nur festgeschriebene Daten.
+ */
+@Component
+public class HardwareIdentityIndex {
+    /**
+     * Ergebnis eines Treffers.
+     */
+    public record Hit(long id, Class<? extends HardwareSpec<?>> type) {
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(HardwareIdentityIndex.class.getName());
+    private static final int TYPE_BITS = 8;
+    private static final long HASHED = Long.MIN_VALUE;
+
+    private final HardwareSpecRepository baseRepo;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongLongMap byEan = new LongLongMap();
+    private final LongLongMap byMpn = new LongLongMap();
+    private final List<Class<? extends HardwareSpec<?>>> types = new ArrayList<>();
+    private volatile boolean ready;
+
+    public HardwareIdentityIndex(HardwareSpecRepository baseRepo, PlatformTransactionManager transactionManager) {
+        this.baseRepo = baseRepo;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread.ofVirtual().name("hardware-identity-index").start(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                int[] counts = readOnlyTransaction.execute(status -> {
+                    int eans;
+                    int mpns;
+                    try (Stream<HardwareSpecRepository.IdentityView> rows = baseRepo.streamEanIdentities()) {
+                        eans = load(rows, true);
+                    }
+                    try (Stream<HardwareSpecRepository.IdentityView> rows = baseRepo.streamMpnIdentities()) {
+                        mpns = load(rows, false);
+                    }
+                    return new int[]{eans, mpns};
+                });
+                ready = true;
+                LOGGER.log(Level.INFO, "Hardware identity index ready: " + counts[0] + " EANs, " + counts[1] + " MPNs in "
+                        + (System.currentTimeMillis() - start) + " ms");
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not warm up hardware identity index, identifiers are resolved through the database", e);
+            }
+        });
+    }
+
+    /**
+     * Ob der Index vollständig ist. Solange nicht, sagt ein fehlender Treffer nichts aus.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Optional<Hit> findByEan(String ean) {
+        return ean == null ? Optional.empty() : find(byEan, keyOfEan(ean));
+    }
+
+    public Optional<Hit> findByMpn(String mpn) {
+        return mpn == null ? Optional.empty() : find(byMpn, keyOfMpn(mpn));
+    }
+
+    public Optional<Hit> findByEanOrMpn(String identifier) {
+        Optional<Hit> hit = findByEan(identifier);
+        return hit.isPresent() ? hit : findByMpn(identifier);
+    }
+
+    /**
+     * Übernimmt die Bezeichner der Specs nach erfolgreichem Commit (ohne Transaktion sofort).
+     * Die Specs müssen bereits eine ID haben, also geflusht sein.
+     */
+    public void indexAfterCommit(Collection<? extends HardwareSpec<?>> specs) {
+        List<Entry> entries = new ArrayList<>(specs.size());
+        for (HardwareSpec<?> spec : specs) {
+            if (spec.getId() != 0) {
+                entries.add(Entry.of(spec));
+            }
+        }
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (Entry entry : entries) {
+                    long value = pack(entry.id(), entry.type());
+                    for (String ean : entry.eans()) byEan.putIfAbsent(keyOfEan(ean), value);
+                    for (String mpn : entry.mpns()) byMpn.putIfAbsent(keyOfMpn(mpn), value);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Entfernt die Bezeichner eines gelöschten Specs nach erfolgreichem Commit, sofern sie noch auf ihn zeigen.
+     */
+    public void removeAfterCommit(HardwareSpec<?> spec) {
+        if (spec.getId() == 0) return;
+        Entry entry = Entry.of(spec);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (String ean : entry.eans()) byEan.removeIfValueId(keyOfEan(ean), entry.id());
+                for (String mpn : entry.mpns()) byMpn.removeIfValueId(keyOfMpn(mpn), entry.id());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Ein Treffer zeigte auf einen nicht mehr vorhandenen Spec (z. B. außerhalb der Anwendung gelöscht).
+     */
+    public void evict(long id) {
+        lock.writeLock().lock();
+        try {
+            byEan.removeAllWithValueId(id);
+            byMpn.removeAllWithValueId(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ein Treffer für {@code identifier} lieferte einen Spec, der den Bezeichner nicht exakt trägt. Führt der Spec
+     * auch keine Schreibweise mit derselben Normalform, ist der Eintrag veraltet (außerhalb der Anwendung geändert
+     * oder Hash-Kollision) und fliegt raus; sonst bleibt er, die exakte Query entscheidet dann.
+     */
+    public void evictIfStale(HardwareSpec<?> spec, String identifier) {
+        String normalized = HardwareSpecificRepo.normalizeEAN_MPN(identifier);
+        for (String known : spec.getEANs()) {
+            if (normalized.equals(HardwareSpecificRepo.normalizeEAN_MPN(known))) return;
+        }
+        for (String known : spec.getMPNs()) {
+            if (normalized.equals(HardwareSpecificRepo.normalizeEAN_MPN(known))) return;
+        }
+        lock.writeLock().lock();
+        try {
+            byEan.removeIfValueId(keyOfEan(identifier), spec.getId());
+            byMpn.removeIfValueId(keyOfMpn(identifier), spec.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* ----------------------- intern ----------------------- */
+
+    private record Entry(long id, Class<? extends HardwareSpec<?>> type, List<String> eans, List<String> mpns) {
+        @SuppressWarnings("unchecked")
+        static Entry of(HardwareSpec<?> spec) {
+            return new Entry(spec.getId(), (Class<? extends HardwareSpec<?>>) Hibernate.getClass(spec),
+                    List.copyOf(spec.getEANs()), List.copyOf(spec.getMPNs()));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int load(Stream<HardwareSpecRepository.IdentityView> rows, boolean ean) {
+        int[] count = {0};
+        List<HardwareSpecRepository.IdentityView> chunk = new ArrayList<>(4096);
+        Runnable flush = () -> {
+            lock.writeLock().lock();
+            try {
+                for (HardwareSpecRepository.IdentityView row : chunk) {
+                    if (row.getIdentifier() == null) continue;
+                    long value = pack(row.getId(), (Class<? extends HardwareSpec<?>>) row.getSpecType());
+                    if (ean) byEan.putIfAbsent(keyOfEan(row.getIdentifier()), value);
+                    else byMpn.putIfAbsent(keyOfMpn(row.getIdentifier()), value);
+                    count[0]++;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            chunk.clear();
+        };
+        // in Blöcken, damit Lookups zwischendurch nicht lange warten
+        rows.forEach(row -> {
+            chunk.add(row);
+            if (chunk.size() == 4096) flush.run();
+        });
+        flush.run();
+        return count[0];
+    }
+
+    private Optional<Hit> find(LongLongMap map, long key) {
+        long value;
+        lock.readLock().lock();
+        try {
+            value = map.get(key);
+            if (value == LongLongMap.MISSING) return Optional.empty();
+            return Optional.of(new Hit(value >>> TYPE_BITS, types.get((int) (value & ((1 << TYPE_BITS) - 1)))));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nur unter Schreib-Lock aufrufen.
+     */
+    private long pack(long id, Class<? extends HardwareSpec<?>> type) {
+        int index = types.indexOf(type);
+        if (index < 0) {
+            index = types.size();
+            if (index >= 1 << TYPE_BITS) throw new IllegalStateException("Too many hardware types");
+            types.add(type);
+        }
+        return id << TYPE_BITS | index;
+    }
+
+    static long keyOfEan(String ean) {
+        return eanKey(HardwareSpecificRepo.normalizeEAN_MPN(ean));
+    }
+
+    static long keyOfMpn(String mpn) {
+        return hashKey(HardwareSpecificRepo.normalizeEAN_MPN(mpn));
+    }
+
+    /**
+     * Ziffernfolgen bis 17 Stellen samt Länge (führende Nullen bleiben unterscheidbar), alles andere gehasht.
+     */
+    static long eanKey(String ean) {
+        int length = ean.length();
+        if (length == 0 || length > 17) return hashKey(ean);
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = ean.charAt(i);
+            if (c < '0' || c > '9') return hashKey(ean);
+            value = value * 10 + (c - '0');
+        }
+        return value * 32 + length;
+    }
+
+    /**
+     * FNV-1a über die UTF-16-Zeichen plus Murmur3-Finalizer; das oberste Bit trennt gehashte von Ziffern-Schlüsseln.
+     */
+    static long hashKey(String identifier) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < identifier.length(); i++) {
+            h ^= identifier.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h | HASHED;
+    }
+
+    /**
+     * Offene Adressierung mit linearem Sondieren, {@code long → long}. Schlüssel {@code 0} markiert freie Slots;
+     * {@link #eanKey} und {@link #hashKey} liefern nie {@code 0}. Werte sind immer {@code >= 0}.
+     */
+    static final class LongLongMap {
+        static final long MISSING = -1;
+
+        private long[] keys = new long[1024];
+        private long[] values = new long[1024];
+        private int size;
+
+        long get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+                long k = keys[slot];
+                if (k == key) return values[slot];
+                if (k == 0) return MISSING;
+            }
+        }
+
+        void putIfAbsent(long key, long value) {
+            if ((size + 1) * 4L > keys.length * 3L) grow();
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+                long k = keys[slot];
+                if (k == key) return;
+                if (k == 0) {
+                    keys[slot] = key;
+                    values[slot] = value;
+                    size++;
+                    return;
+                }
+            }
+        }
+
+        void removeIfValueId(long key, long id) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+                long k = keys[slot];
+                if (k == 0) return;
+                if (k == key) {
+                    if (values[slot] >>> TYPE_BITS == id) removeAt(slot);
+                    return;
+                }
+            }
+        }
+
+        void removeAllWithValueId(long id) {
+            // erst sammeln: das Nachrücken beim Löschen kann Einträge in bereits geprüfte Slots verschieben
+            long[] matches = new long[4];
+            int count = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != 0 && values[slot] >>> TYPE_BITS == id) {
+                    if (count == matches.length) matches = Arrays.copyOf(matches, count * 2);
+                    matches[count++] = keys[slot];
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                removeIfValueId(matches[i], id);
+            }
+        }
+
+        /**
+         * Löschen ohne Grabsteine: nachfolgende Einträge der Sondierkette rücken nach.
+         */
+        private void removeAt(int slot) {
+            int mask = keys.length - 1;
+            int hole = slot;
+            for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+                int home = mix(keys[next]) & mask;
+                // Eintrag darf ins Loch, wenn sein Heimatslot nicht zyklisch zwischen Loch und aktuellem Slot liegt
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = 0;
+            values[hole] = 0;
+            size--;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new long[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) putIfAbsent(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9e3779b97f4a7c15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
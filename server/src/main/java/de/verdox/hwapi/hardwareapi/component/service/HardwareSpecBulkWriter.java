@@ -0,0 +1,62 @@
+package de.verdox.hwapi.hardwareapi.component.service;
+
+import de.verdox.hwapi.model.HardwareSpec;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Schreibpfad für ganze Batches von Specs direkt über den {@link EntityManager}.
+ * <p>
+ * Über die Repositories wurde jede Spec zweimal gespeichert (Basis- und typspezifisches Repository, wegen der
+ * JOINED-Vererbung), jeweils mit {@code merge} auf bereits verwalteten Entities. Hier wird jede neue Spec genau
+ * einmal {@code persist}et; bereits geladene Specs übernimmt das Dirty-Checking. Am Ende steht genau ein Flush, in
+ * dem Hibernate die Inserts nach Tabelle sortiert ({@code order_inserts}) und als JDBC-Batches schickt,
+ * einschließlich der EAN-/MPN-Collection-Tabellen. Unter PostgreSQL macht {@code reWriteBatchedInserts} daraus
+ * mehrzeilige {@code INSERT}s.
+ * <p>
+ * Geschriebene und gelöschte Specs werden an den {@link HardwareIdentityIndex} gemeldet.
+ */
+@Component
+public class HardwareSpecBulkWriter {
+    private final HardwareIdentityIndex identityIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public HardwareSpecBulkWriter(HardwareIdentityIndex identityIndex) {
+        this.identityIndex = identityIndex;
+    }
+
+    /**
+     * Übernimmt alle Specs in den Persistenzkontext und flusht einmal.
+     * Muss in der Transaktion laufen, in der die bestehenden Specs geladen wurden.
+     *
+     * @return Anzahl neu angelegter Specs
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int write(Collection<? extends HardwareSpec<?>> specs) {
+        int inserted = 0;
+        for (HardwareSpec<?> spec : specs) {
+            if (spec.getId() == 0) {
+                entityManager.persist(spec);
+                inserted++;
+            } else if (!entityManager.contains(spec)) {
+                entityManager.merge(spec);
+            }
+        }
+        entityManager.flush();
+        identityIndex.indexAfterCommit(specs);
+        return inserted;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(HardwareSpec<?> spec) {
+        identityIndex.removeAfterCommit(spec);
+        entityManager.remove(entityManager.contains(spec) ? spec : entityManager.merge(spec));
+    }
+}
@@ -13,8 +13,14 @@ import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.text.Normalizer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -24,15 +30,25 @@ public class HardwareSpecService implements ComponentWebScraper.ScrapeListener<H
     private final Logger LOGGER = Logger.getLogger(HardwareSpecService.class.getName());
     private final HardwareSpecRepository baseRepo;
     private final GPUChipRepository gpuChipRepository;
-    private static final Set<String> normalizedManufacturers = new HashSet<>();
+    private final HardwareSpecBulkWriter bulkWriter;
+    private final HardwareIdentityIndex identityIndex;
+    /**
+     * Ob {@code hardware_spec.identifiers} (GIN-indiziert, per Trigger gepflegt, Migration V6) vorhanden ist. Unter H2
+     * im Dev-Profil läuft Flyway nicht, dort bleiben die Joins über die Collection-Tabellen.
+     */
+    private final boolean identifierColumn;
+    private static final Set<String> normalizedManufacturers = ConcurrentHashMap.newKeySet();
 
     private final Map<Class<? extends HardwareSpec<?>>, HardwareSpecificRepo<? extends HardwareSpec<?>>> repoByType = new HashMap<>();
     private final Set<String> validTypes;
 
 
     @Autowired
-    public HardwareSpecService(HardwareSpecRepository baseRepo, CPURepository cpuRepository, CPUCoolerRepository cpuCoolerRepository, GPUChipRepository gpuChipRepository, GPURepository gpuRepository, MotherboardRepository motherboardRepository, PCCaseRepository pcCaseRepository, PSURepository psuRepository, RAMRepository ramRepository, StorageRepository storageRepository, DisplayRepository displayRepository) {
+    public HardwareSpecService(HardwareSpecRepository baseRepo, CPURepository cpuRepository, CPUCoolerRepository cpuCoolerRepository, GPUChipRepository gpuChipRepository, GPURepository gpuRepository, MotherboardRepository motherboardRepository, PCCaseRepository pcCaseRepository, PSURepository psuRepository, RAMRepository ramRepository, StorageRepository storageRepository, DisplayRepository displayRepository, HardwareSpecBulkWriter bulkWriter, HardwareIdentityIndex identityIndex, DataSource dataSource) {
         this.baseRepo = baseRepo;
+        this.bulkWriter = bulkWriter;
+        this.identityIndex = identityIndex;
+        this.identifierColumn = hasIdentifierColumn(dataSource);
         this.gpuChipRepository = gpuChipRepository;
 
         repoByType.put(CPU.class, cpuRepository);
@@ -157,23 +173,81 @@ public class HardwareSpecService implements ComponentWebScraper.ScrapeListener<H
 
     @Transactional(readOnly = true)
     public <HARDWARE extends HardwareSpec<HARDWARE>> HARDWARE findByEAN(Class<HARDWARE> clazz, String EAN) {
+        if (identityIndex.isReady()) {
+            Optional<HardwareIdentityIndex.Hit> hit = identityIndex.findByEan(EAN);
+            if (hit.isEmpty()) return null;
+            HardwareSpec<?> found = clazz.isAssignableFrom(hit.get().type()) ? load(hit.get(), EAN, true, false) : null;
+            if (found != null) return clazz.cast(found);
+        }
         Optional<HARDWARE> found = getRepo(clazz).findByEan(EAN);
         return found.orElse(null);
     }
 
     @Transactional(readOnly = true)
     public <HARDWARE extends HardwareSpec<HARDWARE>> HARDWARE findByEAN(String EAN) {
+        if (identityIndex.isReady()) {
+            Optional<HardwareIdentityIndex.Hit> hit = identityIndex.findByEan(EAN);
+            if (hit.isEmpty()) return null;
+            HardwareSpec<?> found = load(hit.get(), EAN, true, false);
+            if (found != null) return (HARDWARE) found;
+        }
         return (HARDWARE) baseRepo.findByEan(EAN).orElse(null);
     }
 
     @Transactional(readOnly = true)
     public <HARDWARE extends HardwareSpec<HARDWARE>> HARDWARE findByEANOrMPN(String input) {
+        if (identityIndex.isReady()) {
+            Optional<HardwareIdentityIndex.Hit> hit = identityIndex.findByEanOrMpn(input);
+            if (hit.isEmpty()) return null;
+            HardwareSpec<?> found = load(hit.get(), input, true, true);
+            if (found != null) return (HARDWARE) found;
+        }
         return (HARDWARE) baseRepo.findByEanOrMpn(input).orElse(null);
     }
 
     @Transactional(readOnly = true)
     public List<HardwareSpec<?>> findAllByEANOrMPN(List<String> decodedKeys) {
-        return baseRepo.findAllByEanOrMpn(decodedKeys);
+        if (!identifierColumn) {
+            return baseRepo.findAllByEanOrMpn(decodedKeys);
+        }
+        if (decodedKeys.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = baseRepo.findIdsByAnyIdentifier(decodedKeys);
+        return ids.isEmpty() ? List.of() : baseRepo.findAllWithIdentifiersByIdIn(ids);
+    }
+
+    /**
+     * Wie {@link HardwareSpecRepository#findAllByAnyEanOrMpnIn}, mit vorhandener Identifier-Spalte über den GIN-Index.
+     */
+    private List<HardwareSpec<?>> findAllByAnyEanOrMpn(Set<String> eans, Set<String> mpns, boolean hasEans, boolean hasMpns) {
+        if (!identifierColumn) {
+            return baseRepo.findAllByAnyEanOrMpnIn(eans, mpns, hasEans, hasMpns);
+        }
+        Set<String> identifiers = new HashSet<>(eans);
+        identifiers.addAll(mpns);
+        List<Long> ids = baseRepo.findIdsByAnyIdentifier(identifiers);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // Die Spalte unterscheidet nicht zwischen EAN und MPN: eine EAN, die bei einem anderen Spec MPN ist, zählt nicht
+        List<HardwareSpec<?>> matches = new ArrayList<>(ids.size());
+        for (HardwareSpec<?> spec : baseRepo.findAllWithIdentifiersByIdIn(ids)) {
+            if (!Collections.disjoint(spec.getEANs(), eans) || !Collections.disjoint(spec.getMPNs(), mpns)) {
+                matches.add(spec);
+            }
+        }
+        return matches;
+    }
+
+    private boolean hasIdentifierColumn(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet columns = connection.getMetaData().getColumns(null, null, "hardware_spec", "identifiers")) {
+            return columns.next();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Could not inspect hardware_spec, identifier lookups use the collection tables", e);
+            return false;
+        }
     }
 
     @Transactional(readOnly = true)
@@ -183,18 +257,53 @@ public class HardwareSpecService implements ComponentWebScraper.ScrapeListener<H
 
     @Transactional(readOnly = true)
     public <HARDWARE extends HardwareSpec<HARDWARE>> HARDWARE findByMPN(Class<HARDWARE> clazz, String MPN) {
+        if (identityIndex.isReady()) {
+            Optional<HardwareIdentityIndex.Hit> hit = identityIndex.findByMpn(MPN);
+            if (hit.isEmpty()) return null;
+            HardwareSpec<?> found = clazz.isAssignableFrom(hit.get().type()) ? load(hit.get(), MPN, false, true) : null;
+            if (found != null) return clazz.cast(found);
+        }
         Optional<HARDWARE> found = getRepo(clazz).findByMPN(MPN);
         return found.orElse(null);
     }
 
     @Transactional(readOnly = true)
     public <HARDWARE extends HardwareSpec<HARDWARE>> HARDWARE findByMPN(String MPN) {
+        if (identityIndex.isReady()) {
+            Optional<HardwareIdentityIndex.Hit> hit = identityIndex.findByMpn(MPN);
+            if (hit.isEmpty()) return null;
+            HardwareSpec<?> found = load(hit.get(), MPN, false, true);
+            if (found != null) return (HARDWARE) found;
+        }
         return (HARDWARE) baseRepo.findByMPN(MPN).orElse(null);
     }
 
     @Transactional(readOnly = true)
     public HardwareSpec<?> findAnyByEAN(String EAN) {
-        return baseRepo.findByEan(EAN).orElse(null);
+        return findByEAN(EAN);
+    }
+
+    /**
+     * Lädt einen Index-Treffer samt Entity-Graph seines Typs per Primärschlüssel und prüft, dass der Spec
+     * {@code identifier} exakt als EAN bzw. MPN trägt wie bei der Query. Gibt es den Spec nicht mehr oder trägt er den
+     * Bezeichner nicht, liefert das {@code null} (veraltete Einträge fliegen aus dem Index) und der Aufrufer fällt
+     * auf die Query zurück.
+     */
+    private HardwareSpec<?> load(HardwareIdentityIndex.Hit hit, String identifier, boolean asEan, boolean asMpn) {
+        HardwareSpecificRepo<?> repo = repoByType.get(hit.type());
+        List<? extends HardwareSpec<?>> found = repo != null
+                ? repo.findAllByIdInOrderByIdAsc(List.of(hit.id()))
+                : baseRepo.findById(hit.id()).<List<HardwareSpec<?>>>map(List::of).orElse(List.of());
+        if (found.isEmpty()) {
+            identityIndex.evict(hit.id());
+            return null;
+        }
+        HardwareSpec<?> spec = found.getFirst();
+        if ((asEan && spec.getEANs().contains(identifier)) || (asMpn && spec.getMPNs().contains(identifier))) {
+            return spec;
+        }
+        identityIndex.evictIfStale(spec, identifier);
+        return null;
     }
 
     /**
@@ -249,42 +358,26 @@ public class HardwareSpecService implements ComponentWebScraper.ScrapeListener<H
      */
     @Transactional
     public void saveHardware(HardwareSpec<?> incoming) {
-        normalizedManufacturers.add(incoming.getManufacturer());
-
-        final var eans = incoming.getEANs();
-        final var mpns = incoming.getMPNs();
-        final boolean hasEans = eans != null && !eans.isEmpty();
-        final boolean hasMpns = mpns != null && !mpns.isEmpty();
+        rememberManufacturer(incoming.getManufacturer());
 
-        Set<HardwareSpec<?>> matches = hasEans || hasMpns
-                ? new LinkedHashSet<>(baseRepo.findAllByAnyEanOrMpnExists(eans, mpns, hasEans, hasMpns))
-                : new LinkedHashSet<>();
+        List<HardwareSpec<?>> matches = resolveIdentities(List.of(incoming)).specs();
 
         if (matches.isEmpty()) {
             if (!sanitizeBeforeSave(incoming)) {
                 return;
             }
-            baseRepo.save(incoming);
-            saveWithSpecificRepo(incoming);
+            bulkWriter.write(List.of(incoming));
             return;
         }
 
         HardwareSpec<?> target = matches.stream()
                 .filter(e -> e.getClass().equals(incoming.getClass()))
                 .findFirst()
-                .orElse(matches.iterator().next());
+                .orElse(matches.getFirst());
 
         target.tryMerge(incoming);
-
-        for (HardwareSpec<?> other : matches) {
-            if (other.getId() != target.getId()) {
-                target.tryMerge(other);
-                deleteWithBothRepos(other);
-            }
-        }
-
-        baseRepo.save(target);
-        saveWithSpecificRepo(target);
+        absorbOthers(target, matches);
+        bulkWriter.write(List.of(target));
     }
 
 
@@ -296,50 +389,17 @@ public class HardwareSpecService implements ComponentWebScraper.ScrapeListener<H
 
         // 1) Hersteller normalisieren
         for (HardwareSpec<?> incoming : incomingSet) {
-            normalizedManufacturers.add(incoming.getManufacturer());
+            rememberManufacturer(incoming.getManufacturer());
         }
 
-        // 2) Alle EANs/MPNs aus dem ganzen Set sammeln
-        Set<String> allEans = new HashSet<>();
-        Set<String> allMpns = new HashSet<>();
+        // 2) Einmalig alle existierenden Matches laden, EAN/MPN → bestehendes HardwareSpec
+        KnownIdentities known = resolveIdentities(incomingSet);
+        Map<String, HardwareSpec<?>> byEan = known.byEan();
+        Map<String, HardwareSpec<?>> byMpn = known.byMpn();
 
-        for (HardwareSpec<?> incoming : incomingSet) {
-            if (incoming.getEANs() != null) {
-                allEans.addAll(incoming.getEANs());
-            }
-            if (incoming.getMPNs() != null) {
-                allMpns.addAll(incoming.getMPNs());
-            }
-        }
-
-        boolean hasEans = !allEans.isEmpty();
-        boolean hasMpns = !allMpns.isEmpty();
-
-        // 3) Einmalig alle existierenden Matches laden
-        List<HardwareSpec<?>> existingMatches = (hasEans || hasMpns)
-                ? baseRepo.findAllByAnyEanOrMpnIn(allEans, allMpns, hasEans, hasMpns)
-                : List.of();
-
-        // 4) Index im Speicher aufbauen: EAN/MPN → bestehendes HardwareSpec
-        Map<String, HardwareSpec<?>> byEan = new HashMap<>();
-        Map<String, HardwareSpec<?>> byMpn = new HashMap<>();
-
-        for (HardwareSpec<?> existing : existingMatches) {
-            if (existing.getEANs() != null) {
-                for (String ean : existing.getEANs()) {
-                    byEan.putIfAbsent(ean, existing);
-                }
-            }
-            if (existing.getMPNs() != null) {
-                for (String mpn : existing.getMPNs()) {
-                    byMpn.putIfAbsent(mpn, existing);
-                }
-            }
-        }
-
-        // 5) Merging im Speicher
+        // 3) Merging im Speicher
         //    Wichtig: wir wollen auch Duplikate innerhalb des incomingSets zusammenführen.
-        Set<HardwareSpec<?>> toPersist = new LinkedHashSet<>(existingMatches);
+        Set<HardwareSpec<?>> toPersist = new LinkedHashSet<>(known.specs());
 
         for (HardwareSpec<?> incoming : incomingSet) {
             if (!sanitizeBeforeSave(incoming)) {
@@ -370,11 +430,81 @@ public class HardwareSpecService implements ComponentWebScraper.ScrapeListener<H
             }
         }
 
-        // 6) Persistieren (generisch + spezifische Repos)
-        baseRepo.saveAll(toPersist);
-        for (HardwareSpec<?> spec : toPersist) {
-            saveWithSpecificRepo(spec);
+        // 4) Persistieren: neue Specs einmal persist, bestehende per Dirty-Checking, ein Flush
+        bulkWriter.write(toPersist);
+    }
+
+    /**
+     * Bereits gespeicherte Specs, die mindestens eine EAN oder MPN mit den eingehenden Specs teilen,
+     * dazu Bezeichner → erster bekannter Spec.
+     */
+    private record KnownIdentities(List<HardwareSpec<?>> specs, Map<String, HardwareSpec<?>> byEan, Map<String, HardwareSpec<?>> byMpn) {
+    }
+
+    /**
+     * Löst alle EANs/MPNs der eingehenden Specs mit einer einzigen Query auf; sagt der Identitätsindex, dass keiner
+     * der Bezeichner bekannt ist, entfällt auch diese.
+     */
+    private KnownIdentities resolveIdentities(Collection<? extends HardwareSpec<?>> incoming) {
+        Set<String> allEans = new HashSet<>();
+        Set<String> allMpns = new HashSet<>();
+        for (HardwareSpec<?> spec : incoming) {
+            if (spec.getEANs() != null) {
+                allEans.addAll(spec.getEANs());
+            }
+            if (spec.getMPNs() != null) {
+                allMpns.addAll(spec.getMPNs());
+            }
+        }
+
+        boolean hasEans = !allEans.isEmpty();
+        boolean hasMpns = !allMpns.isEmpty();
+        List<HardwareSpec<?>> existing = (hasEans || hasMpns) && mayBeKnown(allEans, allMpns)
+                ? findAllByAnyEanOrMpn(allEans, allMpns, hasEans, hasMpns)
+                : List.of();
+
+        Map<String, HardwareSpec<?>> byEan = new HashMap<>();
+        Map<String, HardwareSpec<?>> byMpn = new HashMap<>();
+        for (HardwareSpec<?> spec : existing) {
+            if (spec.getEANs() != null) {
+                for (String ean : spec.getEANs()) {
+                    byEan.putIfAbsent(ean, spec);
+                }
+            }
+            if (spec.getMPNs() != null) {
+                for (String mpn : spec.getMPNs()) {
+                    byMpn.putIfAbsent(mpn, spec);
+                }
+            }
+        }
+        return new KnownIdentities(existing, byEan, byMpn);
+    }
+
+    /**
+     * Übernimmt alle übrigen Treffer vom selben Typ in {@code target} und löscht sie. Treffer eines anderen Typs
+     * bleiben unangetastet: {@link HardwareSpec#tryMerge} übernimmt von ihnen nichts, löschen wäre Datenverlust.
+     */
+    private void absorbOthers(HardwareSpec<?> target, Collection<HardwareSpec<?>> matches) {
+        for (HardwareSpec<?> other : matches) {
+            if (other != target && other.getId() != target.getId() && other.getClass().equals(target.getClass())) {
+                target.tryMerge(other);
+                bulkWriter.remove(other);
+            }
+        }
+    }
+
+    /**
+     * {@code false} nur, wenn der Identitätsindex sicher weiß, dass keiner der Bezeichner vergeben ist.
+     */
+    private boolean mayBeKnown(Collection<String> eans, Collection<String> mpns) {
+        if (!identityIndex.isReady()) return true;
+        for (String ean : eans) {
+            if (identityIndex.findByEan(ean).isPresent()) return true;
+        }
+        for (String mpn : mpns) {
+            if (identityIndex.findByMpn(mpn).isPresent()) return true;
         }
+        return false;
     }
 
     // Hilfsfunktion: passend zu deiner Einzellogik
@@ -409,72 +539,63 @@ public class HardwareSpecService implements ComponentWebScraper.ScrapeListener<H
     }
 
 
-    private void saveWithSpecificRepo(HardwareSpec<?> entity) {
-        @SuppressWarnings("unchecked")
-        CrudRepository<HardwareSpec<?>, Long> specific =
-                (CrudRepository<HardwareSpec<?>, Long>) repoByType.get(entity.getClass());
-        if (specific != null) {
-            specific.save(entity);
-        }
-    }
-
-    private void deleteWithBothRepos(HardwareSpec<?> entity) {
-        baseRepo.delete(entity);
-        @SuppressWarnings("unchecked")
-        CrudRepository<HardwareSpec<?>, Long> specific =
-                (CrudRepository<HardwareSpec<?>, Long>) repoByType.get(entity.getClass());
-        if (specific != null) {
-            specific.delete(entity);
-        }
-    }
-
     private static boolean hasText(String s) {
         return s != null && !s.isBlank();
     }
 
+    /**
+     * Führt einen einzelnen Upload mit dem bestehenden Spec desselben Typs zusammen.
+     * <p>
+     * Alle EANs und MPNs werden in einem Schritt aufgelöst ({@link #resolveIdentities}); verweisen sie auf mehrere
+     * Specs desselben Typs, ist das ein Konflikt. Geschrieben wird einmal über den {@link HardwareSpecBulkWriter}.
+     */
     @Transactional
     public <HARDWARE extends HardwareSpec<HARDWARE>> HARDWARE merge(HARDWARE entity) {
-        // Normalisierte Kennungen aus dem eingehenden Entity
         HardwareSpecificRepo<HARDWARE> repo = getRepo(entity.getClass());
         if (repo == null) {
             return null;
         }
+        rememberManufacturer(entity.getManufacturer());
 
-        HARDWARE byEan = null, byMpn = null;
-        if (!entity.getMPNs().isEmpty()) {
-            for (String mpn : entity.getMPNs()) {
-                byMpn = repo.findByMPN(mpn).orElse(null);
-                if (byMpn != null) {
-                    break;
-                }
-            }
-        }
+        List<HardwareSpec<?>> matches = resolveIdentities(List.of(entity)).specs();
 
-        if (!entity.getEANs().isEmpty()) {
-            for (String ean : entity.getMPNs()) {
-                byEan = repo.findByEan(ean).orElse(null);
-                if (byEan != null) {
-                    break;
-                }
+        HARDWARE found = null;
+        for (HardwareSpec<?> match : matches) {
+            if (!match.getClass().equals(entity.getClass())) {
+                continue;
             }
+            if (found != null) {
+                throw new IllegalStateException("Conflict in merge: EAN/UPC/MPN are referencing distinct data entries.");
+            }
+            @SuppressWarnings("unchecked")
+            HARDWARE sameType = (HARDWARE) match;
+            found = sameType;
         }
 
-        // Prüfe, ob mehrere unterschiedliche Treffer existieren
-        HARDWARE found = firstNonNull(byEan, byMpn);
+        HARDWARE target;
         if (found != null) {
-            if (byMpn != null && (byMpn.getId() != found.getId())) {
-                throw new IllegalStateException("Conflict in mergeAll: EAN/UPC/MPN are referencing distinct data entries.");
-            }
             // Domain-spezifisches Merge am Aggregat
             found.merge(entity);
-            saveHardware(found);
-            return found;
+            target = found;
         } else {
-            saveHardware(entity);
-            return entity;
+            if (!sanitizeBeforeSave(entity)) {
+                return entity;
+            }
+            target = entity;
         }
+        absorbOthers(target, matches);
+        bulkWriter.write(List.of(target));
+        return target;
     }
 
+    /**
+     * Führt einen Bulk-Upload eines Typs als Mengenoperation über den ganzen Batch mit dem Bestand zusammen.
+     * <p>
+     * Die Bezeichner werden über Projektionen (Bezeichner → ID) aufgelöst und die betroffenen Specs dann gesammelt
+     * geladen; Einträge des Uploads, die sich Bezeichner teilen, landen ebenfalls in einem Spec. Verweisen die
+     * Bezeichner eines Eintrags auf mehrere bestehende Specs, ist das ein Konflikt. Geschrieben wird einmal über den
+     * {@link HardwareSpecBulkWriter}.
+     */
     @Transactional
     public <HARDWARE extends HardwareSpec<HARDWARE>> List<HARDWARE> mergeAll(Class<HARDWARE> clazz, Collection<HARDWARE> input) {
         HardwareSpecificRepo<HARDWARE> repo = getRepo(clazz);
@@ -482,67 +603,95 @@ public class HardwareSpecService implements ComponentWebScraper.ScrapeListener<H
             return List.copyOf(input);
         }
 
+        // 1) Alle Bezeichner des Uploads
         Set<String> eans = new HashSet<>(), mpns = new HashSet<>();
         for (HARDWARE e : input) {
-            eans.addAll(e.getEANs());
-            mpns.addAll(e.getMPNs());
+            for (String ean : e.getEANs()) {
+                if (notBlank(ean)) eans.add(ean);
+            }
+            for (String mpn : e.getMPNs()) {
+                if (notBlank(mpn)) mpns.add(mpn);
+            }
         }
 
-        Map<String, HARDWARE> byEanMap = repo.findAllByEanIn(eans);
-        Map<String, HARDWARE> byMpnMap = repo.findAllByMPNInNormalized(mpns);
+        // 2) Bezeichner → ID, je eine Projektion
+        Map<String, Long> idByEan = repo.findIdsByEanIn(eans);
+        Map<String, Long> idByMpn = repo.findIdsByMpnIn(mpns);
+
+        // 3) Betroffene Specs gesammelt laden
+        Set<Long> uniqueIds = new HashSet<>(idByEan.values());
+        uniqueIds.addAll(idByMpn.values());
+        List<Long> ids = new ArrayList<>(uniqueIds);
+        Map<Long, HARDWARE> existingById = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += HardwareSpecificRepo.IN_CHUNK) {
+            for (HARDWARE existing : repo.findAllByIdInOrderByIdAsc(ids.subList(from, Math.min(from + HardwareSpecificRepo.IN_CHUNK, ids.size())))) {
+                existingById.put(existing.getId(), existing);
+            }
+        }
 
-        List<HARDWARE> toSave = new ArrayList<>();
+        // 4) Im Speicher zusammenführen; Bezeichner → Ziel auch für neue Specs aus dem Upload
+        Map<String, HARDWARE> targetByEan = new HashMap<>();
+        Map<String, HARDWARE> targetByMpn = new HashMap<>();
+        Set<HARDWARE> toSave = new LinkedHashSet<>();
         for (HARDWARE e : input) {
+            HARDWARE found = existingFor(e.getEANs(), idByEan, existingById, null);
+            found = existingFor(e.getMPNs(), idByMpn, existingById, found);
+            if (found == null) {
+                found = firstTarget(e.getEANs(), targetByEan);
+            }
+            if (found == null) {
+                found = firstTarget(e.getMPNs(), targetByMpn);
+            }
 
-            for (String mpn : e.getMPNs()) {
-                HARDWARE foundByMpn = notBlank(mpn) ? byMpnMap.get(mpn) : null;
-
-                HARDWARE found = firstNonNull(foundByMpn);
-                if (found != null) {
-                    if (foundByMpn != null && !(foundByMpn.getId() == found.getId())) {
-                        throw new IllegalStateException("Conflict in mergeAll: EAN/UPC/MPN are referencing distinct data entries.");
-                    }
-                    found.merge(e);
-                    if (sanitizeBeforeSave(found)) {
-                        toSave.add(found);
-                    }
-                } else {
-                    e.addMPN(mpn);
-                    if (sanitizeBeforeSave(e)) {
-                        toSave.add(e);
-                    }
-                }
+            HARDWARE target = found != null ? found : e;
+            if (found != null) {
+                found.merge(e);
+            }
+            if (!sanitizeBeforeSave(target)) {
+                continue;
             }
+            toSave.add(target);
+            for (String ean : target.getEANs()) targetByEan.putIfAbsent(ean, target);
+            for (String mpn : target.getMPNs()) targetByMpn.putIfAbsent(mpn, target);
+        }
 
-            for (String ean : e.getEANs()) {
-                HARDWARE foundByEan = notBlank(ean) ? byEanMap.get(ean) : null;
-
-                HARDWARE found = firstNonNull(foundByEan);
-                if (found != null) {
-                    if (foundByEan != null && !(foundByEan.getId() == found.getId())) {
-                        throw new IllegalStateException("Conflict in mergeAll: EAN/UPC/MPN are referencing distinct data entries.");
-                    }
-                    found.merge(e);
-                    if (sanitizeBeforeSave(found)) {
-                        toSave.add(found);
-                    }
-                } else {
-                    e.addEAN(ean);
-                    if (sanitizeBeforeSave(e)) {
-                        toSave.add(e);
-                    }
-                }
+        // 5) Einmal schreiben
+        bulkWriter.write(toSave);
+        return new ArrayList<>(toSave);
+    }
+
+    private static <HARDWARE extends HardwareSpec<HARDWARE>> HARDWARE existingFor(Collection<String> identifiers, Map<String, Long> idByIdentifier, Map<Long, HARDWARE> existingById, HARDWARE found) {
+        for (String identifier : identifiers) {
+            Long id = idByIdentifier.get(identifier);
+            HARDWARE existing = id != null ? existingById.get(id) : null;
+            if (existing == null) continue;
+            if (found != null && found != existing) {
+                throw new IllegalStateException("Conflict in mergeAll: EAN/UPC/MPN are referencing distinct data entries.");
             }
+            found = existing;
         }
+        return found;
+    }
 
-        // 4) Bulk-save
-        return repo.saveAll(toSave);
+    private static <HARDWARE extends HardwareSpec<HARDWARE>> HARDWARE firstTarget(Collection<String> identifiers, Map<String, HARDWARE> targetByIdentifier) {
+        for (String identifier : identifiers) {
+            HARDWARE target = targetByIdentifier.get(identifier);
+            if (target != null) return target;
+        }
+        return null;
     }
 
     public static Set<String> getAllKnownManufacturers() {
         return normalizedManufacturers;
     }
 
+    // Concurrent Set erlaubt kein null (Scraper laufen parallel)
+    private static void rememberManufacturer(String manufacturer) {
+        if (manufacturer != null) {
+            normalizedManufacturers.add(manufacturer);
+        }
+    }
+
     public static String normalizeModel(String s) {
         if (s == null) return null;
         String n = Normalizer.normalize(s, Normalizer.Form.NFKC);
@@ -554,13 +703,6 @@ public class HardwareSpecService implements ComponentWebScraper.ScrapeListener<H
         return n;
     }
 
-
-    private static <T> T firstNonNull(T... ts) {
-        for (T t : ts) if (t != null) return t;
-        return null;
-
-    }
-
     public static boolean notBlank(String s) {
         return s != null && !s.isBlank();
     }
@@ -579,13 +721,12 @@ public class HardwareSpecService implements ComponentWebScraper.ScrapeListener<H
     public void onScrapeMulti(Set<HardwareSpec<?>> scrapedHardware) {
         LOGGER.info("\tSaving " + scrapedHardware.size() + " hardware specs to database");
         long start = System.currentTimeMillis();
+        // Fehler werden weitergereicht: die Transaktion rollt zurück und die Pipeline verbucht den Batch als fehlgeschlagen
         try {
             saveHardwareBatch(scrapedHardware);
+        } finally {
+            LOGGER.info("\tTook " + (System.currentTimeMillis() - start) + " ms");
         }
-        catch (Throwable ex) {
-            ex.printStackTrace();
-        }
-        LOGGER.info("\tTook " + (System.currentTimeMillis() - start) + " ms");
     }
 
 
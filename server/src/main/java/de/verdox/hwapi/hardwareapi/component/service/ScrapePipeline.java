@@ -0,0 +1,241 @@
+package de.verdox.hwapi.hardwareapi.component.service;
+
+import de.verdox.hwapi.io.api.ComponentWebScraper;
+import de.verdox.hwapi.model.HardwareSpec;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Gestufte Scrape-Pipeline mit Backpressure:
+ * <pre>
+ * fetch (aufrufender Thread) → [Queue] → extract (n Worker) → [Queue] → parse (n Worker) → [Queue] → persist (Micro-Batches)
+ * </pre>
+ * Alle Queues sind begrenzt, es sind also höchstens {@code queueCapacity} Dokumente pro Stufe im Speicher.
+ * Persistiert wird in Batches von {@code batchSize}; schlägt ein Batch fehl, gehen nur dessen Einträge verloren.
+ * <p>
+ * Stufenfunktionen liefern {@code null}, um ein Element zu verwerfen, und sind selbst für ihr Fehler-Logging zuständig.
+ * <p>
+ * Ein {@link ChangeTracker} erkennt unveränderte Seiten direkt nach dem Extrahieren; sie werden noch geparst (der Parser
+ * meldet sie an Listener und Sync weiter), aber nicht persistiert. Der Tracker erfährt nach jedem erfolgreich
+ * persistierten Batch, welche Spec-Maps darin enthalten waren.
+ */
+public class ScrapePipeline {
+    private static final Object END = new Object();
+
+    private final int queueCapacity;
+    private final int batchSize;
+    private final int workers;
+
+    public record Result(int pages, int skipped, int parsed, int batches, int failedBatches) {
+    }
+
+    /**
+     * Erkennt unveränderte Seiten (inkrementelles Scraping).
+     */
+    public interface ChangeTracker {
+        ChangeTracker NONE = new ChangeTracker() {
+            @Override
+            public boolean isUnchanged(ComponentWebScraper.ScrapedSpecs specs) {
+                return false;
+            }
+
+            @Override
+            public void persisted(List<ComponentWebScraper.ScrapedSpecs> specs) {
+            }
+        };
+
+        boolean isUnchanged(ComponentWebScraper.ScrapedSpecs specs);
+
+        void persisted(List<ComponentWebScraper.ScrapedSpecs> specs);
+
+        /**
+         * Meldet zusätzlich die URL jeder erledigten Seite, also unverändert verworfen oder erfolgreich persistiert.
+         */
+        default ChangeTracker onCompleted(Consumer<String> completed) {
+            ChangeTracker delegate = this;
+            return new ChangeTracker() {
+                @Override
+                public boolean isUnchanged(ComponentWebScraper.ScrapedSpecs specs) {
+                    boolean unchanged = delegate.isUnchanged(specs);
+                    if (unchanged) completed.accept(specs.url());
+                    return unchanged;
+                }
+
+                @Override
+                public void persisted(List<ComponentWebScraper.ScrapedSpecs> specs) {
+                    delegate.persisted(specs);
+                    specs.forEach(s -> completed.accept(s.url()));
+                }
+            };
+        }
+    }
+
+    private record Extracted(ComponentWebScraper.ScrapedSpecs specs, boolean unchanged) {
+    }
+
+    private record Parsed(ComponentWebScraper.ScrapedSpecs specs, HardwareSpec<?> hardware, boolean unchanged) {
+    }
+
+    public ScrapePipeline(int queueCapacity, int batchSize, int workers) {
+        if (queueCapacity <= 0) throw new IllegalArgumentException("queueCapacity must be > 0");
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be > 0");
+        if (workers <= 0) throw new IllegalArgumentException("workers must be > 0");
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.workers = workers;
+    }
+
+    public Result run(String name,
+                      Stream<ComponentWebScraper.ScrapedSpecPage> pages,
+                      Function<ComponentWebScraper.ScrapedSpecPage, ComponentWebScraper.ScrapedSpecs> extract,
+                      Function<ComponentWebScraper.ScrapedSpecs, HardwareSpec<?>> parse,
+                      Consumer<Set<HardwareSpec<?>>> persist,
+                      ChangeTracker changes) throws InterruptedException {
+        BlockingQueue<Object> fetched = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Object> extracted = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Object> parsed = new ArrayBlockingQueue<>(queueCapacity);
+
+        AtomicInteger pageCount = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger parsedCount = new AtomicInteger();
+        AtomicInteger batches = new AtomicInteger();
+        AtomicInteger failedBatches = new AtomicInteger();
+
+        Function<ComponentWebScraper.ScrapedSpecPage, Extracted> extractChanged = page -> {
+            ComponentWebScraper.ScrapedSpecs specs = extract.apply(page);
+            return specs != null ? new Extracted(specs, changes.isUnchanged(specs)) : null;
+        };
+        Function<Extracted, Parsed> parseTracked = item -> {
+            HardwareSpec<?> hardware = parse.apply(item.specs());
+            return hardware != null ? new Parsed(item.specs(), hardware, item.unchanged()) : null;
+        };
+
+        List<Thread> threads = new ArrayList<>();
+        threads.addAll(startStage(name + "-extract", fetched, extracted, extractChanged));
+        threads.addAll(startStage(name + "-parse", extracted, parsed, parseTracked));
+        threads.add(Thread.ofVirtual().name(name + "-persist").start(() -> {
+            List<Parsed> batch = new ArrayList<>(batchSize);
+            int open = workers;
+            try {
+                while (open > 0) {
+                    Object next = parsed.take();
+                    if (next == END) {
+                        open--;
+                        continue;
+                    }
+                    Parsed item = (Parsed) next;
+                    // unverändert: Listener und Sync hat der Parser schon bedient, die Datenbank kennt den Stand
+                    if (item.unchanged()) {
+                        skipped.incrementAndGet();
+                        continue;
+                    }
+                    parsedCount.incrementAndGet();
+                    batch.add(item);
+                    if (batch.size() >= batchSize) {
+                        flush(name, batch, persist, changes, batches, failedBatches);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (!batch.isEmpty()) {
+                    flush(name, batch, persist, changes, batches, failedBatches);
+                }
+            }
+        }));
+
+        // Fetch-Stufe: der Stream wird auf dem aufrufenden Thread gezogen, put() blockiert bei voller Queue
+        try {
+            pages.forEach(page -> {
+                try {
+                    fetched.put(page);
+                    pageCount.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while feeding pipeline " + name, e);
+                }
+            });
+        } finally {
+            for (int i = 0; i < workers; i++) {
+                putUninterruptibly(fetched, END);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        return new Result(pageCount.get(), skipped.get(), parsedCount.get(), batches.get(), failedBatches.get());
+    }
+
+    private <IN, OUT> List<Thread> startStage(String name, BlockingQueue<Object> in, BlockingQueue<Object> out, Function<IN, OUT> stage) {
+        List<Thread> threads = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            threads.add(Thread.ofVirtual().name(name + "-" + i).start(() -> {
+                try {
+                    while (true) {
+                        Object next = in.take();
+                        if (next == END) break;
+                        OUT result;
+                        try {
+                            result = stage.apply((IN) next);
+                        } catch (RuntimeException e) {
+                            ScrapingService.LOGGER.log(Level.SEVERE, "\tPipeline stage " + name + " failed", e);
+                            continue;
+                        }
+                        if (result != null) out.put(result);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    // jeder Worker reicht genau ein END weiter, die nächste Stufe zählt sie ab
+                    putUninterruptibly(out, END);
+                }
+            }));
+        }
+        return threads;
+    }
+
+    private static void putUninterruptibly(BlockingQueue<Object> queue, Object element) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(element);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void flush(String name, List<Parsed> batch, Consumer<Set<HardwareSpec<?>>> persist, ChangeTracker changes,
+                              AtomicInteger batches, AtomicInteger failedBatches) {
+        batches.incrementAndGet();
+        Set<HardwareSpec<?>> hardware = new HashSet<>(batch.size());
+        List<ComponentWebScraper.ScrapedSpecs> specs = new ArrayList<>(batch.size());
+        for (Parsed parsed : batch) {
+            hardware.add(parsed.hardware());
+            specs.add(parsed.specs());
+        }
+        try {
+            persist.accept(hardware);
+        } catch (Throwable e) {
+            failedBatches.incrementAndGet();
+            ScrapingService.LOGGER.log(Level.SEVERE, "\tPersisting a batch of " + batch.size() + " specs failed in " + name, e);
+            return;
+        }
+        changes.persisted(specs);
+    }
+}
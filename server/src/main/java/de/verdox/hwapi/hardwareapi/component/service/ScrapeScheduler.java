@@ -0,0 +1,142 @@
+package de.verdox.hwapi.hardwareapi.component.service;
+
+import de.verdox.hwapi.io.api.ComponentWebScraper;
+import de.verdox.hwapi.model.HardwareSpec;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Führt Scraper domainübergreifend parallel aus.
+ * <p>
+ * - global höchstens {@code maxConcurrent} Scraper gleichzeitig
+ * - pro Domain ({@link ComponentWebScraper#baseURL()}) höchstens {@code maxPerDomain}
+ * - jeder Scraper läuft auf einem eigenen virtuellen Thread (blockierendes I/O ist billig)
+ * <p>
+ * Der Fortschritt wird über {@link ComponentWebScraper#getAmountTasks()} gewichtet.
+ * <p>
+ * Wartet ein Scraper längere Zeit ohne Requests (z. B. auf einen offenen Circuit-Breaker), gibt er seine Permits über
+ * {@link #sleepReleasingSlot(Duration)} solange frei.
+ */
+public class ScrapeScheduler {
+    private final int maxConcurrent;
+    private final int maxPerDomain;
+    private final Semaphore global;
+    private final ConcurrentMap<String, Semaphore> perDomain = new ConcurrentHashMap<>();
+
+    private final AtomicInteger tasksTotal = new AtomicInteger();
+    private final AtomicInteger tasksDone = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * Permits des Scrapers, der auf dem aktuellen Thread läuft.
+     */
+    private static final ThreadLocal<Slot> CURRENT_SLOT = new ThreadLocal<>();
+
+    private record Slot(ScrapeScheduler scheduler, Semaphore domainPermits) {
+    }
+
+    public record Progress(int tasksDone, int tasksTotal, int runningScrapers) {
+        public double ratio() {
+            return tasksTotal == 0 ? 1d : (double) tasksDone / tasksTotal;
+        }
+    }
+
+    public ScrapeScheduler(int maxConcurrent, int maxPerDomain) {
+        if (maxConcurrent <= 0) throw new IllegalArgumentException("maxConcurrent must be > 0");
+        if (maxPerDomain <= 0) throw new IllegalArgumentException("maxPerDomain must be > 0");
+        this.maxConcurrent = maxConcurrent;
+        this.maxPerDomain = maxPerDomain;
+        this.global = new Semaphore(maxConcurrent, true);
+    }
+
+    public Progress getProgress() {
+        return new Progress(tasksDone.get(), tasksTotal.get(), running.get());
+    }
+
+    /**
+     * Startet alle Scraper und liefert ein Future, das nach dem letzten Scraper abgeschlossen wird.
+     * Fehler einzelner Scraper brechen den Lauf nicht ab, sie werden nur geloggt.
+     */
+    public CompletableFuture<Void> runAll(List<? extends ComponentWebScraper<? extends HardwareSpec>> scrapers,
+                                          Consumer<ComponentWebScraper<? extends HardwareSpec>> job) {
+        tasksTotal.set(scrapers.stream().mapToInt(ComponentWebScraper::getAmountTasks).sum());
+        tasksDone.set(0);
+        running.set(0);
+
+        ScrapingService.LOGGER.log(Level.INFO, "Scheduling " + scrapers.size() + " scrapers (max " + maxConcurrent + " parallel, " + maxPerDomain + " per domain)");
+
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("scraper-", 0).factory());
+        List<CompletableFuture<Void>> futures = new ArrayList<>(scrapers.size());
+        for (ComponentWebScraper<? extends HardwareSpec> scraper : scrapers) {
+            futures.add(CompletableFuture.runAsync(() -> runGuarded(scraper, job), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .whenComplete((unused, throwable) -> executor.shutdown());
+    }
+
+    private void runGuarded(ComponentWebScraper<? extends HardwareSpec> scraper, Consumer<ComponentWebScraper<? extends HardwareSpec>> job) {
+        // Erst Domain-, dann globalen Permit holen: wartende Scraper derselben Domain blockieren so keine globalen Slots
+        Semaphore domainPermits = perDomain.computeIfAbsent(scraper.baseURL(), s -> new Semaphore(maxPerDomain, true));
+        try {
+            domainPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            global.acquire();
+            running.incrementAndGet();
+            CURRENT_SLOT.set(new Slot(this, domainPermits));
+            try {
+                job.accept(scraper);
+            } catch (Throwable e) {
+                ScrapingService.LOGGER.log(Level.SEVERE, "Scraper " + scraper.baseURL() + "[" + scraper.id() + "] failed", e);
+            } finally {
+                CURRENT_SLOT.remove();
+                running.decrementAndGet();
+                global.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            domainPermits.release();
+            int done = tasksDone.addAndGet(scraper.getAmountTasks());
+            ScrapingService.LOGGER.log(Level.INFO, "Scraping progress: " + done + "/" + tasksTotal.get() + " tasks");
+        }
+    }
+
+    /**
+     * Schläft {@code wait} lang; läuft der aktuelle Thread als Scraper dieses Schedulers, sind sein globaler und sein
+     * Domain-Permit währenddessen frei, damit andere Scraper die Zeit nutzen können. Danach werden beide in der
+     * gewohnten Reihenfolge (erst Domain, dann global) wieder geholt, auch wenn der Schlaf unterbrochen wurde.
+     */
+    public static void sleepReleasingSlot(Duration wait) throws InterruptedException {
+        Slot slot = CURRENT_SLOT.get();
+        if (slot == null) {
+            Thread.sleep(wait);
+            return;
+        }
+        ScrapeScheduler scheduler = slot.scheduler();
+        scheduler.running.decrementAndGet();
+        scheduler.global.release();
+        slot.domainPermits().release();
+        try {
+            Thread.sleep(wait);
+        } finally {
+            slot.domainPermits().acquireUninterruptibly();
+            scheduler.global.acquireUninterruptibly();
+            scheduler.running.incrementAndGet();
+        }
+    }
+}
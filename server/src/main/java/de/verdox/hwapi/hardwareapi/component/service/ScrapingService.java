@@ -1,14 +1,15 @@
 package de.verdox.hwapi.hardwareapi.component.service;
 
 
-import com.google.gson.GsonBuilder;
-import de.verdox.hwapi.configuration.DataStorage;
 import de.verdox.hwapi.io.api.ComponentWebScraper;
+import de.verdox.hwapi.io.api.CrawlJournal;
 import de.verdox.hwapi.io.websites.pc_builder_io.PCBuilderIOScrapers;
 import de.verdox.hwapi.model.HardwareSpec;
 import de.verdox.hwapi.priceapi.component.service.EbayAPITrackActiveListingsService;
 import de.verdox.hwapi.priceapi.component.service.EbayCompletedListingsService;
-import org.apache.commons.io.FileUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.TaskScheduler;
@@ -16,18 +17,16 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Component
@@ -62,7 +61,11 @@ public class ScrapingService {
 
     @EventListener(ApplicationReadyEvent.class)
     public void onStartup() {
-        startScraping();
+        if (replayOnStartup) {
+            replayFromCache();
+        } else {
+            startScraping();
+        }
     }
 
     private final HardwareSpecService hardwareSpecService;
@@ -70,13 +73,49 @@ public class ScrapingService {
     private final EbayCompletedListingsService ebayCompletedListingsService;
     private final EbayAPITrackActiveListingsService ebayAPITrackActiveListingsService;
     private CompletableFuture<Void> currentlyRunning;
-    private final List<ComponentWebScraper.ScrapeListener<HardwareSpec<?>>> scrapeListeners = new ArrayList<>();
+    private volatile ScrapeScheduler currentScheduler;
+    private final List<ComponentWebScraper.ScrapeListener<HardwareSpec<?>>> scrapeListeners = new CopyOnWriteArrayList<>();
     private final List<ComponentWebScraper<? extends HardwareSpec<?>>> scrapers;
     private final int amountTasksTotal;
 
     private static final int MAX_RETRIES = 3; // z.B. 3 Versuche (1 initial + 2 Retries)
     private final TaskScheduler taskScheduler;
 
+    @Value("${scraping.scheduler.max-concurrent-scrapers:4}")
+    private int maxConcurrentScrapers;
+
+    @Value("${scraping.scheduler.max-per-domain:2}")
+    private int maxScrapersPerDomain;
+
+    @Value("${scraping.replay.on-startup:false}")
+    private boolean replayOnStartup;
+
+    @Value("${scraping.pipeline.batch-size:200}")
+    private int pipelineBatchSize;
+
+    @Value("${scraping.pipeline.queue-capacity:32}")
+    private int pipelineQueueCapacity;
+
+    @Value("${scraping.pipeline.workers:2}")
+    private int pipelineWorkers;
+
+    @Value("${scraping.incremental.enabled:true}")
+    private boolean incrementalScraping;
+
+    @Value("${scraping.snapshots.enabled:true}")
+    private boolean snapshotsEnabled;
+
+    @Value("${scraping.snapshots.compress:true}")
+    private boolean snapshotsCompressed;
+
+    @Value("${scraping.snapshots.queue-capacity:1024}")
+    private int snapshotQueueCapacity;
+
+    @Value("${scraping.snapshots.keep-segments:20}")
+    private int snapshotKeepSegments;
+
+    private SpecSnapshotWriter snapshotWriter;
+
     public ScrapingService(HardwareSpecService hardwareSpecService, HardwareSyncService hardwareSyncService, EbayCompletedListingsService ebayCompletedListingsService, EbayAPITrackActiveListingsService ebayAPITrackActiveListingsService, TaskScheduler taskScheduler) {
         this.hardwareSpecService = hardwareSpecService;
         this.hardwareSyncService = hardwareSyncService;
@@ -92,6 +131,20 @@ public class ScrapingService {
         this.taskScheduler = taskScheduler;
     }
 
+    @PostConstruct
+    void startSnapshotWriter() {
+        if (snapshotsEnabled) {
+            snapshotWriter = new SpecSnapshotWriter(snapshotQueueCapacity, snapshotsCompressed, snapshotKeepSegments);
+        }
+    }
+
+    @PreDestroy
+    void stopSnapshotWriter() {
+        if (snapshotWriter != null) {
+            snapshotWriter.close();
+        }
+    }
+
     private List<ComponentWebScraper<? extends HardwareSpec<?>>> setupScrapers() {
         List<ComponentWebScraper<? extends HardwareSpec<?>>> scrapers = new ArrayList<>();
 
@@ -109,6 +162,17 @@ public class ScrapingService {
         return amountTasksTotal;
     }
 
+    /**
+     * Fortschritt des aktuellen (oder zuletzt gelaufenen) Scraping-Laufs.
+     */
+    public ScrapeScheduler.Progress getProgress() {
+        ScrapeScheduler scheduler = currentScheduler;
+        if (scheduler == null) {
+            return new ScrapeScheduler.Progress(0, amountTasksTotal, 0);
+        }
+        return scheduler.getProgress();
+    }
+
     public void addListener(ComponentWebScraper.ScrapeListener<HardwareSpec<?>> listener) {
         scrapeListeners.add(listener);
     }
@@ -149,16 +213,16 @@ public class ScrapingService {
         startScraping();
     }
 
-    public CompletableFuture<Void> startScraping() {
-        if (currentlyRunning != null) {
+    public synchronized CompletableFuture<Void> startScraping() {
+        if (currentlyRunning != null && !currentlyRunning.isDone()) {
             return currentlyRunning;
         }
 
-        currentlyRunning = CompletableFuture.runAsync(this::doScrape);
+        currentlyRunning = doScrape();
         return currentlyRunning;
     }
 
-    private void doScrape() {
+    private CompletableFuture<Void> doScrape() {
 
 /*        try {
             new DPGPUScraper().scrape(this::callScrapeEvent);
@@ -166,45 +230,121 @@ public class ScrapingService {
             ScrapingService.LOGGER.log(Level.SEVERE, "Scraper produced an exception while extracting gpu chip data", ex);
         }*/
 
-        for (ComponentWebScraper<? extends HardwareSpec> scraper : scrapers) {
-            ScrapingService.LOGGER.log(Level.INFO, "Starting scraper " + scraper.baseURL() + "[" + scraper.id() + "]");
+        ScrapeScheduler scheduler = new ScrapeScheduler(maxConcurrentScrapers, maxScrapersPerDomain);
+        currentScheduler = scheduler;
+        long start = System.currentTimeMillis();
+        // nach einem Neustart mitten im Lauf: bereits fertige Scraper nicht erneut anstoßen
+        Instant cycleStart = CrawlJournal.beginCycle();
+        List<ComponentWebScraper<? extends HardwareSpec<?>>> pending = scrapers.stream()
+                .filter(scraper -> !CrawlJournal.of(scraper.baseURL(), scraper.id()).finishedSince(cycleStart))
+                .toList();
+        if (pending.size() < scrapers.size()) {
+            LOGGER.log(Level.INFO, "Skipping " + (scrapers.size() - pending.size()) + " scrapers already finished in this run");
+        }
+        return scheduler.runAll(pending, this::scrape)
+                .whenComplete((unused, throwable) -> {
+                    if (throwable == null) CrawlJournal.endCycle();
+                    LOGGER.log(Level.INFO, "Scraping run finished in " + (System.currentTimeMillis() - start) + "ms");
+                });
+    }
+
+    /**
+     * Offline-Re-Parse: alle gecachten Seiten aller Scraper laufen erneut durch extract → parse → persist,
+     * ohne Netzwerk und ohne WebDriver. Läuft parallel auf so vielen Threads wie CPU-Kerne vorhanden sind.
+     */
+    public synchronized CompletableFuture<Void> replayFromCache() {
+        if (currentlyRunning != null && !currentlyRunning.isDone()) {
+            return currentlyRunning;
+        }
+        currentlyRunning = CompletableFuture.runAsync(this::doReplay, runnable -> Thread.ofVirtual().name("scrape-replay").start(runnable));
+        return currentlyRunning;
+    }
+
+    private void doReplay() {
+        // Replay ist rein CPU-gebunden: so viele Worker pro Stufe wie Kerne
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        LOGGER.log(Level.INFO, "Replaying scraping cache for " + scrapers.size() + " scrapers on " + parallelism + " threads");
+        ScrapePipeline pipeline = new ScrapePipeline(pipelineQueueCapacity, pipelineBatchSize, parallelism);
+        long start = System.currentTimeMillis();
+        for (ComponentWebScraper<? extends HardwareSpec<?>> scraper : scrapers) {
             try {
-                long start = System.currentTimeMillis();
-                Set scrapedSpecs = scraper.downloadWebsites()
-                        .map(document -> {
-                            try {
-                                return scraper.extract(document);
-                            } catch (Throwable e) {
-                                ScrapingService.LOGGER.log(Level.SEVERE, "\tScraper produced an exception while extracting data from [" + document.singlePageCandidate().url() + "]", e);
-                                return null;
-                            }
-                        }).filter(Objects::nonNull)
-                        .map(stringListMap -> {
-                            try {
-                                var result = scraper.parse(stringListMap, this::callScrapeEvent);
-                                if (result.isPresent() && !stringListMap.specs().isEmpty()) {
-                                    String json = new GsonBuilder().setPrettyPrinting().create().toJson(stringListMap);
-                                    String model = result.get().getModel().trim();
-
-                                    String safeModel = model.replaceAll("[\\\\/:*?\"<>|]", "_");
-
-                                    Path path = DataStorage.resolve("scraping/specs/" + scraper.baseURL() + "/" + scraper.id() + "/" + safeModel + ".json");
-                                    FileUtils.writeStringToFile(path.toFile(), json, StandardCharsets.UTF_8);
-                                    return result.get();
-                                }
-                                return null;
-                            } catch (Throwable e) {
-                                ScrapingService.LOGGER.log(Level.SEVERE, "\tScraper produced an exception while translating specs data to a target", e);
-                                return null;
-                            }
-                        })
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toSet());
-                hardwareSpecService.onScrapeMulti(scrapedSpecs);
-                ScrapingService.LOGGER.log(Level.INFO, "\tScraper scraped " + scrapedSpecs.size() + " products in " + (System.currentTimeMillis() - start) + "ms [" + scraper.baseURL() + "/" + scraper.id() + "]\n");
+                long scraperStart = System.currentTimeMillis();
+                ScrapePipeline.Result result = runPipeline(pipeline, scraper, scraper.replayCachedWebsites(), SpecFingerprintIndex.recordingOnly(scraper));
+                LOGGER.log(Level.INFO, "\tReplayed " + result.parsed() + "/" + result.pages() + " products in " + (System.currentTimeMillis() - scraperStart) + "ms [" + scraper.baseURL() + "/" + scraper.id() + "]");
             } catch (Throwable e) {
-                ScrapingService.LOGGER.log(Level.SEVERE, "\tScraper produced an exception while downloading specs pages", e);
+                LOGGER.log(Level.SEVERE, "\tReplay failed for " + scraper.baseURL() + "[" + scraper.id() + "]", e);
+            } finally {
+                finishSnapshots(scraper);
+            }
+        }
+        LOGGER.log(Level.INFO, "Replay finished in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private void scrape(ComponentWebScraper<? extends HardwareSpec> scraper) {
+        ScrapingService.LOGGER.log(Level.INFO, "Starting scraper " + scraper.baseURL() + "[" + scraper.id() + "]");
+        try {
+            long start = System.currentTimeMillis();
+            ScrapePipeline pipeline = new ScrapePipeline(pipelineQueueCapacity, pipelineBatchSize, pipelineWorkers);
+            CrawlJournal journal = CrawlJournal.of(scraper.baseURL(), scraper.id());
+            ScrapePipeline.ChangeTracker changes = (incrementalScraping ? SpecFingerprintIndex.of(scraper) : ScrapePipeline.ChangeTracker.NONE)
+                    .onCompleted(journal::completed);
+            ScrapePipeline.Result result;
+            // Schließen bricht bei einem Abbruch noch laufende Fetches ab
+            try (Stream<ComponentWebScraper.ScrapedSpecPage> pages = scraper.downloadWebsites()) {
+                result = runPipeline(pipeline, scraper, pages, changes);
+            }
+            journal.finish();
+            ScrapingService.LOGGER.log(Level.INFO, "\tScraper scraped " + result.parsed() + " products (" + result.skipped() + " unchanged) in " + (System.currentTimeMillis() - start) + "ms, " + result.batches() + " batches (" + result.failedBatches() + " failed) [" + scraper.baseURL() + "/" + scraper.id() + "]\n");
+        } catch (Throwable e) {
+            ScrapingService.LOGGER.log(Level.SEVERE, "\tScraper produced an exception while downloading specs pages", e);
+        } finally {
+            finishSnapshots(scraper);
+        }
+    }
+
+    private void finishSnapshots(ComponentWebScraper<? extends HardwareSpec> scraper) {
+        if (snapshotWriter != null) {
+            snapshotWriter.finish(scraper.baseURL() + "/" + scraper.id());
+        }
+    }
+
+    private ScrapePipeline.Result runPipeline(ScrapePipeline pipeline, ComponentWebScraper<? extends HardwareSpec> scraper,
+                                              Stream<ComponentWebScraper.ScrapedSpecPage> pages,
+                                              ScrapePipeline.ChangeTracker changes) throws InterruptedException {
+        return pipeline.run(scraper.baseURL() + "/" + scraper.id(), pages,
+                page -> extractPage(scraper, page),
+                specs -> parseSpecs(scraper, specs),
+                hardwareSpecService::onScrapeMulti,
+                changes);
+    }
+
+    private ComponentWebScraper.ScrapedSpecs extractPage(ComponentWebScraper<? extends HardwareSpec> scraper, ComponentWebScraper.ScrapedSpecPage document) {
+        try {
+            return scraper.extract(document);
+        } catch (Throwable e) {
+            ScrapingService.LOGGER.log(Level.SEVERE, "\tScraper produced an exception while extracting data from [" + document.singlePageCandidate().url() + "]", e);
+            return null;
+        }
+    }
+
+    /**
+     * Übersetzt die Spec-Map in ein Hardware-Objekt und reiht sie beim {@link SpecSnapshotWriter} ein.
+     *
+     * @return das geparste Hardware-Objekt oder null
+     */
+    private HardwareSpec<?> parseSpecs(ComponentWebScraper<? extends HardwareSpec> scraper, ComponentWebScraper.ScrapedSpecs stringListMap) {
+        try {
+            Optional<? extends HardwareSpec> result = scraper.parse(stringListMap, this::callScrapeEvent);
+            if (result.isPresent() && !stringListMap.specs().isEmpty()) {
+                if (snapshotWriter != null) {
+                    snapshotWriter.write(scraper.baseURL() + "/" + scraper.id(), result.get().getModel().trim(), stringListMap);
+                }
+                return (HardwareSpec<?>) result.get();
             }
+            return null;
+        } catch (Throwable e) {
+            ScrapingService.LOGGER.log(Level.SEVERE, "\tScraper produced an exception while translating specs data to a target", e);
+            return null;
         }
     }
 
@@ -0,0 +1,170 @@
+package de.verdox.hwapi.hardwareapi.component.service;
+
+import de.verdox.hwapi.configuration.DataStorage;
+import de.verdox.hwapi.io.api.ComponentWebScraper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+
+/**
+ * Fingerabdrücke der extrahierten Spec-Maps pro URL und Scraper.
+ * <p>
+ * Gehasht wird die normalisierte Spec-Map (sortierte Keys/Werte, Whitespace zusammengefasst), nicht das HTML –
+ * Markup-Rauschen wie Tracking-IDs oder Preise außerhalb der Specs ändert den Fingerabdruck also nicht.
+ * Ein Eintrag wird erst geschrieben, nachdem der zugehörige Batch erfolgreich persistiert wurde.
+ * <p>
+ * Auf Platte: {@code scraping/fingerprints/<domain>/<id>.tsv}, Append-Log aus {@code hash<TAB>url}-Zeilen.
+ * Nach Parser-Änderungen werden unveränderte Seiten über {@link ScrapingService#replayFromCache()} neu verarbeitet.
+ */
+public class SpecFingerprintIndex implements ScrapePipeline.ChangeTracker {
+    private static final ConcurrentMap<Path, SpecFingerprintIndex> INDEXES = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private Map<String, String> fingerprints;
+    private int lines;
+
+    private SpecFingerprintIndex(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Index eines Scrapers, der unveränderte Seiten überspringt.
+     */
+    public static SpecFingerprintIndex of(ComponentWebScraper<?> scraper) {
+        return INDEXES.computeIfAbsent(fileFor(scraper), SpecFingerprintIndex::new);
+    }
+
+    /**
+     * Sicht auf denselben Index, die nie überspringt, aber nach dem Persistieren Fingerabdrücke schreibt (Replay).
+     */
+    public static ScrapePipeline.ChangeTracker recordingOnly(ComponentWebScraper<?> scraper) {
+        SpecFingerprintIndex index = of(scraper);
+        return new ScrapePipeline.ChangeTracker() {
+            @Override
+            public boolean isUnchanged(ComponentWebScraper.ScrapedSpecs specs) {
+                return false;
+            }
+
+            @Override
+            public void persisted(List<ComponentWebScraper.ScrapedSpecs> specs) {
+                index.persisted(specs);
+            }
+        };
+    }
+
+    @Override
+    public boolean isUnchanged(ComponentWebScraper.ScrapedSpecs specs) {
+        if (specs.specs().isEmpty()) return false;
+        String hash = fingerprint(specs);
+        return hash.equals(loaded().get(specs.url()));
+    }
+
+    @Override
+    public synchronized void persisted(List<ComponentWebScraper.ScrapedSpecs> specs) {
+        StringBuilder sb = new StringBuilder();
+        Map<String, String> current = loaded();
+        for (ComponentWebScraper.ScrapedSpecs spec : specs) {
+            String hash = fingerprint(spec);
+            if (hash.equals(current.put(spec.url(), hash))) continue;
+            sb.append(hash).append('\t').append(spec.url()).append('\n');
+            lines++;
+        }
+        if (sb.isEmpty()) return;
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, sb, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Could not write spec fingerprints to " + file, e);
+        }
+    }
+
+    static String fingerprint(ComponentWebScraper.ScrapedSpecs specs) {
+        TreeMap<String, List<String>> normalized = new TreeMap<>();
+        specs.specs().forEach((key, values) -> {
+            if (key == null) return;
+            List<String> cleaned = new ArrayList<>(values == null ? 0 : values.size());
+            if (values != null) {
+                for (String value : values) {
+                    if (value != null) cleaned.add(normalize(value));
+                }
+            }
+            cleaned.sort(null);
+            normalized.put(normalize(key), cleaned);
+        });
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            normalized.forEach((key, values) -> {
+                digest.update(key.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                for (String value : values) {
+                    digest.update(value.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 1);
+                }
+                digest.update((byte) 2);
+            });
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String normalize(String s) {
+        return s.strip().replaceAll("\\s+", " ");
+    }
+
+    private synchronized Map<String, String> loaded() {
+        if (fingerprints != null) return fingerprints;
+        fingerprints = new ConcurrentHashMap<>();
+        lines = 0;
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    if (tab <= 0) continue;
+                    fingerprints.put(line.substring(tab + 1), line.substring(0, tab));
+                    lines++;
+                }
+            } catch (IOException e) {
+                ScrapingService.LOGGER.log(Level.WARNING, "Could not read spec fingerprints from " + file, e);
+            }
+            if (lines > 2 * fingerprints.size() + 64) {
+                compact();
+            }
+        }
+        return fingerprints;
+    }
+
+    private void compact() {
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            StringBuilder sb = new StringBuilder();
+            fingerprints.forEach((url, hash) -> sb.append(hash).append('\t').append(url).append('\n'));
+            Files.writeString(tmp, sb, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lines = fingerprints.size();
+        } catch (IOException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Could not compact " + file, e);
+        }
+    }
+
+    private static Path fileFor(ComponentWebScraper<?> scraper) {
+        String safeId = scraper.id().trim().replaceAll("[/\\\\\\p{Cntrl}]+", "_");
+        return DataStorage.resolve("scraping/fingerprints/" + scraper.baseURL() + "/" + safeId + ".tsv");
+    }
+}
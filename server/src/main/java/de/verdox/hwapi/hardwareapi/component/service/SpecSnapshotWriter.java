@@ -0,0 +1,261 @@
+package de.verdox.hwapi.hardwareapi.component.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import de.verdox.hwapi.configuration.DataStorage;
+import de.verdox.hwapi.io.api.ComponentWebScraper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Schreibt die Spec-Maps geparster Produkte als Debug-Snapshots, abseits der Scrape-Pipeline.
+ * <p>
+ * Einträge landen in einer begrenzten Queue ({@code put} blockiert, wenn der Writer nicht nachkommt) und werden
+ * von einem eigenen Thread gebündelt als NDJSON angehängt, eine Zeile {@code {"model", "url", "specs"}} je Produkt:
+ * <pre>
+ * scraping/specs/&lt;baseURL&gt;/&lt;id&gt;/&lt;yyyyMMdd-HHmmss&gt;-&lt;n&gt;.ndjson[.gz]
+ * </pre>
+ * Ein Segment wird am Ende des Scraper-Laufs ({@link #finish}) oder ab {@link #MAX_SEGMENT_BYTES} geschlossen;
+ * pro Scraper bleiben die {@code keepSegments} neuesten Segmente erhalten (Standard {@link #KEEP_SEGMENTS}).
+ * <p>
+ * Die Snapshots sind ein rollierendes Fenster, kein Archiv: ältere Segmente werden gelöscht, auch wenn ein Produkt
+ * seitdem nicht mehr geschrieben wurde. Da jeder Lauf alle geparsten Produkte schreibt, auch unveränderte, enthalten
+ * die neuesten Segmente den Stand der letzten Läufe; wer mehr Historie braucht, erhöht
+ * {@code scraping.snapshots.keep-segments}.
+ */
+public class SpecSnapshotWriter implements AutoCloseable {
+    static final long MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+    static final int KEEP_SEGMENTS = 20;
+    private static final int DRAIN_BATCH = 256;
+    private static final DateTimeFormatter SEGMENT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final Gson GSON = new Gson();
+
+    private sealed interface Entry permits Snapshot, Finish, Stop {
+    }
+
+    private record Snapshot(String scraper, String model, ComponentWebScraper.ScrapedSpecs specs) implements Entry {
+    }
+
+    private record Finish(String scraper) implements Entry {
+    }
+
+    private record Stop() implements Entry {
+    }
+
+    private final BlockingQueue<Entry> queue;
+    private final boolean compress;
+    private final Thread writerThread;
+    private final int keepSegments;
+    private final Map<String, Segment> open = new HashMap<>();
+    private volatile boolean closed;
+
+    public SpecSnapshotWriter(int queueCapacity, boolean compress) {
+        this(queueCapacity, compress, KEEP_SEGMENTS);
+    }
+
+    public SpecSnapshotWriter(int queueCapacity, boolean compress, int keepSegments) {
+        if (keepSegments <= 0) throw new IllegalArgumentException("keepSegments must be > 0");
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.compress = compress;
+        this.keepSegments = keepSegments;
+        this.writerThread = Thread.ofPlatform().daemon().name("spec-snapshot-writer").start(this::runWriter);
+    }
+
+    /**
+     * Reiht einen Snapshot ein; blockiert bei voller Queue. Bei Unterbrechung oder nach {@link #close()} wird der
+     * Snapshot verworfen.
+     *
+     * @param scraper z. B. {@code baseURL/id}
+     */
+    public void write(String scraper, String model, ComponentWebScraper.ScrapedSpecs specs) {
+        enqueue(new Snapshot(scraper, model, specs));
+    }
+
+    /**
+     * Schließt das offene Segment des Scrapers, sobald alle vorher eingereihten Snapshots geschrieben sind.
+     */
+    public void finish(String scraper) {
+        enqueue(new Finish(scraper));
+    }
+
+    /**
+     * Wartet bei voller Queue in kurzen Schritten und prüft dazwischen {@link #closed}: nach dem {@link Stop} liest
+     * niemand mehr, ein {@code put} bliebe sonst hängen.
+     */
+    private void enqueue(Entry entry) {
+        try {
+            while (!closed) {
+                if (queue.offer(entry, 100, TimeUnit.MILLISECONDS)) return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Schreibt alles Eingereihte und schließt die Segmente.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(new Stop());
+                writerThread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /* ----------------------- Writer-Thread ----------------------- */
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(DRAIN_BATCH);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, DRAIN_BATCH - 1);
+                boolean stop = false;
+                for (Entry entry : batch) {
+                    switch (entry) {
+                        case Snapshot snapshot -> append(snapshot);
+                        case Finish finish -> closeSegment(finish.scraper());
+                        case Stop ignored -> stop = true;
+                    }
+                }
+                batch.clear();
+                // einmal pro Batch statt pro Produkt
+                for (Segment segment : open.values()) {
+                    segment.flush();
+                }
+                if (stop) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (String scraper : List.copyOf(open.keySet())) {
+                closeSegment(scraper);
+            }
+        }
+    }
+
+    private void append(Snapshot snapshot) {
+        Segment segment = open.get(snapshot.scraper());
+        try {
+            if (segment == null) {
+                segment = Segment.create(directory(snapshot.scraper()), compress);
+                open.put(snapshot.scraper(), segment);
+            }
+            JsonObject line = new JsonObject();
+            line.addProperty("model", snapshot.model());
+            line.addProperty("url", snapshot.specs().url());
+            line.add("specs", GSON.toJsonTree(snapshot.specs().specs()));
+            segment.writeLine(GSON.toJson(line));
+            if (segment.bytes >= MAX_SEGMENT_BYTES) {
+                closeSegment(snapshot.scraper());
+            }
+        } catch (IOException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Could not write spec snapshot for " + snapshot.model() + " [" + snapshot.scraper() + "]", e);
+            closeSegment(snapshot.scraper());
+        }
+    }
+
+    private void closeSegment(String scraper) {
+        Segment segment = open.remove(scraper);
+        if (segment == null) return;
+        try {
+            segment.close();
+        } catch (IOException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Could not close spec snapshot segment " + segment.file, e);
+        }
+        pruneOldSegments(segment.file.getParent());
+    }
+
+    private void pruneOldSegments(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = files
+                    .filter(p -> p.getFileName().toString().contains(".ndjson"))
+                    .sorted(Comparator.comparing((Path p) -> p.getFileName().toString()).reversed())
+                    .toList();
+            for (Path old : segments.subList(Math.min(keepSegments, segments.size()), segments.size())) {
+                Files.deleteIfExists(old);
+            }
+        } catch (IOException e) {
+            ScrapingService.LOGGER.log(Level.FINE, "Could not prune spec snapshots in " + dir, e);
+        }
+    }
+
+    private static Path directory(String scraper) {
+        return DataStorage.resolve("scraping/specs/" + scraper);
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final BufferedWriter writer;
+        private long bytes;
+
+        private Segment(Path file, BufferedWriter writer) {
+            this.file = file;
+            this.writer = writer;
+        }
+
+        static Segment create(Path dir, boolean compress) throws IOException {
+            Files.createDirectories(dir);
+            String base = LocalDateTime.now().format(SEGMENT_TIME);
+            String suffix = compress ? ".ndjson.gz" : ".ndjson";
+            Path file = dir.resolve(base + "-0" + suffix);
+            for (int n = 1; Files.exists(file); n++) {
+                file = dir.resolve(base + "-" + n + suffix);
+            }
+            OutputStream out = Files.newOutputStream(file);
+            if (compress) {
+                // syncFlush: nach jedem Batch ist das Segment bis dahin lesbar
+                out = new GZIPOutputStream(out, 64 * 1024, true);
+            }
+            return new Segment(file, new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024));
+        }
+
+        void writeLine(String json) throws IOException {
+            writer.write(json);
+            writer.write('\n');
+            bytes += json.length() + 1;
+        }
+
+        void flush() {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                ScrapingService.LOGGER.log(Level.FINE, "Could not flush spec snapshot segment " + file, e);
+            }
+        }
+
+        void close() throws IOException {
+            writer.close();
+        }
+    }
+}
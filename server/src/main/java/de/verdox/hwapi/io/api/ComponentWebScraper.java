@@ -3,6 +3,7 @@ package de.verdox.hwapi.io.api;
 import com.google.common.net.InternetDomainName;
 import de.verdox.hwapi.hardwareapi.component.service.HardwareSpecService;
 import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
+import de.verdox.hwapi.io.api.selenium.FetchedPage;
 import de.verdox.hwapi.model.GPU;
 import de.verdox.hwapi.model.GPUChip;
 import de.verdox.hwapi.model.HardwareSpec;
@@ -13,12 +14,18 @@ import java.net.URI;
 import java.util.*;
 import java.util.function.BiPredicate;
 import java.util.logging.Level;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 public interface ComponentWebScraper<HARDWARE extends HardwareSpec> {
 
-    record ScrapedSpecPage(WebsiteScrapingStrategy.SinglePageCandidate singlePageCandidate, Document page){}
+    record ScrapedSpecPage(WebsiteScrapingStrategy.SinglePageCandidate singlePageCandidate, FetchedPage fetched){
+        /**
+         * Der beim Fetch einmal geparste Baum, geteilt von allen Extraktionsschritten.
+         */
+        public Document page() {
+            return fetched.document();
+        }
+    }
     record ScrapedSpecs(String url, Map<String, List<String>> specs){}
 
     WebsiteScrapingStrategy getWebsiteScrapingStrategy();
@@ -32,6 +39,14 @@ public interface ComponentWebScraper<HARDWARE extends HardwareSpec> {
     //TODO: Step 1
     Stream<ScrapedSpecPage> downloadWebsites() throws Throwable;
 
+    /**
+     * Offline variant of {@link #downloadWebsites()}: only serves pages from the scraping cache,
+     * never touches the network or a WebDriver.
+     */
+    default Stream<ScrapedSpecPage> replayCachedWebsites() throws Throwable {
+        return Stream.empty();
+    }
+
     //TODO: Step 2
     ScrapedSpecs extract(ScrapedSpecPage scrapedPage) throws Throwable;
 
@@ -53,33 +68,15 @@ public interface ComponentWebScraper<HARDWARE extends HardwareSpec> {
     }
 
     static long parseFirstInt(String key, Map<String, List<String>> map) {
-        List<String> values = map.getOrDefault(key, new ArrayList<>());
+        List<String> values = map.getOrDefault(key, List.of());
         if (values.isEmpty()) return 0;
-
-        String raw = values.getFirst();
-        String cleaned = raw.replaceAll("[^0-9-]", "");
-
-        if (cleaned.isBlank()) return 0;
-        try {
-            return Long.parseLong(cleaned);
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+        return SpecValues.parseLong(values.getFirst());
     }
 
     static double parseFirstDouble(String key, Map<String, List<String>> map) {
-        List<String> values = map.getOrDefault(key, new ArrayList<>());
+        List<String> values = map.getOrDefault(key, List.of());
         if (values.isEmpty()) return 0;
-
-        String raw = values.getFirst();
-        String cleaned = raw.replaceAll("[^0-9,.-]", "").replace(",", ".");
-
-        if (cleaned.isBlank()) return 0;
-        try {
-            return Double.parseDouble(cleaned);
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+        return SpecValues.parseDouble(values.getFirst());
     }
 
     static String extractFirstString(String key, Map<String, List<String>> map) {
@@ -90,34 +87,31 @@ public interface ComponentWebScraper<HARDWARE extends HardwareSpec> {
 
     static <ENUM extends Enum<ENUM>> Set<ENUM> extractEnumSet(Class<ENUM> enumClass, String key, Map<String, List<String>> map, BiPredicate<String, ENUM> isEqual) {
         Set<ENUM> set = new HashSet<>();
-        map.getOrDefault(key, new ArrayList<>()).forEach(s -> Arrays.stream(enumClass.getEnumConstants()).filter(anEnum -> isEqual.test(s, anEnum)).forEach(set::add));
+        ENUM[] constants = EnumTokenMatcher.of(enumClass).constants();
+        for (String s : map.getOrDefault(key, List.of())) {
+            for (ENUM anEnum : constants) {
+                if (isEqual.test(s, anEnum)) set.add(anEnum);
+            }
+        }
         return set;
     }
 
     static <ENUM extends Enum<ENUM>> ENUM extractFirstEnum(Class<ENUM> enumClass, String key, Map<String, List<String>> map, BiPredicate<String, ENUM> isEqual) {
-        return map.getOrDefault(key, List.of()).stream().sorted().map(String::trim).flatMap(s -> Arrays.stream(enumClass.getEnumConstants()).filter(e -> isEqual.test(s, e))).findFirst().orElse(enumClass.getEnumConstants()[0]);
+        ENUM[] constants = EnumTokenMatcher.of(enumClass).constants();
+        return map.getOrDefault(key, List.of()).stream().sorted().map(String::trim).flatMap(s -> Arrays.stream(constants).filter(e -> isEqual.test(s, e))).findFirst().orElse(constants[0]);
     }
 
+    /**
+     * Spezifischste Konstante (längster Name), die in einem der Werte als ganzes Wort vorkommt, sonst die erste.
+     */
     static <E extends Enum<E>> E extractFirstEnumPatternMatching(
             Class<E> enumClass,
             String key,
             Map<String, List<String>> map
     ) {
-        String text = String.join(" ", map.getOrDefault(key, List.of()));
-
-        List<E> enumsBySpecificity = Arrays.stream(enumClass.getEnumConstants())
-                .sorted(Comparator.comparingInt((E e) -> e.name().length()).reversed())
-                .toList();
-
-        for (E e : enumsBySpecificity) {
-            String token = Pattern.quote(e.name());
-            Pattern p = Pattern.compile("(?i)(^|\\W)" + token + "(\\W|$)");
-            if (p.matcher(text).find()) {
-                return e;
-            }
-        }
-
-        return enumClass.getEnumConstants()[0];
+        EnumTokenMatcher<E> matcher = EnumTokenMatcher.of(enumClass);
+        E found = matcher.find(map.getOrDefault(key, List.of()));
+        return found != null ? found : matcher.constants()[0];
     }
 
     static GPUChip find(HardwareSpecService hardwareSpecService, GPU target, String gpuName) {
@@ -0,0 +1,104 @@
+package de.verdox.hwapi.io.api;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stream, dessen Elemente von bis zu {@code parallelism} virtuellen Threads vorab berechnet werden.
+ * <p>
+ * Höchstens {@code 2 * parallelism} Aufgaben sind gleichzeitig laufend oder fertig, aber noch nicht abgeholt –
+ * ein langsamer Verbraucher (z. B. die Scrape-Pipeline) bremst also auch die Fetches.
+ * Elemente kommen in Fertigstellungsreihenfolge; {@code null}-Ergebnisse werden verworfen.
+ * <p>
+ * Der Stream sollte geschlossen werden, wenn er nicht vollständig konsumiert wird; das bricht offene Aufgaben ab.
+ */
+final class ConcurrentFetchStream {
+    private static final Object SKIPPED = new Object();
+    private static final Object END = new Object();
+
+    private ConcurrentFetchStream() {
+    }
+
+    static <T, R> Stream<R> of(String name, List<T> inputs, int parallelism, Function<T, R> task) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+        BlockingQueue<Object> results = new LinkedBlockingQueue<>();
+        Semaphore window = new Semaphore(parallelism * 2);
+        Semaphore running = new Semaphore(parallelism);
+        ExecutorService workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+
+        Thread dispatcher = Thread.ofVirtual().name(name + "-dispatch").start(() -> {
+            try {
+                for (T input : inputs) {
+                    window.acquire();
+                    workers.execute(() -> {
+                        Object result = null;
+                        try {
+                            running.acquire();
+                            try {
+                                result = task.apply(input);
+                            } finally {
+                                running.release();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            results.add(result == null ? SKIPPED : result);
+                        }
+                    });
+                }
+            } catch (InterruptedException | RejectedExecutionException e) {
+                // Stream wurde geschlossen
+                Thread.currentThread().interrupt();
+            } finally {
+                // wartet auf alle laufenden Aufgaben
+                workers.close();
+                results.add(END);
+            }
+        });
+
+        Iterator<R> iterator = new Iterator<>() {
+            private Object next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null || next == SKIPPED) {
+                    try {
+                        next = results.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for " + name, e);
+                    }
+                    if (next != END) window.release();
+                }
+                return next != END;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public R next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                R result = (R) next;
+                next = null;
+                return result;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    dispatcher.interrupt();
+                    workers.shutdownNow();
+                });
+    }
+}
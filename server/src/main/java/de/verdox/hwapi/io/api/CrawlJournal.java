@@ -0,0 +1,300 @@
+package de.verdox.hwapi.io.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.verdox.hwapi.configuration.DataStorage;
+import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+
+/**
+ * Persistente Crawl-Frontier eines Scrapers, damit ein abgebrochener Lauf (Deploy, OOM, Reschedule) fortgesetzt
+ * statt von vorn begonnen wird.
+ * <p>
+ * Append-Log unter {@code scraping/journal/<domain>/<id>.log}, eine Zeile je Ereignis:
+ * <pre>
+ * R &lt;epochMillis&gt;             Lauf gestartet
+ * M &lt;url&gt;                     Katalogseite eingeplant
+ * V &lt;url&gt;                     Katalogseite ausgewertet
+ * S &lt;url&gt; [&lt;specMap-JSON&gt;]   Produktseite gefunden
+ * K                           Katalog vollständig durchlaufen
+ * C &lt;url&gt;                     Produktseite erledigt (persistiert oder unverändert)
+ * F &lt;epochMillis&gt;             Lauf abgeschlossen, Datei wird auf R/F kompaktiert
+ * </pre>
+ * Zusätzlich hält {@code scraping/journal/cycle} den Start eines Gesamtlaufs über alle Scraper; solange er nicht
+ * beendet ist, werden bereits abgeschlossene Scraper beim Neustart übersprungen.
+ * <p>
+ * Unvollständige Läufe älter als {@link #MAX_RESUME_AGE} werden verworfen, dann wäre der Katalog ohnehin veraltet.
+ */
+public final class CrawlJournal {
+    static final Duration MAX_RESUME_AGE = Duration.ofDays(3);
+
+    private static final ObjectMapper OM = new ObjectMapper();
+    private static final TypeReference<Map<String, List<String>>> SPEC_MAP_TYPE = new TypeReference<>() {};
+    private static final ConcurrentMap<Path, CrawlJournal> JOURNALS = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private BufferedWriter writer;
+    private Instant startedAt;
+
+    /**
+     * Stand eines fortgesetzten Laufs; bei einem neuen Lauf sind alle Mengen leer.
+     */
+    public record Resume(boolean resumed, Instant startedAt, Set<String> visitedCatalogPages,
+                         List<String> pendingCatalogPages, boolean catalogComplete,
+                         List<WebsiteScrapingStrategy.SinglePageCandidate> foundSinglePages,
+                         Set<String> completedSinglePages) {
+
+        private static Resume fresh(Instant startedAt) {
+            return new Resume(false, startedAt, Set.of(), List.of(), false, List.of(), Set.of());
+        }
+    }
+
+    private CrawlJournal(Path file) {
+        this.file = file;
+    }
+
+    public static CrawlJournal of(String domain, String id) {
+        String safeId = id.trim().replaceAll("[/\\\\\\p{Cntrl}]+", "_");
+        return JOURNALS.computeIfAbsent(DataStorage.resolve("scraping/journal/" + domain + "/" + safeId + ".log"), CrawlJournal::new);
+    }
+
+    /* ----------------------- Gesamtlauf ----------------------- */
+
+    /**
+     * Beginnt einen Gesamtlauf oder setzt einen unterbrochenen fort.
+     *
+     * @return Startzeitpunkt des (ggf. fortgesetzten) Gesamtlaufs
+     */
+    public static Instant beginCycle() {
+        Path cycleFile = DataStorage.resolve("scraping/journal/cycle");
+        try {
+            if (Files.exists(cycleFile)) {
+                Instant started = Instant.ofEpochMilli(Long.parseLong(Files.readString(cycleFile).trim()));
+                if (started.isAfter(Instant.now().minus(MAX_RESUME_AGE))) {
+                    ScrapingService.LOGGER.log(Level.INFO, "Resuming scraping run started at " + started);
+                    return started;
+                }
+            }
+            Instant now = Instant.now();
+            Files.createDirectories(cycleFile.getParent());
+            Files.writeString(cycleFile, Long.toString(now.toEpochMilli()), StandardCharsets.UTF_8);
+            return now;
+        } catch (IOException | NumberFormatException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Could not read/write " + cycleFile + ", starting a new run", e);
+            return Instant.now();
+        }
+    }
+
+    public static void endCycle() {
+        try {
+            Files.deleteIfExists(DataStorage.resolve("scraping/journal/cycle"));
+        } catch (IOException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Could not end scraping run journal", e);
+        }
+    }
+
+    /**
+     * Ob dieser Scraper im Gesamtlauf ab {@code cycleStart} bereits fertig geworden ist.
+     */
+    public synchronized boolean finishedSince(Instant cycleStart) {
+        if (!Files.exists(file)) return false;
+        Instant started = null;
+        Instant finished = null;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("R\t")) started = parseInstant(line);
+                else if (line.startsWith("F\t")) finished = parseInstant(line);
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return started != null && finished != null && !started.isBefore(cycleStart);
+    }
+
+    /* ----------------------- Lauf eines Scrapers ----------------------- */
+
+    /**
+     * Öffnet das Journal: ein unvollständiger, nicht zu alter Lauf wird fortgesetzt, sonst beginnt ein neuer.
+     */
+    public synchronized Resume open() {
+        closeWriter();
+        Resume resume = load();
+        try {
+            Files.createDirectories(file.getParent());
+            if (resume.resumed()) {
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } else {
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                append("R", Long.toString(resume.startedAt().toEpochMilli()));
+            }
+        } catch (IOException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Could not open crawl journal " + file + ", progress will not be checkpointed", e);
+            writer = null;
+        }
+        startedAt = resume.startedAt();
+        return resume;
+    }
+
+    public synchronized void catalogPageQueued(String url) {
+        append("M", url);
+    }
+
+    public synchronized void catalogPageVisited(String url, Collection<WebsiteScrapingStrategy.SinglePageCandidate> singlePages) {
+        for (WebsiteScrapingStrategy.SinglePageCandidate candidate : singlePages) {
+            String specMap = "";
+            if (candidate.specMap() != null && !candidate.specMap().isEmpty()) {
+                try {
+                    specMap = OM.writeValueAsString(candidate.specMap());
+                } catch (IOException e) {
+                    ScrapingService.LOGGER.log(Level.FINE, "Could not journal spec map of " + candidate.url(), e);
+                }
+            }
+            append("S", specMap.isEmpty() ? clean(candidate.url()) : clean(candidate.url()) + "\t" + specMap);
+        }
+        append("V", url);
+    }
+
+    public synchronized void catalogComplete() {
+        append("K", "");
+    }
+
+    public synchronized void completed(String url) {
+        append("C", url);
+    }
+
+    /**
+     * Schließt den Lauf ab und kompaktiert die Datei auf Start-/Endzeile.
+     */
+    public synchronized void finish() {
+        closeWriter();
+        Instant started = startedAt != null ? startedAt : Instant.now();
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(tmp, "R\t" + started.toEpochMilli() + "\nF\t" + Instant.now().toEpochMilli() + "\n", StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Could not finish crawl journal " + file, e);
+        }
+        startedAt = null;
+    }
+
+    /* ----------------------- intern ----------------------- */
+
+    private Resume load() {
+        Instant now = Instant.now();
+        if (!Files.exists(file)) return Resume.fresh(now);
+
+        Instant started = null;
+        boolean finished = false;
+        boolean catalogComplete = false;
+        Set<String> queued = new LinkedHashSet<>();
+        Set<String> visited = new HashSet<>();
+        Map<String, WebsiteScrapingStrategy.SinglePageCandidate> found = new LinkedHashMap<>();
+        Set<String> completed = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() < 1) continue;
+                String payload = line.length() > 2 ? line.substring(2) : "";
+                switch (line.charAt(0)) {
+                    case 'R' -> started = parseInstant(line);
+                    case 'F' -> finished = true;
+                    case 'K' -> catalogComplete = true;
+                    case 'M' -> queued.add(payload);
+                    case 'V' -> visited.add(payload);
+                    case 'C' -> completed.add(payload);
+                    case 'S' -> {
+                        WebsiteScrapingStrategy.SinglePageCandidate candidate = parseCandidate(payload);
+                        if (candidate != null) found.put(candidate.url(), candidate);
+                    }
+                    default -> {
+                    }
+                }
+            }
+        } catch (IOException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Could not read crawl journal " + file + ", starting over", e);
+            return Resume.fresh(now);
+        }
+
+        if (finished || started == null || started.isBefore(now.minus(MAX_RESUME_AGE))) {
+            return Resume.fresh(now);
+        }
+        List<String> pending = new ArrayList<>();
+        for (String url : queued) {
+            if (!visited.contains(url)) pending.add(url);
+        }
+        return new Resume(true, started, visited, pending, catalogComplete, new ArrayList<>(found.values()), completed);
+    }
+
+    private static WebsiteScrapingStrategy.SinglePageCandidate parseCandidate(String payload) {
+        int tab = payload.indexOf('\t');
+        if (tab < 0) return payload.isEmpty() ? null : new WebsiteScrapingStrategy.SinglePageCandidate(payload);
+        try {
+            Map<String, List<String>> specMap = OM.readValue(payload.substring(tab + 1), SPEC_MAP_TYPE);
+            return new WebsiteScrapingStrategy.SinglePageCandidate(payload.substring(0, tab), new HashMap<>(specMap));
+        } catch (IOException e) {
+            // abgeschnittene letzte Zeile nach Absturz
+            return null;
+        }
+    }
+
+    private static Instant parseInstant(String line) {
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(line.substring(2).trim()));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void append(String type, String payload) {
+        if (writer == null) return;
+        try {
+            writer.write(type);
+            writer.write('\t');
+            writer.write(type.equals("S") ? payload : clean(payload));
+            writer.write('\n');
+            // flush reicht: überlebt einen JVM-Absturz, nur ein OS-Absturz kann die letzten Zeilen kosten
+            writer.flush();
+        } catch (IOException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Could not write crawl journal " + file + ", disabling checkpoints for this run", e);
+            closeWriter();
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+        }
+        writer = null;
+    }
+
+    private static String clean(String value) {
+        return value.replaceAll("[\\t\\r\\n]", " ");
+    }
+}
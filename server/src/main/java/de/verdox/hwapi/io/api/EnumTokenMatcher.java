@@ -0,0 +1,202 @@
+package de.verdox.hwapi.io.api;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Findet Enum-Namen als ganze Wörter in Freitext, vorkompiliert einmal pro Enum-Klasse.
+ * <p>
+ * Ersetzt das frühere Vorgehen, für jede Konstante bei jedem Aufruf ein
+ * {@code (?i)(^|\W)NAME(\W|$)} zu kompilieren: Ein Aho–Corasick-Automat über alle Namen läuft in einem
+ * Durchgang über den Text und meldet jedes Vorkommen. Die Semantik bleibt dieselbe:
+ * <ul>
+ *     <li>Groß-/Kleinschreibung wird nur im ASCII-Bereich ignoriert,</li>
+ *     <li>links und rechts muss Textanfang/-ende oder ein Nicht-Wortzeichen ({@code [^A-Za-z0-9_]}) stehen,</li>
+ *     <li>unter allen Treffern gewinnt der längste Name, bei gleicher Länge die zuerst deklarierte Konstante.</li>
+ * </ul>
+ */
+public final class EnumTokenMatcher<E extends Enum<E>> {
+    private static final ConcurrentMap<Class<?>, EnumTokenMatcher<?>> CACHE = new ConcurrentHashMap<>();
+
+    private final E[] constants;
+    /**
+     * ASCII-Zeichen (großgeschrieben) → Spalte in {@link #delta}, {@code -1} wenn in keinem Namen enthalten.
+     */
+    private final int[] alphabet = new int[128];
+    /**
+     * Vollständige Übergangsfunktion: {@code delta[state * width + symbol]}.
+     */
+    private final int[] delta;
+    private final int width;
+    /**
+     * Pro Zustand alle Konstanten (Ordinal), deren Name hier endet, inklusive der über Suffix-Links erreichbaren.
+     */
+    private final int[][] outputs;
+    /**
+     * Rang nach Spezifität: kleiner ist besser (längerer Name, dann frühere Deklaration).
+     */
+    private final int[] rank;
+
+    @SuppressWarnings("unchecked")
+    public static <E extends Enum<E>> EnumTokenMatcher<E> of(Class<E> enumClass) {
+        return (EnumTokenMatcher<E>) CACHE.computeIfAbsent(enumClass, c -> new EnumTokenMatcher<>(enumClass));
+    }
+
+    private EnumTokenMatcher(Class<E> enumClass) {
+        this.constants = enumClass.getEnumConstants();
+
+        Arrays.fill(alphabet, -1);
+        int symbols = 0;
+        for (E e : constants) {
+            for (int i = 0; i < e.name().length(); i++) {
+                int c = upper(e.name().charAt(i));
+                if (c < 128 && alphabet[c] < 0) alphabet[c] = symbols++;
+            }
+        }
+        this.width = Math.max(symbols, 1);
+
+        // Trie aufbauen
+        int maxStates = 1;
+        for (E e : constants) maxStates += e.name().length();
+        int[] trie = new int[maxStates * width];
+        Arrays.fill(trie, -1);
+        int[][] ends = new int[maxStates][];
+        int states = 1;
+        for (E e : constants) {
+            int state = 0;
+            String name = e.name();
+            boolean matchable = !name.isEmpty();
+            for (int i = 0; i < name.length(); i++) {
+                int c = upper(name.charAt(i));
+                if (c >= 128) {
+                    // nicht-ASCII-Namen könnte das alte Muster nur exakt treffen; kommt in HardwareTypes nicht vor
+                    matchable = false;
+                    break;
+                }
+                int slot = state * width + alphabet[c];
+                if (trie[slot] < 0) trie[slot] = states++;
+                state = trie[slot];
+            }
+            if (matchable) ends[state] = append(ends[state], e.ordinal());
+        }
+
+        // Suffix-Links per Breitensuche, dabei die Übergänge vervollständigen
+        this.delta = Arrays.copyOf(trie, states * width);
+        this.outputs = new int[states][];
+        int[] fail = new int[states];
+        int[] queue = new int[states];
+        int head = 0, tail = 0;
+        outputs[0] = ends[0] != null ? ends[0] : new int[0];
+        for (int s = 0; s < width; s++) {
+            int next = delta[s];
+            if (next < 0) {
+                delta[s] = 0;
+            } else {
+                fail[next] = 0;
+                queue[tail++] = next;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            int[] own = ends[state] != null ? ends[state] : new int[0];
+            outputs[state] = concat(own, outputs[fail[state]]);
+            for (int s = 0; s < width; s++) {
+                int slot = state * width + s;
+                int next = delta[slot];
+                if (next < 0) {
+                    delta[slot] = delta[fail[state] * width + s];
+                } else {
+                    fail[next] = delta[fail[state] * width + s];
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        this.rank = new int[constants.length];
+        Integer[] order = new Integer[constants.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> -constants[i].name().length()).thenComparingInt(i -> i));
+        for (int r = 0; r < order.length; r++) rank[order[r]] = r;
+    }
+
+    /**
+     * Spezifischste Konstante, die in {@code text} als ganzes Wort vorkommt, sonst {@code null}.
+     */
+    public E find(CharSequence text) {
+        int best = -1;
+        int bestRankSeen = Integer.MAX_VALUE;
+        int state = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            int c = upper(text.charAt(i));
+            int symbol = c < 128 ? alphabet[c] : -1;
+            if (symbol < 0) {
+                state = 0;
+                continue;
+            }
+            state = delta[state * width + symbol];
+            int[] out = outputs[state];
+            if (out.length == 0) continue;
+            boolean rightBoundary = i + 1 == length || !isWordChar(text.charAt(i + 1));
+            if (!rightBoundary) continue;
+            for (int ordinal : out) {
+                if (rank[ordinal] >= bestRankSeen) continue;
+                int start = i + 1 - constants[ordinal].name().length();
+                if (start == 0 || !isWordChar(text.charAt(start - 1))) {
+                    best = ordinal;
+                    bestRankSeen = rank[ordinal];
+                    if (bestRankSeen == 0) return constants[best];
+                }
+            }
+        }
+        return best < 0 ? null : constants[best];
+    }
+
+    /**
+     * Wie {@link #find}, über mehrere Werte so, als wären sie mit Leerzeichen verbunden.
+     */
+    public E find(Iterable<? extends CharSequence> values) {
+        E best = null;
+        for (CharSequence value : values) {
+            // das Leerzeichen trennt Wörter, Treffer über Wertgrenzen hinweg gibt es also nicht
+            E found = find(value);
+            if (found != null && (best == null || rank[found.ordinal()] < rank[best.ordinal()])) {
+                best = found;
+                if (rank[best.ordinal()] == 0) break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Die Konstanten der Enum-Klasse, ohne das Array bei jedem Aufruf zu kopieren. Nicht verändern.
+     */
+    E[] constants() {
+        return constants;
+    }
+
+    static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static int upper(char c) {
+        return c >= 'a' && c <= 'z' ? c - ('a' - 'A') : c;
+    }
+
+    private static int[] append(int[] array, int value) {
+        if (array == null) return new int[]{value};
+        int[] copy = Arrays.copyOf(array, array.length + 1);
+        copy[array.length] = value;
+        return copy;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        if (b.length == 0) return a;
+        if (a.length == 0) return b;
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -0,0 +1,102 @@
+package de.verdox.hwapi.io.api;
+
+/**
+ * Zahlen aus Spec-Werten wie {@code "1.234 MHz"} oder {@code "12,5 cm"}, ohne Regex und Zwischen-Strings.
+ * <p>
+ * Verhält sich wie das frühere {@code replaceAll("[^0-9-]", "")} + {@link Long#parseLong} bzw.
+ * {@code replaceAll("[^0-9,.-]", "").replace(",", ".")} + {@link Double#parseDouble}: alle anderen Zeichen werden
+ * übersprungen, was übrig bleibt, muss eine gültige Zahl ergeben, sonst ist das Ergebnis {@code 0}.
+ * So wird z. B. {@code "1.234,56 €"} nach wie vor zu {@code 0} (zwei Punkte).
+ */
+public final class SpecValues {
+    /**
+     * Bis hierhin ist die Mantisse exakt als double darstellbar.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private SpecValues() {
+    }
+
+    public static long parseLong(CharSequence raw) {
+        boolean negative = false;
+        boolean digits = false;
+        // negativ aufsummiert wie Long.parseLong, damit auch Long.MIN_VALUE passt
+        long result = 0;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '-') {
+                if (negative || digits) return 0;
+                negative = true;
+            } else if (c >= '0' && c <= '9') {
+                int digit = c - '0';
+                if (result < Long.MIN_VALUE / 10) return 0;
+                result *= 10;
+                if (result < Long.MIN_VALUE + digit) return 0;
+                result -= digit;
+                digits = true;
+            }
+        }
+        if (!digits) return 0;
+        if (negative) return result;
+        return result == Long.MIN_VALUE ? 0 : -result;
+    }
+
+    public static double parseDouble(CharSequence raw) {
+        boolean negative = false;
+        boolean digits = false;
+        boolean point = false;
+        long mantissa = 0;
+        int significant = 0;
+        int fractionDigits = 0;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '-') {
+                if (negative || digits || point) return 0;
+                negative = true;
+            } else if (c == '.' || c == ',') {
+                if (point) return 0;
+                point = true;
+            } else if (c >= '0' && c <= '9') {
+                digits = true;
+                if (mantissa == 0 && c == '0') {
+                    // führende Nullen zählen nicht zur Genauigkeit
+                    if (point) fractionDigits++;
+                    continue;
+                }
+                if (++significant > 18) return slowParseDouble(raw);
+                mantissa = mantissa * 10 + (c - '0');
+                if (point) fractionDigits++;
+            }
+        }
+        if (!digits) return 0;
+        double value;
+        if (mantissa <= MAX_EXACT_MANTISSA && fractionDigits < POWERS_OF_TEN.length) {
+            // beide Operanden exakt, also ist auch der Quotient korrekt gerundet (wie Double.parseDouble)
+            value = mantissa / POWERS_OF_TEN[fractionDigits];
+        } else {
+            return slowParseDouble(raw);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Sehr lange Mantissen: dem JDK die korrekte Rundung überlassen.
+     */
+    private static double slowParseDouble(CharSequence raw) {
+        StringBuilder cleaned = new StringBuilder(raw.length());
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '-' || c == '.') cleaned.append(c);
+            else if (c == ',') cleaned.append('.');
+        }
+        try {
+            return Double.parseDouble(cleaned.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -1,27 +1,40 @@
 package de.verdox.hwapi.io.api;
 
-import de.verdox.hwapi.configuration.DataStorage;
+import de.verdox.hwapi.hardwareapi.component.service.ScrapeScheduler;
 import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
 import de.verdox.hwapi.io.api.selenium.CookieJar;
-import de.verdox.hwapi.io.api.selenium.FScrapingCache;
+import de.verdox.hwapi.io.api.selenium.ScrapingCaches;
+import de.verdox.hwapi.io.api.selenium.ScrapingPaths;
 import de.verdox.hwapi.io.api.selenium.FetchOptions;
+import de.verdox.hwapi.io.api.selenium.FetchedPage;
 import de.verdox.hwapi.io.api.selenium.SeleniumBasedWebScraper;
 import de.verdox.hwapi.model.HardwareSpec;
+import de.verdox.hwapi.util.DomainCircuitBreaker;
 import lombok.Getter;
 import lombok.Setter;
 import org.jsoup.nodes.Document;
-import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.TimeoutException;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
-import java.net.MalformedURLException;
+import java.net.URI;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.stream.Stream;
 
 public abstract class WebsiteCatalogScraper<HARDWARE extends HardwareSpec<HARDWARE>> implements ComponentWebScraper<HARDWARE> {
+    /**
+     * Wie lange nach Start zurückgestellte Seiten noch auf das Schließen des Circuit-Breakers warten.
+     */
+    static final Duration MAX_DEFERRAL = Duration.ofHours(1);
+
     private final String domain;
     protected final String id;
     private final List<String> urlsToScrape;
@@ -35,89 +48,274 @@ public abstract class WebsiteCatalogScraper<HARDWARE extends HardwareSpec<HARDWA
         this.domain = domain;
         this.id = id;
         this.urlsToScrape = Arrays.stream(urlsToScrape).toList();
-        this.seleniumBasedWebScraper = new SeleniumBasedWebScraper("shop-scraper", new FScrapingCache(), new CookieJar(DataStorage.resolve("scraping")));
+        this.seleniumBasedWebScraper = new SeleniumBasedWebScraper(id, ScrapingCaches.shared(), CookieJar.shared());
     }
 
+    /**
+     * Katalogseiten werden parallel durchlaufen: sobald eine Seite ihre Folgeseite(n) verrät, wird diese
+     * angestoßen, während auf der aktuellen Seite noch Produkt-URLs extrahiert werden. Die Produktseiten werden
+     * anschließend ebenfalls parallel geladen. Die Parallelität entspricht dem Host-Limit des {@link de.verdox.hwapi.util.PoliteHttpGate}.
+     * <p>
+     * Die Frontier wird im {@link CrawlJournal} mitgeschrieben; ein abgebrochener Lauf setzt bei den offenen
+     * Katalogseiten bzw. den noch nicht erledigten Produktseiten fort.
+     * <p>
+     * Seiten, die wegen einer Challenge (offener {@link DomainCircuitBreaker}) nicht geladen werden konnten, werden
+     * zurückgestellt und nach der Abkühlzeit erneut eingereiht, höchstens bis {@link #MAX_DEFERRAL} nach Start.
+     */
     @Override
     public Stream<ScrapedSpecPage> downloadWebsites() throws Throwable {
-        Set<WebsiteScrapingStrategy.SinglePageCandidate> singlePages = new HashSet<>();
-        Set<String> alreadyCollected = new HashSet<>();
-        Queue<WebsiteScrapingStrategy.MultiPageCandidate> multiPages = new ArrayDeque<>(urlsToScrape.stream().map(WebsiteScrapingStrategy.MultiPageCandidate::new).toList());
-
-        if (multiPages.isEmpty()) {
+        if (urlsToScrape.isEmpty()) {
             ScrapingService.LOGGER.log(Level.SEVERE, "\tNo scraping url defined for " + domain + "[" + id + "]");
             return Stream.of();
         }
 
-        AtomicBoolean challengeFound = new AtomicBoolean(false);
+        int parallelism = seleniumBasedWebScraper.maxConcurrentFetches();
+        Instant deferralDeadline = Instant.now().plus(MAX_DEFERRAL);
+        CrawlJournal journal = CrawlJournal.of(baseURL(), id());
+        CrawlJournal.Resume resume = journal.open();
+        CatalogCrawl crawl = new CatalogCrawl(parallelism, journal, deferralDeadline);
+        if (resume.resumed()) {
+            ScrapingService.LOGGER.log(Level.INFO, "\tResuming crawl of " + domain + " [" + id + "] from " + resume.startedAt() + ": "
+                    + resume.pendingCatalogPages().size() + " open catalog pages, " + resume.completedSinglePages().size() + "/" + resume.foundSinglePages().size() + " products done");
+            crawl.visited.addAll(resume.visitedCatalogPages());
+            crawl.singlePages.addAll(resume.foundSinglePages());
+        }
+        if (!resume.catalogComplete()) {
+            // false: Katalog lückenhaft, ein Neustart soll die fehlenden Seiten erneut versuchen
+            if (crawl.run(resume.pendingCatalogPages())) {
+                journal.catalogComplete();
+            }
+        }
 
-        while (!multiPages.isEmpty()) {
-            WebsiteScrapingStrategy.MultiPageCandidate nextCandidate = multiPages.poll();
-            if (alreadyCollected.contains(nextCandidate.url())) {
-                continue;
+        String topLevelHost = ComponentWebScraper.topLevelHost(urlsToScrape.getFirst());
+
+        ScrapingService.LOGGER.log(Level.INFO, "\tFound " + crawl.singlePages.size() + " scraping pages on " + crawl.visited.size() + " catalog pages for " + topLevelHost + " [" + id + "]");
+
+        List<WebsiteScrapingStrategy.SinglePageCandidate> candidates = crawl.singlePages.stream()
+                .filter(singlePageCandidate -> !crawl.visited.contains(singlePageCandidate.url()))
+                .filter(singlePageCandidate -> !resume.completedSinglePages().contains(singlePageCandidate.url()))
+                .toList();
+        return fetchSinglePages(candidates, parallelism, deferralDeadline, 0);
+    }
+
+    /**
+     * Lädt die Produktseiten; zurückgestellte Seiten folgen als weitere Runde(n), sobald der Breaker wieder Requests
+     * zulässt. Die Runden werden erst gebaut, wenn der Verbraucher die vorherige vollständig gelesen hat.
+     */
+    private Stream<ScrapedSpecPage> fetchSinglePages(List<WebsiteScrapingStrategy.SinglePageCandidate> candidates, int parallelism,
+                                                     Instant deferralDeadline, int round) {
+        Queue<WebsiteScrapingStrategy.SinglePageCandidate> deferred = new ConcurrentLinkedQueue<>();
+        Stream<ScrapedSpecPage> pass = ConcurrentFetchStream.of("fetch-" + domain + "-" + id + (round > 0 ? "-retry" + round : ""), candidates, parallelism,
+                singlePageCandidate -> fetchSinglePage(singlePageCandidate, deferred));
+        Supplier<Stream<ScrapedSpecPage>> retries = () -> {
+            if (deferred.isEmpty()) return Stream.empty();
+            if (!awaitCircuit(deferred.size() + " product pages", deferralDeadline)) {
+                ScrapingService.LOGGER.log(Level.WARNING, "\tGiving up on " + deferred.size() + " product pages of " + domain + " [" + id + "], circuit stays open");
+                return Stream.empty();
             }
-            alreadyCollected.add(nextCandidate.url());
+            return fetchSinglePages(List.copyOf(deferred), parallelism, deferralDeadline, round + 1);
+        };
+        return Stream.of(() -> pass, retries)
+                .flatMap(Supplier::get)
+                .onClose(pass::close);
+    }
 
+    private ScrapedSpecPage fetchSinglePage(WebsiteScrapingStrategy.SinglePageCandidate singlePageCandidate,
+                                            Queue<WebsiteScrapingStrategy.SinglePageCandidate> deferred) {
+        try {
+            FetchedPage fetched = seleniumBasedWebScraper.fetchPage(domain, id, singlePageCandidate.url(),
+                    new FetchOptions()
+                            .setTryHeadlessFirst(websiteScrapingStrategy.supportsHeadlessScraping())
+                            .setReadySelectors(websiteScrapingStrategy.singlePageReadySelectors())
+                            .setTtl(Duration.ofDays(30))
+            );
+            if (fetched.source() == FetchedPage.Source.SHELL) {
+                deferred.add(singlePageCandidate);
+                return null;
+            }
+            return new ScrapedSpecPage(singlePageCandidate, fetched);
+        } catch (SeleniumBasedWebScraper.ChallengeFoundException e) {
+            ScrapingService.LOGGER.log(Level.SEVERE, "\tChallenge found on domain " + domain);
+            deferred.add(singlePageCandidate);
+            return null;
+        } catch (TimeoutException timeoutException) {
+            // Die betroffene Session wurde bereits im Pool verworfen
+            ScrapingService.LOGGER.log(Level.SEVERE, "\tTimeout while scraping single page " + singlePageCandidate.url());
+            return null;
+        } catch (Throwable ex) {
+            ScrapingService.LOGGER.log(Level.SEVERE, "\tCould not scrape single page " + singlePageCandidate.url(), ex);
+            return null;
+        }
+    }
+
+    /**
+     * Wartet, bis der Breaker der Domain wieder einen Request (ggf. die Probe) zulässt. Die Slots des
+     * {@link ScrapeScheduler} sind währenddessen frei.
+     *
+     * @return false, wenn das erst nach {@code deadline} der Fall wäre oder der Thread unterbrochen wurde
+     */
+    private boolean awaitCircuit(String what, Instant deadline) {
+        Instant retryAt = DomainCircuitBreaker.shared().retryAt(breakerHost());
+        if (retryAt.isAfter(deadline)) {
+            return false;
+        }
+        Duration wait = Duration.between(Instant.now(), retryAt);
+        ScrapingService.LOGGER.log(Level.INFO, "\tRe-enqueueing " + what + " of " + domain + " [" + id + "]"
+                + (wait.isPositive() ? " in " + wait.toSeconds() + "s" : ""));
+        if (wait.isPositive()) {
             try {
+                ScrapeScheduler.sleepReleasingSlot(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
 
+    private String breakerHost() {
+        String host = URI.create(urlsToScrape.getFirst()).getHost();
+        return host != null ? host : domain;
+    }
 
-                Document doc = seleniumBasedWebScraper.fetch(domain, id, nextCandidate.url(),
-                        new FetchOptions()
-                                .setTryHeadlessFirst(websiteScrapingStrategy.supportsHeadlessScraping())
-                                .setSkipIfNotCache(challengeFound.get())
-                                .setTtl(Duration.ofDays(5))
-                );
-                websiteScrapingStrategy.extractMultiPageURLs(nextCandidate.url(), doc, multiPages);
-                websiteScrapingStrategy.extractSinglePagesURLs(nextCandidate.url(), doc, singlePages);
+    /**
+     * Nebenläufige Crawl-Frontier über die Katalogseiten eines Laufs.
+     */
+    private final class CatalogCrawl {
+        private final Set<String> visited = ConcurrentHashMap.newKeySet();
+        private final Set<WebsiteScrapingStrategy.SinglePageCandidate> singlePages = ConcurrentHashMap.newKeySet();
+        private final Queue<WebsiteScrapingStrategy.MultiPageCandidate> deferred = new ConcurrentLinkedQueue<>();
+        private final Semaphore inFlight;
+        private final CrawlJournal journal;
+        private final Instant deferralDeadline;
+        // eine Partei je offener Katalogseite plus der wartende Aufrufer
+        private final Phaser pending = new Phaser(1);
+        private ExecutorService executor;
 
-            } catch (SeleniumBasedWebScraper.ChallengeFoundException e) {
-                ScrapingService.LOGGER.log(Level.SEVERE, "\tChallenge found on domain " + domain);
-                challengeFound.set(true);
+        private CatalogCrawl(int parallelism, CrawlJournal journal, Instant deferralDeadline) {
+            this.inFlight = new Semaphore(parallelism);
+            this.journal = journal;
+            this.deferralDeadline = deferralDeadline;
+        }
+
+        /**
+         * @param resumed beim Fortsetzen die eingeplanten, aber nicht ausgewerteten Katalogseiten
+         * @return ob alle Katalogseiten ausgewertet wurden
+         */
+        private boolean run(List<String> resumed) {
+            try (ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("catalog-" + domain + "-" + id + "-", 0).factory())) {
+                this.executor = executor;
+                resumed.forEach(url -> submit(new WebsiteScrapingStrategy.MultiPageCandidate(url)));
+                urlsToScrape.forEach(url -> submit(new WebsiteScrapingStrategy.MultiPageCandidate(url)));
+                pending.arriveAndAwaitAdvance();
+
+                while (!deferred.isEmpty()) {
+                    if (!awaitCircuit(deferred.size() + " catalog pages", deferralDeadline)) {
+                        ScrapingService.LOGGER.log(Level.WARNING, "\tGiving up on " + deferred.size() + " catalog pages of " + domain + " [" + id + "], circuit stays open");
+                        return false;
+                    }
+                    List<WebsiteScrapingStrategy.MultiPageCandidate> retry = new ArrayList<>(deferred);
+                    deferred.removeAll(retry);
+                    // bereits in visited, daher am Duplikat-Filter vorbei einplanen
+                    retry.forEach(this::schedule);
+                    pending.arriveAndAwaitAdvance();
+                }
+                return true;
             }
         }
 
-        String topLevelHost = ComponentWebScraper.topLevelHost(urlsToScrape.getFirst());
+        private void submit(WebsiteScrapingStrategy.MultiPageCandidate candidate) {
+            if (!visited.add(candidate.url())) {
+                return;
+            }
+            journal.catalogPageQueued(candidate.url());
+            schedule(candidate);
+        }
 
-        ScrapingService.LOGGER.log(Level.INFO, "\tFound " + singlePages.size() + " scraping pages for " + topLevelHost + " [" + id + "]");
+        private void schedule(WebsiteScrapingStrategy.MultiPageCandidate candidate) {
+            pending.register();
+            executor.execute(() -> {
+                try {
+                    visit(candidate);
+                } finally {
+                    pending.arriveAndDeregister();
+                }
+            });
+        }
 
-        return singlePages.stream().filter(singlePageCandidate -> !alreadyCollected.contains(singlePageCandidate.url())).map(singlePageCandidate -> {
+        private void visit(WebsiteScrapingStrategy.MultiPageCandidate candidate) {
             try {
-                return new ScrapedSpecPage(singlePageCandidate, seleniumBasedWebScraper.fetch(domain, id, singlePageCandidate.url(),
-                        new FetchOptions()
-                                .setTryHeadlessFirst(websiteScrapingStrategy.supportsHeadlessScraping())
-                                .setSkipIfNotCache(challengeFound.get())
-                                .setTtl(Duration.ofDays(1000000L))
-                                .setBeforeSaveOperation(driver -> {
-                                    new WebDriverWait(driver, Duration.ofSeconds(10)).until(webDriver -> {
-                                        try {
-                                            return ((JavascriptExecutor) webDriver).executeScript("return jQuery.active === 0;");
-                                        }
-                                        catch (Exception e) {
-                                            return new Object();
-                                        }
-                                    });
-                                })
-                                .setTtl(Duration.ofDays(30))
-                ));
-            } catch (SeleniumBasedWebScraper.ChallengeFoundException e) {
-                challengeFound.set(true);
-                ScrapingService.LOGGER.log(Level.SEVERE, "\tChallenge found on domain " + domain);
-                return null;
-            } catch (TimeoutException timeoutException) {
-                ScrapingService.LOGGER.log(Level.SEVERE, "\tTimeout while scraping single page " + singlePageCandidate.url());
+                FetchedPage fetched;
+                inFlight.acquire();
                 try {
-                    seleniumBasedWebScraper.restartDriver();
-                } catch (MalformedURLException e) {
-                    ScrapingService.LOGGER.log(Level.SEVERE, "\tCould not restart the selenium driver " + singlePageCandidate.url(), e);
+                    fetched = seleniumBasedWebScraper.fetchPage(domain, id, candidate.url(),
+                            new FetchOptions()
+                                    .setTryHeadlessFirst(websiteScrapingStrategy.supportsHeadlessScraping())
+                                    .setTtl(Duration.ofDays(5))
+                    );
+                } finally {
+                    inFlight.release();
                 }
-                return null;
-            } catch (Throwable ex) {
-                ScrapingService.LOGGER.log(Level.SEVERE, "\tCould not scrape single page " + singlePageCandidate.url(), ex);
-                return null;
-            } finally {
-                alreadyCollected.add(singlePageCandidate.url());
+                if (fetched.source() == FetchedPage.Source.SHELL) {
+                    // Breaker offen: nach der Abkühlzeit erneut versuchen
+                    deferred.add(candidate);
+                    return;
+                }
+                Document doc = fetched.document();
+
+                Queue<WebsiteScrapingStrategy.MultiPageCandidate> nextPages = new ArrayDeque<>();
+                websiteScrapingStrategy.extractMultiPageURLs(candidate.url(), doc, nextPages);
+                // Folgeseiten sofort anstoßen, die Produkt-URLs dieser Seite werden parallel dazu extrahiert
+                nextPages.forEach(this::submit);
+
+                Set<WebsiteScrapingStrategy.SinglePageCandidate> found = new HashSet<>();
+                websiteScrapingStrategy.extractSinglePagesURLs(candidate.url(), doc, found);
+                singlePages.addAll(found);
+                journal.catalogPageVisited(candidate.url(), found);
+            } catch (SeleniumBasedWebScraper.ChallengeFoundException e) {
+                ScrapingService.LOGGER.log(Level.SEVERE, "\tChallenge found on domain " + domain);
+                deferred.add(candidate);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                ScrapingService.LOGGER.log(Level.SEVERE, "\tCould not scrape catalog page " + candidate.url(), e);
             }
-        }).filter(Objects::nonNull);
+        }
+    }
+
+    @Override
+    public Stream<ScrapedSpecPage> replayCachedWebsites() {
+        Set<WebsiteScrapingStrategy.SinglePageCandidate> singlePages = new LinkedHashSet<>();
+        Set<String> multiPageUrls = new HashSet<>();
+        Queue<WebsiteScrapingStrategy.MultiPageCandidate> multiPages = new ArrayDeque<>(urlsToScrape.stream().map(WebsiteScrapingStrategy.MultiPageCandidate::new).toList());
+
+        // Katalog aus dem Cache nachlaufen, damit Spec-Daten aus den Übersichtsseiten erhalten bleiben
+        while (!multiPages.isEmpty()) {
+            WebsiteScrapingStrategy.MultiPageCandidate nextCandidate = multiPages.poll();
+            if (!multiPageUrls.add(ScrapingPaths.urlCanonical(nextCandidate.url()))) {
+                continue;
+            }
+            seleniumBasedWebScraper.fetchCachedOnly(domain, id, nextCandidate.url()).ifPresent(fetched -> {
+                websiteScrapingStrategy.extractMultiPageURLs(nextCandidate.url(), fetched.document(), multiPages);
+                websiteScrapingStrategy.extractSinglePagesURLs(nextCandidate.url(), fetched.document(), singlePages);
+            });
+        }
+
+        // Restliche gecachte Seiten der Gruppe (z. B. nicht mehr gelistete Produkte)
+        Set<String> known = new HashSet<>(multiPageUrls);
+        singlePages.forEach(candidate -> known.add(ScrapingPaths.urlCanonical(candidate.url())));
+        seleniumBasedWebScraper.listCachedUrls(domain, id)
+                .filter(known::add)
+                .forEach(url -> singlePages.add(new WebsiteScrapingStrategy.SinglePageCandidate(url)));
+
+        ScrapingService.LOGGER.log(Level.INFO, "\tReplaying " + singlePages.size() + " cached pages for " + domain + " [" + id + "]");
+
+        return new ArrayList<>(singlePages).stream()
+                .filter(candidate -> !multiPageUrls.contains(ScrapingPaths.urlCanonical(candidate.url())))
+                .map(candidate -> seleniumBasedWebScraper.fetchCachedOnly(domain, id, candidate.url())
+                        .map(fetched -> new ScrapedSpecPage(candidate, fetched))
+                        .orElse(null))
+                .filter(Objects::nonNull);
     }
 
     @Override
@@ -51,16 +51,13 @@ public class WebsiteScraper {
             public HARDWARE findHardwareOrCreate(String MPN, String EAN) {
                 Class<HARDWARE> clazz = (Class<HARDWARE>) constructor.get().getClass();
                 try {
-                    HARDWARE foundByEan = service.findByEAN(clazz, EAN);
+                    // MPN hat Vorrang, die EAN wird nur ohne MPN-Treffer gebraucht
                     HARDWARE foundByMpn = service.findByMPN(MPN);
-
                     if (foundByMpn != null) {
                         return foundByMpn;
-                    } else if (foundByEan != null) {
-                        return foundByEan;
-                    } else {
-                        return constructor.get();
                     }
+                    HARDWARE foundByEan = service.findByEAN(clazz, EAN);
+                    return foundByEan != null ? foundByEan : constructor.get();
                 } catch (Exception e) {
                     ScrapingService.LOGGER.log(Level.SEVERE, "An exception occured while scraping " + EAN + " in " + domain + " [" + id + "]", e);
                     return constructor.get();
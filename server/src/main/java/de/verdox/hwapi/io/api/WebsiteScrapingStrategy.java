@@ -19,6 +19,14 @@ public interface WebsiteScrapingStrategy {
         return false;
     }
 
+    /**
+     * CSS selectors that mark a single page as fully rendered when it is loaded with selenium.
+     * If empty, the page is considered ready once DOM and network are quiet.
+     */
+    default String[] singlePageReadySelectors() {
+        return new String[0];
+    }
+
     /**
      * Extracts the spec map from the provided page
      */
@@ -0,0 +1,442 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.verdox.hwapi.configuration.DataStorage;
+import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Komprimierter, inhaltsadressierter Seiten-Cache.
+ * <p>
+ * Layout unter {@code /scraping/store}:
+ * <pre>
+ * blobs/&lt;sha256[0..2]&gt;/&lt;sha256&gt;.html.gz   gzip-komprimierte Bodies, identische Seiten nur einmal
+ * index/&lt;domain&gt;/&lt;id&gt;.ndjson               Append-Log: url → Metadaten (fetchedAt, ETag, Status, Hash)
+ * </pre>
+ * Statt einer Datei pro URL gibt es pro (Domain, ID) genau eine Indexdatei; sie wird beim ersten Zugriff
+ * in den Speicher geladen und bei zu vielen überholten Zeilen kompaktiert.
+ * <p>
+ * Alte flache Dateien aus {@link FScrapingCache} werden beim Lesen transparent übernommen und danach gelöscht.
+ * <p>
+ * Blobs, auf die kein Index mehr zeigt (Seite mit geändertem Inhalt neu geladen, Eintrag gelöscht), räumt
+ * {@link #collectGarbage()} per Mark-and-Sweep über alle Indexdateien weg; angestoßen wird das automatisch, sobald
+ * genug Referenzen weggefallen sind.
+ */
+public class CompressedScrapingCache implements ScrapingCache {
+    private static final ObjectMapper OM = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> LINE_TYPE = new TypeReference<>() {};
+
+    private final Path blobRoot;
+    private final Path indexRoot;
+    private final FScrapingCache legacy = new FScrapingCache();
+    private final ConcurrentMap<Path, IdIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Nach so vielen weggefallenen Blob-Referenzen läuft eine Garbage Collection im Hintergrund.
+     */
+    static final int GC_THRESHOLD = 5_000;
+    private final AtomicInteger droppedReferences = new AtomicInteger();
+    private final AtomicBoolean gcRunning = new AtomicBoolean();
+    /**
+     * Schreibende halten den Read-Lock über Blob + Indexeintrag; die GC nimmt den Write-Lock, um
+     * {@link #savedDuringGc} scharf zu schalten und für jede einzelne Löschung. Alles davor Gespeicherte sieht die
+     * Mark-Phase, alles danach ist in der Menge geschützt.
+     */
+    private final ReadWriteLock gcLock = new ReentrantReadWriteLock();
+    private volatile Set<String> savedDuringGc;
+
+    public CompressedScrapingCache() {
+        this(DataStorage.resolve("/scraping/store"));
+    }
+
+    public CompressedScrapingCache(Path root) {
+        this.blobRoot = root.resolve("blobs");
+        this.indexRoot = root.resolve("index");
+    }
+
+    @Override
+    public void saveHtml(PageKey key, String html) {
+        saveHtml(key, html, PageMeta.fetchedNow(key.url(), 200, null, null));
+    }
+
+    @Override
+    public void saveHtml(PageKey key, String html, PageMeta meta) {
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(body);
+        PageMeta previous;
+        gcLock.readLock().lock();
+        try {
+            Set<String> protectedHashes = savedDuringGc;
+            if (protectedHashes != null) protectedHashes.add(hash);
+            writeBlobIfAbsent(hash, body);
+            previous = index(key).put(meta.withContentHash(hash));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            gcLock.readLock().unlock();
+        }
+        if (previous != null && !hash.equals(previous.contentHash())) {
+            referenceDropped();
+        }
+        legacy.delete(key);
+        ScrapingService.LOGGER.log(Level.FINER, "Saving " + key + " as blob " + hash);
+    }
+
+    @Override
+    public Optional<String> loadHtml(PageKey key) {
+        PageMeta meta = index(key).get(key.url());
+        if (meta != null) {
+            Path blob = blobFor(meta.contentHash());
+            if (Files.exists(blob)) {
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(blob))) {
+                    return Optional.of(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            // Blob fehlt (manuell gelöscht) → Eintrag ist wertlos
+            index(key).remove(key.url());
+        }
+        return migrateLegacy(key);
+    }
+
+    @Override
+    public Optional<PageMeta> loadMeta(PageKey key) {
+        PageMeta meta = index(key).get(key.url());
+        return meta != null ? Optional.of(meta) : legacy.loadMeta(key);
+    }
+
+    /**
+     * Entfernt nur den Indexeintrag; der Blob kann von anderen URLs referenziert sein und wird erst von
+     * {@link #collectGarbage()} gelöscht.
+     */
+    @Override
+    public void delete(PageKey key) {
+        if (index(key).remove(key.url())) {
+            referenceDropped();
+        }
+        legacy.delete(key);
+    }
+
+    /**
+     * Löscht alle Blobs, auf die keine Indexdatei mehr zeigt.
+     *
+     * @return Anzahl gelöschter Blobs
+     */
+    public int collectGarbage() throws IOException {
+        Set<String> protectedHashes = ConcurrentHashMap.newKeySet();
+        gcLock.writeLock().lock();
+        try {
+            savedDuringGc = protectedHashes;
+        } finally {
+            gcLock.writeLock().unlock();
+        }
+        try {
+            Set<String> referenced = markReferencedHashes();
+            int deleted = 0;
+            if (!Files.isDirectory(blobRoot)) return 0;
+            try (Stream<Path> blobs = Files.walk(blobRoot)) {
+                for (Path blob : (Iterable<Path>) blobs.filter(p -> p.getFileName().toString().endsWith(BLOB_SUFFIX))::iterator) {
+                    String name = blob.getFileName().toString();
+                    String hash = name.substring(0, name.length() - BLOB_SUFFIX.length());
+                    if (!referenced.contains(hash) && deleteUnprotected(blob, hash, protectedHashes)) {
+                        deleted++;
+                    }
+                }
+            }
+            ScrapingService.LOGGER.log(Level.INFO, "Scraping cache GC removed " + deleted + " unreferenced blobs");
+            return deleted;
+        } finally {
+            savedDuringGc = null;
+        }
+    }
+
+    /**
+     * Prüfen und Löschen unter dem Write-Lock: ein paralleles {@link #saveHtml} trägt den Hash sonst erst nach der
+     * Prüfung ein, findet den Blob noch vor und überspringt das Schreiben, bevor die GC ihn löscht.
+     */
+    private boolean deleteUnprotected(Path blob, String hash, Set<String> protectedHashes) throws IOException {
+        gcLock.writeLock().lock();
+        try {
+            return !protectedHashes.contains(hash) && Files.deleteIfExists(blob);
+        } finally {
+            gcLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void touch(PageKey key, Instant fetchedAt) {
+        IdIndex index = index(key);
+        PageMeta meta = index.get(key.url());
+        if (meta == null) {
+            legacy.touch(key, fetchedAt);
+            return;
+        }
+        try {
+            index.put(meta.withFetchedAt(fetchedAt));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Stream<Path> listHtmlFilesById(String domain, String id) {
+        Stream<Path> blobs = index(domain, id).snapshot().stream()
+                .map(meta -> blobFor(meta.contentHash()))
+                .distinct()
+                .filter(Files::exists);
+        return Stream.concat(blobs, legacy.listHtmlFilesById(domain, id));
+    }
+
+    @Override
+    public Stream<PageKey> listKeys(String domain, String id) {
+        return index(domain, id).snapshot().stream().map(meta -> new PageKey(domain, id, meta.url()));
+    }
+
+    @Override
+    public String locationOf(PageKey key) {
+        PageMeta meta = index(key).get(key.url());
+        if (meta == null) return legacy.locationOf(key);
+        return blobFor(meta.contentHash()).toAbsolutePath().toString();
+    }
+
+    /* ----------------------- intern ----------------------- */
+
+    private static final String BLOB_SUFFIX = ".html.gz";
+
+    private void referenceDropped() {
+        if (droppedReferences.incrementAndGet() < GC_THRESHOLD || !gcRunning.compareAndSet(false, true)) {
+            return;
+        }
+        droppedReferences.set(0);
+        Thread.ofVirtual().name("scraping-cache-gc").start(() -> {
+            try {
+                collectGarbage();
+            } catch (IOException | UncheckedIOException e) {
+                ScrapingService.LOGGER.log(Level.WARNING, "Scraping cache GC failed", e);
+            } finally {
+                gcRunning.set(false);
+            }
+        });
+    }
+
+    /**
+     * Hashes aus allen Indexdateien; bereits geladene Indizes zählen mit ihrem Stand im Speicher, die übrigen werden
+     * nur gelesen, nicht im Cache behalten.
+     */
+    private Set<String> markReferencedHashes() throws IOException {
+        Set<String> referenced = new HashSet<>();
+        if (!Files.isDirectory(indexRoot)) return referenced;
+        try (Stream<Path> files = Files.walk(indexRoot)) {
+            for (Path file : (Iterable<Path>) files.filter(p -> p.getFileName().toString().endsWith(".ndjson"))::iterator) {
+                if (indexes.containsKey(file)) continue;
+                Map<String, PageMeta> entries = new LinkedHashMap<>();
+                IdIndex.read(file, entries);
+                for (PageMeta meta : entries.values()) {
+                    if (meta.contentHash() != null) referenced.add(meta.contentHash());
+                }
+            }
+        }
+        // geladene Indizes mit ihrem Stand im Speicher
+        for (IdIndex index : indexes.values()) {
+            for (PageMeta meta : index.snapshot()) {
+                if (meta.contentHash() != null) referenced.add(meta.contentHash());
+            }
+        }
+        return referenced;
+    }
+
+    private Optional<String> migrateLegacy(PageKey key) {
+        Optional<String> html = legacy.loadHtml(key);
+        if (html.isPresent()) {
+            Instant fetchedAt = legacy.loadMeta(key).map(PageMeta::fetchedAt).orElse(Instant.now());
+            saveHtml(key, html.get(), new PageMeta(key.url(), fetchedAt, 200, null, null, null));
+        }
+        return html;
+    }
+
+    private void writeBlobIfAbsent(String hash, byte[] body) throws IOException {
+        Path blob = blobFor(hash);
+        if (Files.exists(blob)) return;
+        Files.createDirectories(blob.getParent());
+        Path tmp = Files.createTempFile(blob.getParent(), hash, ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp, StandardOpenOption.TRUNCATE_EXISTING))) {
+                out.write(body);
+            }
+            try {
+                Files.move(tmp, blob, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, blob);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // paralleler Writer mit identischem Inhalt war schneller
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Path blobFor(String hash) {
+        return blobRoot.resolve(hash.substring(0, 2)).resolve(hash + BLOB_SUFFIX);
+    }
+
+    private IdIndex index(PageKey key) {
+        return index(key.domain(), key.id());
+    }
+
+    private IdIndex index(String domain, String id) {
+        String safeId = id.trim().replaceAll("[/\\\\\\p{Cntrl}]+", "_");
+        Path file = indexRoot.resolve(domain).resolve(safeId + ".ndjson");
+        return indexes.computeIfAbsent(file, IdIndex::new);
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Index einer (Domain, ID)-Gruppe: im Speicher eine Map, auf Platte ein Append-Log.
+     */
+    private static final class IdIndex {
+        private final Path file;
+        private Map<String, PageMeta> entries;
+        private int lines;
+
+        private IdIndex(Path file) {
+            this.file = file;
+        }
+
+        private synchronized PageMeta get(String url) {
+            return load().get(url);
+        }
+
+        private synchronized List<PageMeta> snapshot() {
+            return new ArrayList<>(load().values());
+        }
+
+        /**
+         * @return der ersetzte Eintrag oder {@code null}
+         */
+        private synchronized PageMeta put(PageMeta meta) throws IOException {
+            PageMeta previous = load().put(meta.url(), meta);
+            append(meta.toMap());
+            return previous;
+        }
+
+        private synchronized boolean remove(String url) {
+            if (load().remove(url) == null) return false;
+            Map<String, Object> tombstone = new LinkedHashMap<>();
+            tombstone.put("url", url);
+            tombstone.put("deleted", true);
+            try {
+                append(tombstone);
+            } catch (IOException e) {
+                ScrapingService.LOGGER.log(Level.WARNING, "Could not write tombstone to " + file, e);
+            }
+            return true;
+        }
+
+        private Map<String, PageMeta> load() {
+            if (entries != null) return entries;
+            entries = new LinkedHashMap<>();
+            lines = read(file, entries);
+            if (lines > 2 * entries.size() + 64) {
+                compact();
+            }
+            return entries;
+        }
+
+        /**
+         * Liest das Append-Log in {@code entries}, ohne zu kompaktieren.
+         *
+         * @return Anzahl gelesener Zeilen
+         */
+        private static int read(Path file, Map<String, PageMeta> entries) {
+            if (!Files.exists(file)) return 0;
+            int lines = 0;
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    lines++;
+                    try {
+                        Map<String, Object> m = OM.readValue(line, LINE_TYPE);
+                        String url = (String) m.get("url");
+                        if (Boolean.TRUE.equals(m.get("deleted"))) entries.remove(url);
+                        else entries.put(url, PageMeta.fromMap(m));
+                    } catch (IOException | RuntimeException e) {
+                        // abgeschnittene letzte Zeile nach Absturz
+                        ScrapingService.LOGGER.log(Level.FINE, "Skipping corrupt index line in " + file);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return lines;
+        }
+
+        private void append(Map<String, Object> line) throws IOException {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, OM.writeValueAsString(line) + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            lines++;
+            if (lines > 2 * entries.size() + 64) {
+                compact();
+            }
+        }
+
+        private void compact() {
+            try {
+                Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+                StringBuilder sb = new StringBuilder();
+                for (PageMeta meta : entries.values()) {
+                    sb.append(OM.writeValueAsString(meta.toMap())).append('\n');
+                }
+                Files.writeString(tmp, sb, StandardCharsets.UTF_8);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                ScrapingService.LOGGER.log(Level.FINE, "Compacted " + file + " from " + lines + " to " + entries.size() + " lines");
+                lines = entries.size();
+            } catch (IOException e) {
+                ScrapingService.LOGGER.log(Level.WARNING, "Could not compact " + file, e);
+            }
+        }
+    }
+}
@@ -1,81 +1,371 @@
 package de.verdox.hwapi.io.api.selenium;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.verdox.hwapi.configuration.DataStorage;
+import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
+import de.verdox.hwapi.util.PoliteHttpGate;
 import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
 
 import java.io.IOException;
+import java.net.HttpCookie;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.time.Instant;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
+/**
+ * Cookie-Speicher für Selenium- und Headless-Fetches.
+ * <p>
+ * Cookies liegen pro Host im Speicher und sind in Partitionen aufgeteilt: eine je WebDriver-Pool-Slot
+ * ({@code slot-<n>}) und eine für Jsoup ({@link #HEADLESS}). Ein Slot ohne Cookies für einen Host übernimmt
+ * die zuletzt aktualisierte Partition dieses Hosts; Jsoup ergänzt sie immer um die eigenen Cookies. So profitiert
+ * z. B. der Headless-Pfad von einer im Browser gelösten Challenge.
+ * <p>
+ * Änderungen werden write-behind alle {@link #FLUSH_INTERVAL} nach {@code cookies/<host>.json} geschrieben,
+ * abgelaufene Cookies beim Lesen und Schreiben verworfen. Session-Cookies werden {@link #SESSION_COOKIE_TTL}
+ * lang aufgehoben, damit auch recycelte Browser-Sessions warm starten.
+ */
 public final class CookieJar {
+    public static final String HEADLESS = "headless";
+    static final Duration FLUSH_INTERVAL = Duration.ofSeconds(5);
+    static final Duration SESSION_COOKIE_TTL = Duration.ofHours(12);
+
     private static final ObjectMapper OM = new ObjectMapper();
+    private static volatile CookieJar shared;
+
     private final Path root;
+    private final ConcurrentMap<String, HostCookies> hosts = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "cookie-jar-flush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * @param expiresAt Ablaufzeitpunkt in Epoch-Millis; bei Session-Cookies der interne Verfallszeitpunkt
+     */
+    record StoredCookie(String name, String value, String domain, String path, long expiresAt, boolean session,
+                        boolean secure, boolean httpOnly, String sameSite) {
+
+        boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+
+        boolean matches(URI uri) {
+            if (secure && !"https".equalsIgnoreCase(uri.getScheme())) return false;
+            String requestPath = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            return path == null || requestPath.startsWith(path);
+        }
+
+        String key() {
+            return name + "|" + domain + "|" + path;
+        }
+    }
+
+    private static final class HostCookies {
+        private final Map<String, Map<String, StoredCookie>> partitions = new HashMap<>();
+        private final Map<String, Long> updatedAt = new HashMap<>();
+
+        private Collection<StoredCookie> lookup(String partition, long now) {
+            Map<String, StoredCookie> own = partitions.getOrDefault(partition, Map.of());
+            if (!own.isEmpty() && !partition.equals(HEADLESS)) {
+                own.values().removeIf(c -> c.isExpired(now));
+                return List.copyOf(own.values());
+            }
+            // Slots ohne eigene Cookies bzw. Headless: zuletzt aktualisierte andere Partition, eigene Cookies gewinnen
+            Map<String, StoredCookie> merged = new HashMap<>(newestOther(partition));
+            merged.putAll(own);
+            merged.values().removeIf(c -> c.isExpired(now));
+            return List.copyOf(merged.values());
+        }
+
+        private Map<String, StoredCookie> newestOther(String partition) {
+            return updatedAt.entrySet().stream()
+                    .filter(e -> !e.getKey().equals(partition))
+                    .filter(e -> !partitions.getOrDefault(e.getKey(), Map.of()).isEmpty())
+                    .max(Map.Entry.comparingByValue())
+                    .map(e -> partitions.get(e.getKey()))
+                    .orElse(Map.of());
+        }
+    }
 
     public CookieJar(Path root) {
         this.root = root;
+        long interval = FLUSH_INTERVAL.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
     }
 
-    private static String hostKey(String host) {
-        // dateinamenfreundlich
-        return host.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9.-]", "_");
+    /**
+     * Prozessweiter Cookie-Speicher unter {@code scraping/cookies}, geteilt von allen Scrapern.
+     */
+    public static CookieJar shared() {
+        CookieJar jar = shared;
+        if (jar == null) {
+            synchronized (CookieJar.class) {
+                jar = shared;
+                if (jar == null) {
+                    jar = new CookieJar(DataStorage.resolve("scraping"));
+                    shared = jar;
+                }
+            }
+        }
+        return jar;
     }
 
-    private Path fileForHost(String host) throws IOException {
-        Path dir = root.resolve("cookies");
-        Files.createDirectories(dir);
-        return dir.resolve(hostKey(host) + ".json");
+    public static synchronized void closeShared() {
+        if (shared != null) {
+            shared.close();
+        }
+        shared = null;
     }
 
-    public void save(URI uri, Set<Cookie> cookies) {
-        try {
-            Path f = fileForHost(uri.getHost());
-            List<Map<String, Object>> serial = new ArrayList<>();
-            for (Cookie c : cookies) {
-                Map<String, Object> m = new LinkedHashMap<>();
-                m.put("name", c.getName());
-                m.put("value", c.getValue());
-                m.put("domain", c.getDomain());
-                m.put("path", c.getPath());
-                m.put("expiry", c.getExpiry() != null ? c.getExpiry().toInstant().toEpochMilli() : null);
-                m.put("secure", c.isSecure());
-                m.put("httpOnly", c.isHttpOnly());
-                m.put("sameSite", c.getSameSite()); // benötigt Selenium ≥ 4.7
-                serial.add(m);
+    public static String slotPartition(int slotIndex) {
+        return "slot-" + slotIndex;
+    }
+
+    /* ----------------------- Selenium ----------------------- */
+
+    /**
+     * Setzt die gespeicherten Cookies eines Hosts in der Browser-Session.
+     * <p>
+     * Chromium-Treiber setzen sie per CDP ohne Navigation. Andere Treiber akzeptieren Cookies nur für die
+     * gerade geöffnete Domain; dort wird vorher die (leichte) {@code /favicon.ico} des Hosts über das {@code gate}
+     * geöffnet. Cookies, die der Treiber ablehnt (z. B. für eine fremde Domain), werden einzeln übersprungen.
+     *
+     * @return ob Cookies gesetzt wurden
+     */
+    public boolean applyTo(WebDriver driver, String partition, URI uri, PoliteHttpGate gate) throws Exception {
+        Collection<StoredCookie> cookies = cookies(partition, uri);
+        if (cookies.isEmpty()) return false;
+
+        if (driver instanceof HasCdp cdp) {
+            List<Map<String, Object>> params = new ArrayList<>(cookies.size());
+            for (StoredCookie c : cookies) {
+                Map<String, Object> p = new HashMap<>();
+                p.put("name", c.name());
+                p.put("value", c.value());
+                p.put("domain", c.domain() != null ? c.domain() : uri.getHost());
+                p.put("path", c.path() != null ? c.path() : "/");
+                p.put("secure", c.secure());
+                p.put("httpOnly", c.httpOnly());
+                if (c.sameSite() != null) p.put("sameSite", c.sameSite());
+                if (!c.session()) p.put("expires", c.expiresAt() / 1000d);
+                params.add(p);
+            }
+            cdp.executeCdpCommand("Network.setCookies", Map.of("cookies", params));
+            return true;
+        }
+
+        String favicon = uri.getScheme() + "://" + uri.getRawAuthority() + "/favicon.ico";
+        gate.run(uri, () -> {
+            driver.get(favicon);
+            return null;
+        });
+        boolean applied = false;
+        for (StoredCookie c : cookies) {
+            try {
+                driver.manage().addCookie(new Cookie.Builder(c.name(), c.value())
+                        .domain(c.domain())
+                        .path(c.path() != null ? c.path() : "/")
+                        .expiresOn(c.session() ? null : new Date(c.expiresAt()))
+                        .isSecure(c.secure())
+                        .isHttpOnly(c.httpOnly())
+                        .sameSite(c.sameSite())
+                        .build());
+                applied = true;
+            } catch (WebDriverException e) {
+                ScrapingService.LOGGER.log(Level.FINE, "Skipping cookie " + c.name() + " for " + c.domain() + " on " + uri.getHost() + ": " + e.getMessage());
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Übernimmt die Cookies der aktuellen Seite; der Browser ist maßgeblich, die Partition wird ersetzt.
+     */
+    public void captureFrom(WebDriver driver, String partition, URI uri) {
+        long now = System.currentTimeMillis();
+        Map<String, StoredCookie> captured = new HashMap<>();
+        for (Cookie c : driver.manage().getCookies()) {
+            boolean session = c.getExpiry() == null;
+            long expiresAt = session ? now + SESSION_COOKIE_TTL.toMillis() : c.getExpiry().getTime();
+            StoredCookie stored = new StoredCookie(c.getName(), c.getValue(), c.getDomain(), c.getPath(), expiresAt, session,
+                    c.isSecure(), c.isHttpOnly(), c.getSameSite());
+            if (!stored.isExpired(now)) captured.put(stored.key(), stored);
+        }
+        update(uri.getHost(), partition, now, cookies -> {
+            cookies.clear();
+            cookies.putAll(captured);
+        });
+    }
+
+    /* ----------------------- Headless ----------------------- */
+
+    /**
+     * Cookies für eine Jsoup-Anfrage auf {@code uri} (Name → Wert).
+     */
+    public Map<String, String> headerCookies(URI uri) {
+        Map<String, String> out = new LinkedHashMap<>();
+        for (StoredCookie c : cookies(HEADLESS, uri)) {
+            if (c.matches(uri)) out.put(c.name(), c.value());
+        }
+        return out;
+    }
+
+    /**
+     * Übernimmt {@code Set-Cookie}-Header einer Jsoup-Antwort in die Headless-Partition.
+     */
+    public void captureFrom(URI uri, List<String> setCookieHeaders) {
+        if (setCookieHeaders == null || setCookieHeaders.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        List<HttpCookie> parsed = new ArrayList<>();
+        for (String header : setCookieHeaders) {
+            try {
+                parsed.addAll(HttpCookie.parse(header));
+            } catch (IllegalArgumentException e) {
+                ScrapingService.LOGGER.log(Level.FINE, "Ignoring malformed Set-Cookie from " + uri.getHost() + ": " + header);
+            }
+        }
+        if (parsed.isEmpty()) return;
+        update(uri.getHost(), HEADLESS, now, cookies -> {
+            for (HttpCookie c : parsed) {
+                boolean session = c.getMaxAge() < 0;
+                long expiresAt = session ? now + SESSION_COOKIE_TTL.toMillis() : now + c.getMaxAge() * 1000L;
+                StoredCookie stored = new StoredCookie(c.getName(), c.getValue(),
+                        c.getDomain() != null ? c.getDomain() : uri.getHost(), c.getPath() != null ? c.getPath() : "/",
+                        expiresAt, session, c.getSecure(), c.isHttpOnly(), null);
+                // Max-Age=0 bzw. Expires in der Vergangenheit löscht das Cookie
+                if (stored.isExpired(now)) cookies.remove(stored.key());
+                else cookies.put(stored.key(), stored);
+            }
+        });
+    }
+
+    /* ----------------------- Speicher ----------------------- */
+
+    private Collection<StoredCookie> cookies(String partition, URI uri) {
+        if (uri.getHost() == null) return List.of();
+        HostCookies host = host(uri.getHost());
+        synchronized (host) {
+            return host.lookup(partition, System.currentTimeMillis());
+        }
+    }
+
+    private void update(String hostName, String partition, long now, java.util.function.Consumer<Map<String, StoredCookie>> change) {
+        if (hostName == null) return;
+        HostCookies host = host(hostName);
+        synchronized (host) {
+            change.accept(host.partitions.computeIfAbsent(partition, p -> new HashMap<>()));
+            host.updatedAt.put(partition, now);
+        }
+        dirty.add(hostKey(hostName));
+    }
+
+    private HostCookies host(String hostName) {
+        return hosts.computeIfAbsent(hostKey(hostName), this::load);
+    }
+
+    /**
+     * Schreibt alle geänderten Hosts auf die Platte.
+     */
+    public void flush() {
+        for (String key : List.copyOf(dirty)) {
+            if (!dirty.remove(key)) continue;
+            HostCookies host = hosts.get(key);
+            if (host == null) continue;
+            try {
+                write(key, host);
+            } catch (IOException e) {
+                dirty.add(key);
+                ScrapingService.LOGGER.log(Level.WARNING, "Could not persist cookies for " + key, e);
+            }
+        }
+    }
+
+    public void close() {
+        flusher.shutdownNow();
+        flush();
+    }
+
+    private void write(String key, HostCookies host) throws IOException {
+        long now = System.currentTimeMillis();
+        ObjectNode json = OM.createObjectNode();
+        synchronized (host) {
+            for (Map.Entry<String, Map<String, StoredCookie>> partition : host.partitions.entrySet()) {
+                partition.getValue().values().removeIf(c -> c.isExpired(now));
+                if (partition.getValue().isEmpty()) continue;
+                ObjectNode node = json.putObject(partition.getKey());
+                node.put("updatedAt", host.updatedAt.getOrDefault(partition.getKey(), now));
+                ArrayNode array = node.putArray("cookies");
+                partition.getValue().values().forEach(c -> array.add(OM.valueToTree(c)));
             }
-            Files.writeString(f, OM.writerWithDefaultPrettyPrinter().writeValueAsString(serial), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-        } catch (IOException ignore) {
         }
+        Path file = fileForHost(key);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, OM.writeValueAsBytes(json));
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 
-    public Set<Cookie> load(URI uri) {
+    private HostCookies load(String key) {
+        HostCookies host = new HostCookies();
         try {
-            Path f = fileForHost(uri.getHost());
-            if (!Files.exists(f)) return Set.of();
-            List<Map<String, Object>> serial = OM.readValue(Files.readString(f), new TypeReference<>() {});
-            Set<Cookie> out = new LinkedHashSet<>();
+            Path file = fileForHost(key);
+            if (!Files.exists(file)) return host;
+            JsonNode json = OM.readTree(Files.readString(file, StandardCharsets.UTF_8));
             long now = System.currentTimeMillis();
-            for (Map<String, Object> m : serial) {
-                Long exp = (m.get("expiry") instanceof Number n) ? n.longValue() : null;
-                if (exp != null && exp < now) continue;
-                Cookie c = new Cookie.Builder((String)m.get("name"), (String)m.get("value"))
-                        .domain((String)m.getOrDefault("domain", uri.getHost()))
-                        .path((String)m.getOrDefault("path", "/"))
-                        .expiresOn(exp != null ? Date.from(Instant.ofEpochMilli(exp)) : null)
-                        .isSecure(Boolean.TRUE.equals(m.get("secure")))
-                        .isHttpOnly(Boolean.TRUE.equals(m.get("httpOnly")))
-                        .sameSite((String)m.get("sameSite"))
-                        .build();
-                out.add(c);
+            if (json.isArray()) {
+                // altes Format: eine Liste pro Host ohne Partitionen
+                readCookies(json, host.partitions.computeIfAbsent(HEADLESS, p -> new HashMap<>()), now);
+                host.updatedAt.put(HEADLESS, 0L);
+                return host;
             }
-            return out;
-        } catch (Exception e) {
-            return Set.of();
+            json.fields().forEachRemaining(entry -> {
+                readCookies(entry.getValue().path("cookies"), host.partitions.computeIfAbsent(entry.getKey(), p -> new HashMap<>()), now);
+                host.updatedAt.put(entry.getKey(), entry.getValue().path("updatedAt").asLong(0));
+            });
+        } catch (IOException | RuntimeException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Could not read cookies for " + key + ", starting without", e);
+        }
+        return host;
+    }
+
+    private static void readCookies(JsonNode array, Map<String, StoredCookie> into, long now) {
+        for (JsonNode node : array) {
+            boolean legacy = !node.has("session");
+            long expiresAt = node.path(legacy ? "expiry" : "expiresAt").asLong(0);
+            boolean session = legacy ? node.path("expiry").isNull() || node.path("expiry").isMissingNode() : node.path("session").asBoolean();
+            if (legacy && session) expiresAt = now + SESSION_COOKIE_TTL.toMillis();
+            StoredCookie cookie = new StoredCookie(node.path("name").asText(), node.path("value").asText(),
+                    node.path("domain").asText(null), node.path("path").asText("/"), expiresAt, session,
+                    node.path("secure").asBoolean(), node.path("httpOnly").asBoolean(), node.path("sameSite").asText(null));
+            if (!cookie.isExpired(now)) into.put(cookie.key(), cookie);
         }
     }
+
+    private static String hostKey(String host) {
+        // dateinamenfreundlich
+        return host.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9.-]", "_");
+    }
+
+    private Path fileForHost(String key) throws IOException {
+        Path dir = root.resolve("cookies");
+        Files.createDirectories(dir);
+        return dir.resolve(key + ".json");
+    }
 }
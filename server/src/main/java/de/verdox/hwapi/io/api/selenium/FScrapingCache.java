@@ -7,6 +7,8 @@ import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.stream.Stream;
@@ -35,6 +37,38 @@ public class FScrapingCache implements ScrapingCache {
         }
     }
 
+    /**
+     * Flache Dateien kennen keine Metadaten, die Fetch-Zeit ist hier die mtime der Datei.
+     */
+    @Override
+    public Optional<PageMeta> loadMeta(PageKey key) {
+        Path file = ScrapingPaths.fileFor(key);
+        if (!Files.exists(file)) return Optional.empty();
+        try {
+            FileTime lastModified = Files.getLastModifiedTime(file);
+            return Optional.of(new PageMeta(key.url(), lastModified.toInstant(), 200, null, null, null));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(PageKey key) {
+        try {
+            Files.deleteIfExists(ScrapingPaths.fileFor(key));
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public void touch(PageKey key, Instant fetchedAt) {
+        try {
+            Path file = ScrapingPaths.fileFor(key);
+            if (Files.exists(file)) Files.setLastModifiedTime(file, FileTime.from(fetchedAt));
+        } catch (IOException ignored) {
+        }
+    }
+
     @Override
     public Stream<Path> listHtmlFilesById(String domain, String id) {
         Path dir = ScrapingPaths.idFolder(domain, id);
@@ -50,4 +84,20 @@ public class FScrapingCache implements ScrapingCache {
             throw new UncheckedIOException(e);
         }
     }
+
+    /**
+     * Nicht unterstützt: flache Dateien tragen nur den Hash der URL im Namen, die URL selbst ist nicht
+     * rekonstruierbar. Liefert daher immer einen leeren Stream, auch wenn Seiten der Gruppe gecacht sind; in dem Fall
+     * wird gewarnt, damit ein Aufrufer die leere Liste nicht für "nichts im Cache" hält. Wer Schlüssel aufzählen muss,
+     * braucht ein Backend mit Metadaten ({@link CompressedScrapingCache}, {@link SegmentedScrapingCache}).
+     */
+    @Override
+    public Stream<PageKey> listKeys(String domain, String id) {
+        Path dir = ScrapingPaths.idFolder(domain, id);
+        if (Files.isDirectory(dir)) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Cannot enumerate cached pages of " + domain + "/" + id
+                    + ": the flat file cache stores only URL hashes, returning no keys");
+        }
+        return Stream.empty();
+    }
 }
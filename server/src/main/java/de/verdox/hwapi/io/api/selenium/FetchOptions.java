@@ -3,6 +3,7 @@ package de.verdox.hwapi.io.api.selenium;
 import lombok.Getter;
 
 import java.time.Duration;
+import java.util.List;
 
 @Getter
 public class FetchOptions {
@@ -10,6 +11,10 @@ public class FetchOptions {
     private boolean tryHeadlessFirst;
     private Duration ttl = Duration.ofDays(10);
     private BeforeSaveOperation beforeSaveOperation = driver -> {};
+    /**
+     * CSS-Selektoren, deren Vorhandensein eine Selenium-Seite als fertig geladen markiert.
+     */
+    private List<String> readySelectors = List.of();
 
     public FetchOptions setSkipIfNotCache(boolean skipIfNotCache) {
         this.skipIfNotCache = skipIfNotCache;
@@ -30,4 +35,9 @@ public class FetchOptions {
         this.beforeSaveOperation = beforeSaveOperation;
         return this;
     }
+
+    public FetchOptions setReadySelectors(String... readySelectors) {
+        this.readySelectors = List.of(readySelectors);
+        return this;
+    }
 }
@@ -0,0 +1,165 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+
+/**
+ * Entscheidet pro Fetch, ob zuerst headless (Jsoup) oder direkt per Selenium geladen wird.
+ * <p>
+ * Ein Headless-Fetch kostet etwa ein Fünfzigstel eines Browser-Seitenaufrufs, ein Fehlschlag (Challenge, 403, ...)
+ * kostet dagegen einen zusätzlichen Request und drosselt den Host im {@link de.verdox.hwapi.util.PoliteHttpGate}.
+ * Deshalb werden je Host und je Pfadmuster (erstes Pfadsegment) die Erfolgsquoten beider Wege als gleitender
+ * Mittelwert geführt:
+ * <ul>
+ *     <li>ohne ausreichende Daten oder bei verlässlichem Headless-Erfolg wird headless geladen,</li>
+ *     <li>ist Selenium nicht nennenswert erfolgreicher, ebenfalls headless (der billigere Weg),</li>
+ *     <li>sonst Selenium, wobei alle {@link #PROBE_INTERVAL} ein einzelner Headless-Versuch prüft, ob sich die
+ *     Lage geändert hat.</li>
+ * </ul>
+ * Statistiken des Pfadmusters haben Vorrang, solange sie genug Stichproben haben; sonst gilt die des Hosts.
+ */
+public class FetchRouter {
+    static final double ALPHA = 0.1;
+    static final int MIN_SAMPLES = 5;
+    static final double MIN_HEADLESS_SUCCESS = 0.7;
+    static final double SELENIUM_ADVANTAGE = 0.1;
+    static final Duration PROBE_INTERVAL = Duration.ofMinutes(5);
+
+    private static volatile FetchRouter shared;
+
+    public enum Route {HEADLESS, SELENIUM}
+
+    private final ConcurrentMap<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Prozessweiter Router, geteilt von allen Scrapern.
+     */
+    public static FetchRouter shared() {
+        FetchRouter router = shared;
+        if (router == null) {
+            synchronized (FetchRouter.class) {
+                router = shared;
+                if (router == null) {
+                    router = new FetchRouter();
+                    shared = router;
+                }
+            }
+        }
+        return router;
+    }
+
+    /**
+     * Weg für die nächste Anfrage auf {@code url}.
+     */
+    public Route route(String url) {
+        String host = host(url);
+        Stats pathStats = stats.get(pathKey(host, url));
+        Stats hostStats = stats.get(host);
+        Stats decisive = pathStats != null && pathStats.isTrusted() ? pathStats : hostStats;
+        if (decisive == null) {
+            return Route.HEADLESS;
+        }
+        return decisive.route(System.nanoTime());
+    }
+
+    /**
+     * Ergebnis eines Fetches melden. Fehler, für die der Weg nichts kann (z. B. 404), nicht melden.
+     */
+    public void record(String url, Route route, boolean success) {
+        String host = host(url);
+        stats(host).record(host, route, success);
+        String pathKey = pathKey(host, url);
+        stats(pathKey).record(pathKey, route, success);
+    }
+
+    private Stats stats(String key) {
+        return stats.computeIfAbsent(key, k -> new Stats());
+    }
+
+    private static String host(String url) {
+        try {
+            String host = new URI(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : url;
+        } catch (URISyntaxException e) {
+            return url;
+        }
+    }
+
+    /**
+     * Host plus erstes Pfadsegment; rein numerische Segmente (IDs) zählen als {@code *}.
+     */
+    static String pathKey(String host, String url) {
+        String path;
+        try {
+            path = new URI(url).getRawPath();
+        } catch (URISyntaxException e) {
+            path = null;
+        }
+        if (path == null || path.length() <= 1) {
+            return host + "/";
+        }
+        int end = path.indexOf('/', 1);
+        String segment = end < 0 ? path.substring(1) : path.substring(1, end);
+        if (!segment.isEmpty() && segment.chars().allMatch(Character::isDigit)) {
+            segment = "*";
+        }
+        return host + "/" + segment;
+    }
+
+    private static final class Stats {
+        private double headlessRate = 1;
+        private double seleniumRate = 1;
+        private int headlessSamples;
+        private int seleniumSamples;
+        private long nextProbeAt;
+        private Route lastRoute = Route.HEADLESS;
+
+        synchronized boolean isTrusted() {
+            return headlessSamples >= MIN_SAMPLES;
+        }
+
+        synchronized Route route(long now) {
+            if (prefersHeadless()) {
+                return Route.HEADLESS;
+            }
+            if (now - nextProbeAt >= 0) {
+                nextProbeAt = now + PROBE_INTERVAL.toNanos();
+                return Route.HEADLESS;
+            }
+            return Route.SELENIUM;
+        }
+
+        synchronized void record(String key, Route route, boolean success) {
+            double value = success ? 1 : 0;
+            if (route == Route.HEADLESS) {
+                headlessRate = headlessSamples == 0 ? value : headlessRate + ALPHA * (value - headlessRate);
+                headlessSamples++;
+            } else {
+                seleniumRate = seleniumSamples == 0 ? value : seleniumRate + ALPHA * (value - seleniumRate);
+                seleniumSamples++;
+            }
+            Route preferred = prefersHeadless() ? Route.HEADLESS : Route.SELENIUM;
+            if (preferred != lastRoute) {
+                lastRoute = preferred;
+                if (preferred == Route.SELENIUM) {
+                    nextProbeAt = System.nanoTime() + PROBE_INTERVAL.toNanos();
+                }
+                ScrapingService.LOGGER.log(Level.INFO, String.format(Locale.ROOT, "Fetch routing for %s → %s (headless %.0f%% of %d, selenium %.0f%% of %d)",
+                        key, preferred, headlessRate * 100, headlessSamples, seleniumRate * 100, seleniumSamples));
+            }
+        }
+
+        private boolean prefersHeadless() {
+            if (headlessSamples < MIN_SAMPLES) return true;
+            if (headlessRate >= MIN_HEADLESS_SUCCESS) return true;
+            return seleniumSamples >= MIN_SAMPLES && seleniumRate < headlessRate + SELENIUM_ADVANTAGE;
+        }
+    }
+}
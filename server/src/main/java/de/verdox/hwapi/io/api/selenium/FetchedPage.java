@@ -0,0 +1,42 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import org.jsoup.nodes.Document;
+
+/**
+ * Ergebnis eines Fetches: der einmal geparste (geslimmte) Baum samt Metadaten.
+ * <p>
+ * Challenge-/Save-Prüfung, URL-Extraktion und Spec-Extraktion arbeiten alle auf {@link #document()};
+ * niemand muss die Seite erneut aus einem String parsen.
+ *
+ * @param key      Cache-Schlüssel (kanonisierte URL)
+ * @param document geparste Seite
+ * @param meta     Fetch-Metadaten (bei {@link Source#SHELL} ohne Cache-Eintrag erzeugt)
+ * @param source   woher die Seite stammt
+ */
+public record FetchedPage(PageKey key, Document document, PageMeta meta, Source source) {
+
+    public enum Source {
+        /**
+         * Frischer Cache-Eintrag, kein Netzwerkzugriff.
+         */
+        CACHE,
+        /**
+         * Veralteter Cache-Eintrag, vom Server per 304 bestätigt.
+         */
+        REVALIDATED,
+        HEADLESS,
+        SELENIUM,
+        /**
+         * Leere Hülle, weil nur aus dem Cache gelesen werden durfte.
+         */
+        SHELL
+    }
+
+    public String url() {
+        return key.url();
+    }
+
+    public boolean fromNetwork() {
+        return source == Source.HEADLESS || source == Source.SELENIUM;
+    }
+}
@@ -24,6 +24,9 @@ import java.util.zip.GZIPOutputStream;
  * - Entfernt Inline-Event-Handler (on*) und style (optional)
  * - Macht href/src absolut & strippt Tracking-Parameter (utm_*, _sp, mkcid,...)
  * - Optional: GZIP/Zstd ausgeben
+ * <p>
+ * Arbeitet auf einem vollständigen Jsoup-DOM. Für den Scraping-Pfad gibt es {@link StreamingHtmlSlimmer},
+ * der dieselben {@link Options} in einem Durchlauf über den Token-Strom anwendet.
  */
 public final class HtmlSlimmer {
 
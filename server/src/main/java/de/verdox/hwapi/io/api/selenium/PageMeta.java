@@ -0,0 +1,67 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Metadaten einer gecachten Seite. Frische wird über {@link #fetchedAt()} bestimmt, nicht über Datei-Zeitstempel.
+ *
+ * @param url          kanonisierte URL
+ * @param fetchedAt    Zeitpunkt des (letzten bestätigten) Fetches
+ * @param status       HTTP-Status (Selenium liefert keinen, dort 200)
+ * @param etag         ETag-Header, falls vorhanden
+ * @param lastModified Last-Modified-Header, falls vorhanden
+ * @param contentHash  SHA-256 des Bodys (null für Legacy-Dateien)
+ */
+public record PageMeta(String url, Instant fetchedAt, int status, String etag, String lastModified,
+                       String contentHash) {
+
+    public static PageMeta fetchedNow(String url, int status, String etag, String lastModified) {
+        return new PageMeta(url, Instant.now(), status, etag, lastModified, null);
+    }
+
+    public PageMeta withContentHash(String contentHash) {
+        return new PageMeta(url, fetchedAt, status, etag, lastModified, contentHash);
+    }
+
+    public PageMeta withFetchedAt(Instant fetchedAt) {
+        return new PageMeta(url, fetchedAt, status, etag, lastModified, contentHash);
+    }
+
+    /**
+     * null, ZERO oder negativ ⇒ immer frisch.
+     */
+    public boolean isFresh(Duration ttl) {
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) return true;
+        return fetchedAt != null && fetchedAt.isAfter(Instant.now().minus(ttl));
+    }
+
+    /**
+     * Serialisierbare Form (JSON-Zeilen der Cache-Indizes).
+     */
+    Map<String, Object> toMap() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("url", url);
+        m.put("fetchedAt", fetchedAt != null ? fetchedAt.toEpochMilli() : null);
+        m.put("status", status);
+        m.put("etag", etag);
+        m.put("lastModified", lastModified);
+        m.put("hash", contentHash);
+        return m;
+    }
+
+    static PageMeta fromMap(Map<String, Object> m) {
+        Number fetchedAt = (Number) m.get("fetchedAt");
+        Number status = (Number) m.get("status");
+        return new PageMeta(
+                (String) m.get("url"),
+                fetchedAt != null ? Instant.ofEpochMilli(fetchedAt.longValue()) : null,
+                status != null ? status.intValue() : 200,
+                (String) m.get("etag"),
+                (String) m.get("lastModified"),
+                (String) m.get("hash")
+        );
+    }
+}
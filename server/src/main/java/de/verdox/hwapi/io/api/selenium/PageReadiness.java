@@ -0,0 +1,137 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+
+/**
+ * Ereignisgesteuertes Warten auf eine "fertige" Seite statt fester Sleeps.
+ * <p>
+ * Eine Seite gilt als bereit, wenn
+ * - alle vom Aufrufer gelieferten CSS-Selektoren vorhanden sind und jQuery (falls vorhanden) idle ist, oder
+ * - {@code document.readyState == complete}, keine DOM-Mutationen und keine neuen Resource-Timing-Einträge
+ * (Netzwerk-Idle) seit {@link #QUIET_PERIOD} aufgetreten sind.
+ * <p>
+ * Die gemessenen Zeiten werden pro Domain festgehalten, das Warte-Budget (Timeout) passt sich daran an.
+ */
+public final class PageReadiness {
+    static final Duration QUIET_PERIOD = Duration.ofMillis(300);
+    private static final Duration SELECTOR_GRACE = Duration.ofSeconds(2);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+    private static final Duration MIN_BUDGET = Duration.ofMillis(1500);
+    private static final Duration MAX_BUDGET = Duration.ofSeconds(15);
+    private static final Duration DEFAULT_BUDGET = Duration.ofSeconds(10);
+
+    private static final String READY_SCRIPT = """
+            var quietMs = arguments[0], selectors = arguments[1], graceMs = arguments[2];
+            var now = Date.now();
+            var s = window.__hwapiReady;
+            if (!s) {
+                s = window.__hwapiReady = {lastChange: now, start: now, resources: -1};
+                try {
+                    new MutationObserver(function () { s.lastChange = Date.now(); })
+                        .observe(document, {childList: true, subtree: true, attributes: true, characterData: true});
+                } catch (e) {}
+            }
+            if (document.readyState !== 'complete') return false;
+            if (window.jQuery && window.jQuery.active > 0) return false;
+            var res = (window.performance && performance.getEntriesByType) ? performance.getEntriesByType('resource').length : 0;
+            if (res !== s.resources) { s.resources = res; s.lastChange = now; }
+            if (selectors.length > 0) {
+                var found = true;
+                for (var i = 0; i < selectors.length; i++) {
+                    if (!document.querySelector(selectors[i])) { found = false; break; }
+                }
+                if (found) return true;
+            }
+            return now - s.lastChange >= quietMs && (selectors.length === 0 || now - s.start >= graceMs);
+            """;
+
+    private static final ConcurrentMap<String, DomainTimings> TIMINGS = new ConcurrentHashMap<>();
+
+    private PageReadiness() {
+    }
+
+    /**
+     * Wartet, bis die aktuell geladene Seite bereit ist, höchstens bis zum adaptiven Budget der Domain.
+     *
+     * @return true wenn die Seite bereit war, false bei Ablauf des Budgets (Seite wird trotzdem verwendet)
+     */
+    public static boolean await(WebDriver driver, String domain, List<String> readySelectors) {
+        return await(driver, domain, readySelectors, true);
+    }
+
+    /**
+     * Wie {@link #await(WebDriver, String, List)}; mit {@code record = false} fließt die Wartezeit nicht ins Budget
+     * ein. Für erneutes Warten auf einer bereits geladenen Seite (z. B. nach einer Interaktion), dessen fast leere
+     * Zeiten das Budget für echte Seitenaufrufe sonst zu knapp machen würden.
+     */
+    public static boolean await(WebDriver driver, String domain, List<String> readySelectors, boolean record) {
+        DomainTimings timings = TIMINGS.computeIfAbsent(domain, d -> new DomainTimings());
+        Duration budget = timings.budget();
+        List<String> selectors = readySelectors == null ? List.of() : readySelectors;
+        long start = System.nanoTime();
+        try {
+            new WebDriverWait(driver, budget, POLL_INTERVAL).until(d -> {
+                try {
+                    return Boolean.TRUE.equals(((JavascriptExecutor) d).executeScript(READY_SCRIPT,
+                            QUIET_PERIOD.toMillis(), selectors, SELECTOR_GRACE.toMillis()));
+                } catch (org.openqa.selenium.JavascriptException e) {
+                    // Seite navigiert gerade (Redirect) – beim nächsten Poll erneut versuchen
+                    return false;
+                }
+            });
+            if (record) timings.record(Duration.ofNanos(System.nanoTime() - start));
+            return true;
+        } catch (TimeoutException e) {
+            if (record) timings.record(budget);
+            ScrapingService.LOGGER.log(Level.FINE, "Page on " + domain + " not ready within " + budget.toMillis() + "ms");
+            return false;
+        }
+    }
+
+    /**
+     * Aktuelles Warte-Budget einer Domain (für Logging/Monitoring).
+     */
+    public static Duration budgetFor(String domain) {
+        DomainTimings timings = TIMINGS.get(domain);
+        return timings == null ? DEFAULT_BUDGET : timings.budget();
+    }
+
+    /**
+     * Ringpuffer der letzten Readiness-Zeiten; Budget = p90 * 1.5, begrenzt auf [MIN, MAX].
+     */
+    private static final class DomainTimings {
+        private static final int WINDOW = 64;
+        private static final int MIN_SAMPLES = 5;
+        private final long[] samplesMs = new long[WINDOW];
+        private int count;
+        private int next;
+
+        private synchronized void record(Duration duration) {
+            samplesMs[next] = duration.toMillis();
+            next = (next + 1) % WINDOW;
+            if (count < WINDOW) count++;
+        }
+
+        private synchronized Duration budget() {
+            if (count < MIN_SAMPLES) {
+                return DEFAULT_BUDGET;
+            }
+            long[] sorted = Arrays.copyOf(samplesMs, count);
+            Arrays.sort(sorted);
+            long p90 = sorted[Math.min(count - 1, (int) Math.ceil(count * 0.9) - 1)];
+            long budget = (long) (p90 * 1.5);
+            return Duration.ofMillis(Math.max(MIN_BUDGET.toMillis(), Math.min(MAX_BUDGET.toMillis(), budget)));
+        }
+    }
+}
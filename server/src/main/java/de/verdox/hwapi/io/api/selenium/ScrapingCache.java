@@ -1,13 +1,52 @@
 package de.verdox.hwapi.io.api.selenium;
 
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
 import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.stream.Stream;
 
 public interface ScrapingCache {
     void saveHtml(PageKey key, String html);
 
+    /**
+     * Speichert die Seite zusammen mit Frische-Metadaten (Fetch-Zeit, ETag, Status).
+     */
+    default void saveHtml(PageKey key, String html, PageMeta meta) {
+        saveHtml(key, html);
+    }
+
     Optional<String> loadHtml(PageKey key);
 
+    /**
+     * Lädt und parst eine Seite. Implementierungen können den Body ohne Zwischen-String direkt an Jsoup geben.
+     */
+    default Optional<Document> loadDocument(PageKey key, String baseUri) {
+        return loadHtml(key).map(html -> Jsoup.parse(html, baseUri));
+    }
+
+    Optional<PageMeta> loadMeta(PageKey key);
+
+    void delete(PageKey key);
+
+    /**
+     * Bestätigt eine unveränderte Seite (z. B. nach HTTP 304): nur die Fetch-Zeit wird erneuert.
+     */
+    void touch(PageKey key, Instant fetchedAt);
+
     Stream<Path> listHtmlFilesById(String domain, String id);
+
+    /**
+     * Alle gecachten Seiten einer (Domain, ID)-Gruppe.
+     */
+    Stream<PageKey> listKeys(String domain, String id);
+
+    /**
+     * Menschenlesbarer Speicherort einer Seite (für Logs).
+     */
+    default String locationOf(PageKey key) {
+        return ScrapingPaths.fileFor(key).toAbsolutePath().toString();
+    }
 }
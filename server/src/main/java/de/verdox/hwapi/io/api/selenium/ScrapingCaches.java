@@ -0,0 +1,56 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
+
+import java.util.Locale;
+import java.util.logging.Level;
+
+/**
+ * Liefert den prozessweit geteilten {@link ScrapingCache}.
+ * <p>
+ * Über {@code SCRAPING_CACHE} wählbar:
+ * - {@code files}: alter flacher Datei-Cache ({@link FScrapingCache})
+ * - {@code archive}: Segment-Archiv mit memory-mapped Index ({@link SegmentedScrapingCache})
+ * - sonst: komprimierter, inhaltsadressierter {@link CompressedScrapingCache}
+ */
+public final class ScrapingCaches {
+    private static volatile ScrapingCache shared;
+
+    private ScrapingCaches() {
+    }
+
+    public static ScrapingCache shared() {
+        ScrapingCache cache = shared;
+        if (cache == null) {
+            synchronized (ScrapingCaches.class) {
+                cache = shared;
+                if (cache == null) {
+                    cache = create(System.getenv("SCRAPING_CACHE"));
+                    ScrapingService.LOGGER.log(Level.INFO, "Using scraping cache " + cache.getClass().getSimpleName());
+                    shared = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    public static synchronized void closeShared() {
+        if (shared instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                ScrapingService.LOGGER.log(Level.WARNING, "Could not close scraping cache", e);
+            }
+        }
+        shared = null;
+    }
+
+    static ScrapingCache create(String type) {
+        String normalized = type == null ? "" : type.trim().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "files" -> new FScrapingCache();
+            case "archive" -> new SegmentedScrapingCache();
+            default -> new CompressedScrapingCache();
+        };
+    }
+}
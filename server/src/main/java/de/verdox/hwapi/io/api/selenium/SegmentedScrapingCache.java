@@ -0,0 +1,813 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.verdox.hwapi.configuration.DataStorage;
+import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Seiten-Archiv aus großen Append-only-Segmenten mit memory-mapped Hash-Index.
+ * <p>
+ * Layout unter {@code /scraping/archive}:
+ * <pre>
+ * segment-&lt;n&gt;.dat   Records: [magic][recordLen][keyLen][metaLen][bodyLen] key meta gzip(body)
+ *                    Löschungen: [deleteMagic][recordLen][keyLen][0][0] key
+ * index.idx          Open-Addressing-Tabelle: keyHash → (Segment, Offset, Länge), per mmap beschrieben
+ * </pre>
+ * Ein Lookup ist ein Probe im gemappten Index plus ein Zugriff auf das Segment (abgeschlossene Segmente gemappt,
+ * das aktive über den {@code FileChannel}), ohne
+ * {@code Files.exists}/{@code readString} pro Seite. {@link #loadDocument} streamt den Body direkt
+ * aus dem Mapping über den Dekompressor in Jsoup.
+ * <p>
+ * Überholte Versionen bleiben zunächst im Segment liegen; {@link #compact()} kopiert die lebenden
+ * Records stark verschmutzter Segmente ans Ende und löscht die alten Segmente. Nach einem Absturz
+ * werden Records hinter der im Index-Header vermerkten Wassermarke erneut indiziert.
+ */
+public class SegmentedScrapingCache implements ScrapingCache, AutoCloseable {
+    private static final ObjectMapper OM = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> META_TYPE = new TypeReference<>() {};
+
+    private static final int RECORD_MAGIC = 0x48574150; // "HWAP"
+    private static final int DELETE_MAGIC = 0x48574444; // "HWDD"
+    private static final int RECORD_HEADER = 20;
+    private static final long MAX_SEGMENT_SIZE = 256L * 1024 * 1024;
+
+    private static final int INDEX_MAGIC = 0x48574958; // "HWIX"
+    private static final int INDEX_VERSION = 1;
+    private static final int INDEX_HEADER = 64;
+    private static final int SLOT_SIZE = 40;
+    private static final int INITIAL_CAPACITY = 1 << 14;
+    private static final double MAX_LOAD = 0.7;
+    private static final double COMPACT_BELOW_LIVE_RATIO = 0.5;
+
+    // Header-Offsets
+    private static final int H_MAGIC = 0, H_VERSION = 4, H_CAPACITY = 8, H_SIZE = 12, H_TOMBSTONES = 16,
+            H_WATERMARK_SEGMENT = 20, H_WATERMARK_OFFSET = 24;
+    // Slot-Offsets
+    private static final int S_KEY_HASH = 0, S_GROUP_HASH = 8, S_SEGMENT = 12, S_OFFSET = 16, S_LENGTH = 24,
+            S_FETCHED_AT = 32;
+    private static final int TOMBSTONE = -1;
+
+    private final Path root;
+    private final Path indexFile;
+    private final long maxSegmentSize;
+    private final FScrapingCache legacy = new FScrapingCache();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, MappedByteBuffer> segmentMaps = new HashMap<>();
+
+    private FileChannel indexChannel;
+    private MappedByteBuffer index;
+    private int capacity;
+    private int size;
+    private int tombstones;
+
+    private int activeSegment;
+    private FileChannel activeChannel;
+    private long activeSize;
+
+    public SegmentedScrapingCache() {
+        this(DataStorage.resolve("/scraping/archive"));
+    }
+
+    public SegmentedScrapingCache(Path root) {
+        this(root, MAX_SEGMENT_SIZE);
+    }
+
+    SegmentedScrapingCache(Path root, long maxSegmentSize) {
+        this.root = root;
+        this.maxSegmentSize = maxSegmentSize;
+        this.indexFile = root.resolve("index.idx");
+        try {
+            Files.createDirectories(root);
+            openIndex();
+            openActiveSegment();
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (needsCompaction()) {
+            compact();
+        }
+    }
+
+    /* ----------------------- ScrapingCache ----------------------- */
+
+    @Override
+    public void saveHtml(PageKey key, String html) {
+        saveHtml(key, html, PageMeta.fetchedNow(key.url(), 200, null, null));
+    }
+
+    @Override
+    public void saveHtml(PageKey key, String html, PageMeta meta) {
+        byte[] record = encodeRecord(key, meta, html);
+        lock.writeLock().lock();
+        try {
+            long offset = append(record);
+            putSlot(key, activeSegment, offset, record.length, meta.fetchedAt());
+            setWatermark(activeSegment, activeSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        legacy.delete(key);
+    }
+
+    @Override
+    public Optional<String> loadHtml(PageKey key) {
+        Optional<String> html = withRecord(key, record -> {
+            try (InputStream in = new GZIPInputStream(new ByteBufferInputStream(record.body()))) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        });
+        return html.isPresent() ? html : migrateLegacy(key);
+    }
+
+    /**
+     * Zero-Copy-Pfad: der gemappte Body wird direkt durch den Dekompressor an den Jsoup-Parser gestreamt.
+     */
+    @Override
+    public Optional<Document> loadDocument(PageKey key, String baseUri) {
+        Optional<Document> doc = withRecord(key, record -> {
+            try (InputStream in = new GZIPInputStream(new ByteBufferInputStream(record.body()))) {
+                return Jsoup.parse(in, StandardCharsets.UTF_8.name(), baseUri);
+            }
+        });
+        return doc.isPresent() ? doc : migrateLegacy(key).map(html -> Jsoup.parse(html, baseUri));
+    }
+
+    @Override
+    public Optional<PageMeta> loadMeta(PageKey key) {
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(key);
+            if (slot < 0) return legacy.loadMeta(key);
+            int pos = slotPos(slot);
+            PageMeta meta = readRecord(index.getInt(pos + S_SEGMENT), index.getLong(pos + S_OFFSET), index.getInt(pos + S_LENGTH)).meta();
+            // Die Fetch-Zeit im Slot ist maßgeblich, sie wird von touch() ohne neuen Record aktualisiert
+            long fetchedAt = index.getLong(pos + S_FETCHED_AT);
+            return Optional.of(fetchedAt > 0 ? meta.withFetchedAt(Instant.ofEpochMilli(fetchedAt)) : meta);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void touch(PageKey key, Instant fetchedAt) {
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(key);
+            if (slot >= 0) {
+                index.putLong(slotPos(slot) + S_FETCHED_AT, fetchedAt.toEpochMilli());
+                return;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        legacy.touch(key, fetchedAt);
+    }
+
+    /**
+     * Schreibt zusätzlich zum Tombstone im Index einen Lösch-Record, damit ein aus den Segmenten neu aufgebauter
+     * Index die Seite nicht wiederbelebt.
+     */
+    @Override
+    public void delete(PageKey key) {
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(key);
+            if (slot >= 0) {
+                append(encodeDelete(key));
+                removeSlot(slot);
+                setWatermark(activeSegment, activeSize);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        legacy.delete(key);
+    }
+
+    /**
+     * Das Archiv hat keine Einzeldateien mehr, geliefert werden nur noch nicht migrierte Altdateien.
+     */
+    @Override
+    public Stream<Path> listHtmlFilesById(String domain, String id) {
+        return legacy.listHtmlFilesById(domain, id);
+    }
+
+    @Override
+    public Stream<PageKey> listKeys(String domain, String id) {
+        int groupHash = groupHash(domain, id);
+        List<PageKey> keys = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < capacity; slot++) {
+                int pos = slotPos(slot);
+                if (index.getLong(pos + S_KEY_HASH) == 0 || index.getInt(pos + S_SEGMENT) == TOMBSTONE) continue;
+                if (index.getInt(pos + S_GROUP_HASH) != groupHash) continue;
+                PageKey key = readKey(index.getInt(pos + S_SEGMENT), index.getLong(pos + S_OFFSET), index.getInt(pos + S_LENGTH));
+                if (key.domain().equals(domain) && key.id().equals(id)) keys.add(key);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return keys.stream();
+    }
+
+    @Override
+    public String locationOf(PageKey key) {
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(key);
+            if (slot < 0) return legacy.locationOf(key);
+            int pos = slotPos(slot);
+            return segmentFile(index.getInt(pos + S_SEGMENT)).toAbsolutePath() + "@" + index.getLong(pos + S_OFFSET);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ----------------------- Kompaktierung ----------------------- */
+
+    /**
+     * Kopiert lebende Records aus Segmenten mit weniger als 50 % Nutzdaten ans Ende des Archivs
+     * und löscht diese Segmente anschließend.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            Map<Integer, Long> liveBytes = liveBytesPerSegment();
+            int compacted = 0;
+            List<Integer> segments = existingSegments();
+            for (int segment : List.copyOf(segments)) {
+                if (segment == activeSegment) continue;
+                long fileSize = Files.size(segmentFile(segment));
+                long live = liveBytes.getOrDefault(segment, 0L);
+                if (fileSize > 0 && (double) live / fileSize >= COMPACT_BELOW_LIVE_RATIO) continue;
+
+                // Lösch-Records bleiben nötig, solange ältere Segmente mit überholten Versionen existieren
+                if (!segments.getFirst().equals(segment)) {
+                    carryOverDeletes(segment);
+                }
+
+                for (int slot = 0; slot < capacity; slot++) {
+                    int pos = slotPos(slot);
+                    if (index.getLong(pos + S_KEY_HASH) == 0 || index.getInt(pos + S_SEGMENT) != segment) continue;
+                    int length = index.getInt(pos + S_LENGTH);
+                    ByteBuffer raw = mappedSegment(segment).slice((int) index.getLong(pos + S_OFFSET), length);
+                    byte[] copy = new byte[length];
+                    raw.get(copy);
+                    long offset = append(copy);
+                    index.putInt(pos + S_SEGMENT, activeSegment);
+                    index.putLong(pos + S_OFFSET, offset);
+                    setWatermark(activeSegment, activeSize);
+                }
+                // Tombstones in diesem Segment verweisen nicht mehr auf Daten
+                synchronized (segmentMaps) {
+                    segmentMaps.remove(segment);
+                }
+                Files.deleteIfExists(segmentFile(segment));
+                segments.remove(Integer.valueOf(segment));
+                compacted++;
+            }
+            if (compacted > 0) {
+                index.force();
+                ScrapingService.LOGGER.log(Level.INFO, "Compacted " + compacted + " scraping archive segments");
+            }
+        } catch (IOException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Could not compact scraping archive", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Hängt die Lösch-Records eines zu löschenden Segments erneut an, sofern der Schlüssel seitdem nicht neu
+     * gespeichert wurde (dann ist die Löschung überholt und der neue Record ohnehin jünger).
+     */
+    private void carryOverDeletes(int segment) throws IOException {
+        ByteBuffer data = mappedSegment(segment);
+        int pos = 0;
+        while (pos + RECORD_HEADER <= data.capacity()) {
+            int magic = data.getInt(pos), length = data.getInt(pos + 4);
+            if ((magic != RECORD_MAGIC && magic != DELETE_MAGIC) || length < RECORD_HEADER || pos + length > data.capacity()) break;
+            if (magic == DELETE_MAGIC) {
+                PageKey key = decodeKey(data.slice(pos, length));
+                if (findSlot(key) < 0) {
+                    append(encodeDelete(key));
+                    setWatermark(activeSegment, activeSize);
+                }
+            }
+            pos += length;
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (index != null) index.force();
+            if (indexChannel != null) indexChannel.close();
+            if (activeChannel != null) activeChannel.close();
+        } catch (IOException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Could not close scraping archive", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* ----------------------- Records ----------------------- */
+
+    private record Record(PageKey key, PageMeta meta, ByteBuffer body) {
+    }
+
+    private interface RecordReader<T> {
+        T read(Record record) throws IOException;
+    }
+
+    private <T> Optional<T> withRecord(PageKey key, RecordReader<T> reader) {
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(key);
+            if (slot < 0) return Optional.empty();
+            int pos = slotPos(slot);
+            Record record = readRecord(index.getInt(pos + S_SEGMENT), index.getLong(pos + S_OFFSET), index.getInt(pos + S_LENGTH));
+            return Optional.of(reader.read(record));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static byte[] encodeRecord(PageKey key, PageMeta meta, String html) {
+        try {
+            byte[] keyBytes = encodeKey(key).getBytes(StandardCharsets.UTF_8);
+            byte[] metaBytes = OM.writeValueAsBytes(meta.toMap());
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(html.length() / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(html.getBytes(StandardCharsets.UTF_8));
+            }
+            byte[] body = compressed.toByteArray();
+            int length = RECORD_HEADER + keyBytes.length + metaBytes.length + body.length;
+            return ByteBuffer.allocate(length)
+                    .putInt(RECORD_MAGIC).putInt(length)
+                    .putInt(keyBytes.length).putInt(metaBytes.length).putInt(body.length)
+                    .put(keyBytes).put(metaBytes).put(body)
+                    .array();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] encodeDelete(PageKey key) {
+        byte[] keyBytes = encodeKey(key).getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_HEADER + keyBytes.length;
+        return ByteBuffer.allocate(length)
+                .putInt(DELETE_MAGIC).putInt(length)
+                .putInt(keyBytes.length).putInt(0).putInt(0)
+                .put(keyBytes)
+                .array();
+    }
+
+    private Record readRecord(int segment, long offset, int length) throws IOException {
+        ByteBuffer buf = segment == activeSegment
+                ? readActive(offset, length)
+                : mappedSegment(segment).slice((int) offset, length);
+        return parseRecord(buf, segment, offset);
+    }
+
+    /**
+     * Nur Header und Schlüssel eines Records; Metadaten und der gzip-Body werden über die Längen im Header
+     * übersprungen und nicht gelesen.
+     */
+    private PageKey readKey(int segment, long offset, int length) throws IOException {
+        ByteBuffer header;
+        if (segment == activeSegment) {
+            header = readActive(offset, RECORD_HEADER);
+        } else {
+            header = mappedSegment(segment).slice((int) offset, length);
+        }
+        int keyLen = header.getInt(8);
+        if (header.getInt(0) != RECORD_MAGIC || header.getInt(4) != length || RECORD_HEADER + keyLen > length) {
+            throw new IOException("Corrupt record in " + segmentFile(segment) + " at " + offset);
+        }
+        if (segment != activeSegment) return decodeKey(header);
+        ByteBuffer keyBytes = readActive(offset + RECORD_HEADER, keyLen);
+        return decodeKey(new String(keyBytes.array(), 0, keyLen, StandardCharsets.UTF_8));
+    }
+
+    private Record parseRecord(ByteBuffer buf, int segment, long offset) throws IOException {
+        if (buf.getInt(0) != RECORD_MAGIC || buf.getInt(4) != buf.capacity()) {
+            throw new IOException("Corrupt record in " + segmentFile(segment) + " at " + offset);
+        }
+        int keyLen = buf.getInt(8), metaLen = buf.getInt(12), bodyLen = buf.getInt(16);
+        byte[] metaBytes = new byte[metaLen];
+        buf.get(RECORD_HEADER + keyLen, metaBytes);
+        PageMeta meta = PageMeta.fromMap(OM.readValue(metaBytes, META_TYPE));
+        ByteBuffer body = buf.slice(RECORD_HEADER + keyLen + metaLen, bodyLen);
+        return new Record(decodeKey(buf), meta, body);
+    }
+
+    private static String encodeKey(PageKey key) {
+        return key.domain() + '\n' + key.id() + '\n' + key.url();
+    }
+
+    /**
+     * Schlüssel aus einem Record oder Lösch-Record (Puffer beginnt am Record-Anfang).
+     */
+    private static PageKey decodeKey(ByteBuffer record) {
+        byte[] keyBytes = new byte[record.getInt(8)];
+        record.get(RECORD_HEADER, keyBytes);
+        return decodeKey(new String(keyBytes, StandardCharsets.UTF_8));
+    }
+
+    private static PageKey decodeKey(String raw) {
+        String[] parts = raw.split("\n", 3);
+        return new PageKey(parts[0], parts[1], parts[2]);
+    }
+
+    /* ----------------------- Segmente ----------------------- */
+
+    private long append(byte[] record) throws IOException {
+        if (activeSize > 0 && activeSize + record.length > maxSegmentSize) {
+            activeChannel.close();
+            activeSegment++;
+            activeChannel = FileChannel.open(segmentFile(activeSegment), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            activeSize = 0;
+        }
+        long offset = activeSize;
+        ByteBuffer buf = ByteBuffer.wrap(record);
+        while (buf.hasRemaining()) {
+            activeSize += activeChannel.write(buf, activeSize);
+        }
+        return offset;
+    }
+
+    /**
+     * Mapping eines abgeschlossenen Segments; die ändern sich nicht mehr und werden einmal komplett gemappt.
+     */
+    private MappedByteBuffer mappedSegment(int segment) throws IOException {
+        synchronized (segmentMaps) {
+            MappedByteBuffer mapped = segmentMaps.get(segment);
+            if (mapped == null) {
+                try (FileChannel channel = FileChannel.open(segmentFile(segment), StandardOpenOption.READ)) {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+                segmentMaps.put(segment, mapped);
+            }
+            return mapped;
+        }
+    }
+
+    /**
+     * Das aktive Segment wächst noch; statt es bei jedem Lesen hinter dem Mapping neu zu mappen, wird der Record über
+     * den Channel gelesen (positionell, also parallel zu anderen Lesern).
+     */
+    private ByteBuffer readActive(long offset, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (activeChannel.read(buf, offset + buf.position()) < 0) {
+                throw new IOException("Unexpected end of " + segmentFile(activeSegment) + " at " + offset);
+            }
+        }
+        return buf.flip();
+    }
+
+    private void openActiveSegment() throws IOException {
+        List<Integer> segments = existingSegments();
+        activeSegment = segments.isEmpty() ? 0 : segments.getLast();
+        activeChannel = FileChannel.open(segmentFile(activeSegment), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeSize = activeChannel.size();
+    }
+
+    private List<Integer> existingSegments() throws IOException {
+        TreeMap<Integer, Path> segments = new TreeMap<>();
+        try (Stream<Path> files = Files.list(root)) {
+            files.forEach(p -> {
+                String n = p.getFileName().toString();
+                if (n.startsWith("segment-") && n.endsWith(".dat")) {
+                    segments.put(Integer.parseInt(n.substring(8, n.length() - 4)), p);
+                }
+            });
+        }
+        return new ArrayList<>(segments.keySet());
+    }
+
+    private Path segmentFile(int segment) {
+        return root.resolve("segment-%06d.dat".formatted(segment));
+    }
+
+    /**
+     * Indiziert Records hinter der Wassermarke neu (Absturz zwischen Append und Index-Update), wendet dabei
+     * Lösch-Records an und schneidet einen halb geschriebenen Record am Ende ab.
+     */
+    private void recover() throws IOException {
+        int segment = index.getInt(H_WATERMARK_SEGMENT);
+        long offset = index.getLong(H_WATERMARK_OFFSET);
+        int recovered = 0;
+        for (int s : existingSegments()) {
+            if (s < segment) continue;
+            long pos = s == segment ? offset : 0;
+            long fileSize = Files.size(segmentFile(s));
+            try (FileChannel channel = FileChannel.open(segmentFile(s), StandardOpenOption.READ)) {
+                while (pos + RECORD_HEADER <= fileSize) {
+                    ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+                    channel.read(header, pos);
+                    int magic = header.getInt(0), length = header.getInt(4);
+                    if ((magic != RECORD_MAGIC && magic != DELETE_MAGIC) || length < RECORD_HEADER || pos + length > fileSize) break;
+                    ByteBuffer raw = ByteBuffer.allocate(length);
+                    while (raw.hasRemaining() && channel.read(raw, pos + raw.position()) >= 0) ;
+                    raw.flip();
+                    if (magic == DELETE_MAGIC) {
+                        int slot = findSlot(decodeKey(raw));
+                        if (slot >= 0) removeSlot(slot);
+                    } else {
+                        Record record = parseRecord(raw, s, pos);
+                        putSlot(record.key(), s, pos, length, record.meta().fetchedAt());
+                    }
+                    pos += length;
+                    recovered++;
+                }
+            }
+            if (pos < fileSize && s == activeSegment) {
+                ScrapingService.LOGGER.log(Level.WARNING, "Truncating torn record in " + segmentFile(s) + " at " + pos);
+                activeChannel.truncate(pos);
+                activeSize = pos;
+            }
+        }
+        setWatermark(activeSegment, activeSize);
+        if (recovered > 0) {
+            ScrapingService.LOGGER.log(Level.INFO, "Re-indexed " + recovered + " scraping archive records after watermark");
+        }
+    }
+
+    /* ----------------------- Index ----------------------- */
+
+    private void openIndex() throws IOException {
+        boolean fresh = !Files.exists(indexFile);
+        indexChannel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (!fresh && indexChannel.size() >= INDEX_HEADER) {
+            MappedByteBuffer header = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, INDEX_HEADER);
+            if (header.getInt(H_MAGIC) == INDEX_MAGIC && header.getInt(H_VERSION) == INDEX_VERSION) {
+                capacity = header.getInt(H_CAPACITY);
+                index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER + (long) capacity * SLOT_SIZE);
+                size = index.getInt(H_SIZE);
+                tombstones = index.getInt(H_TOMBSTONES);
+                return;
+            }
+            ScrapingService.LOGGER.log(Level.WARNING, "Scraping archive index is unreadable, rebuilding from segments");
+        }
+        // Neuer Index: Wassermarke (0, 0) ⇒ recover() indiziert alle Segmente
+        index = createIndex(indexChannel, INITIAL_CAPACITY);
+        capacity = INITIAL_CAPACITY;
+        size = 0;
+        tombstones = 0;
+    }
+
+    private static MappedByteBuffer createIndex(FileChannel channel, int capacity) throws IOException {
+        channel.truncate(0);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER + (long) capacity * SLOT_SIZE);
+        mapped.putInt(H_MAGIC, INDEX_MAGIC);
+        mapped.putInt(H_VERSION, INDEX_VERSION);
+        mapped.putInt(H_CAPACITY, capacity);
+        return mapped;
+    }
+
+    private int findSlot(PageKey key) {
+        long keyHash = keyHash(key);
+        int mask = capacity - 1;
+        for (int i = 0, slot = spread(keyHash) & mask; i < capacity; i++, slot = (slot + 1) & mask) {
+            int pos = slotPos(slot);
+            long stored = index.getLong(pos + S_KEY_HASH);
+            if (stored == 0) return -1;
+            if (stored == keyHash && index.getInt(pos + S_SEGMENT) != TOMBSTONE && matches(pos, key)) return slot;
+        }
+        return -1;
+    }
+
+    private void putSlot(PageKey key, int segment, long offset, int length, Instant fetchedAt) throws IOException {
+        if (size + tombstones + 1 > capacity * MAX_LOAD) {
+            rehash(size + 1 > capacity * MAX_LOAD / 2 ? capacity * 2 : capacity);
+        }
+        long keyHash = keyHash(key);
+        int mask = capacity - 1;
+        int target = -1;
+        boolean existing = false;
+        boolean reusedTombstone = false;
+        for (int i = 0, slot = spread(keyHash) & mask; i < capacity; i++, slot = (slot + 1) & mask) {
+            int pos = slotPos(slot);
+            long stored = index.getLong(pos + S_KEY_HASH);
+            if (stored == 0) {
+                if (target < 0) target = slot;
+                break;
+            }
+            boolean tombstone = index.getInt(pos + S_SEGMENT) == TOMBSTONE;
+            if (tombstone) {
+                if (target < 0) {
+                    target = slot;
+                    reusedTombstone = true;
+                }
+            } else if (stored == keyHash && matches(pos, key)) {
+                target = slot;
+                existing = true;
+                reusedTombstone = false;
+                break;
+            }
+        }
+        int pos = slotPos(target);
+        index.putLong(pos + S_KEY_HASH, keyHash);
+        index.putInt(pos + S_GROUP_HASH, groupHash(key.domain(), key.id()));
+        index.putInt(pos + S_SEGMENT, segment);
+        index.putLong(pos + S_OFFSET, offset);
+        index.putInt(pos + S_LENGTH, length);
+        index.putLong(pos + S_FETCHED_AT, fetchedAt != null ? fetchedAt.toEpochMilli() : 0);
+        if (!existing) size++;
+        if (reusedTombstone) tombstones--;
+        writeCounters();
+    }
+
+    private void removeSlot(int slot) {
+        index.putInt(slotPos(slot) + S_SEGMENT, TOMBSTONE);
+        size--;
+        tombstones++;
+        writeCounters();
+    }
+
+    /**
+     * Baut die Tabelle mit neuer Kapazität neu auf (entfernt dabei alle Tombstones).
+     */
+    private void rehash(int newCapacity) throws IOException {
+        int oldCapacity = capacity;
+        byte[] old = new byte[oldCapacity * SLOT_SIZE];
+        index.get(INDEX_HEADER, old);
+        ByteBuffer oldSlots = ByteBuffer.wrap(old);
+        int watermarkSegment = index.getInt(H_WATERMARK_SEGMENT);
+        long watermarkOffset = index.getLong(H_WATERMARK_OFFSET);
+
+        index = createIndex(indexChannel, newCapacity);
+        capacity = newCapacity;
+        tombstones = 0;
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            int from = i * SLOT_SIZE;
+            long keyHash = oldSlots.getLong(from + S_KEY_HASH);
+            if (keyHash == 0 || oldSlots.getInt(from + S_SEGMENT) == TOMBSTONE) continue;
+            int slot = spread(keyHash) & mask;
+            while (index.getLong(slotPos(slot) + S_KEY_HASH) != 0) slot = (slot + 1) & mask;
+            index.put(slotPos(slot), old, from, SLOT_SIZE);
+        }
+        setWatermark(watermarkSegment, watermarkOffset);
+        writeCounters();
+    }
+
+    private boolean matches(int pos, PageKey key) {
+        try {
+            return readKey(index.getInt(pos + S_SEGMENT), index.getLong(pos + S_OFFSET), index.getInt(pos + S_LENGTH)).equals(key);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Map<Integer, Long> liveBytesPerSegment() {
+        Map<Integer, Long> live = new HashMap<>();
+        for (int slot = 0; slot < capacity; slot++) {
+            int pos = slotPos(slot);
+            if (index.getLong(pos + S_KEY_HASH) == 0) continue;
+            int segment = index.getInt(pos + S_SEGMENT);
+            if (segment == TOMBSTONE) continue;
+            live.merge(segment, (long) index.getInt(pos + S_LENGTH), Long::sum);
+        }
+        return live;
+    }
+
+    private boolean needsCompaction() {
+        try {
+            Map<Integer, Long> live = liveBytesPerSegment();
+            for (int segment : existingSegments()) {
+                if (segment == activeSegment) continue;
+                long fileSize = Files.size(segmentFile(segment));
+                if (fileSize > 0 && (double) live.getOrDefault(segment, 0L) / fileSize < COMPACT_BELOW_LIVE_RATIO) {
+                    return true;
+                }
+            }
+        } catch (IOException ignored) {
+        }
+        return false;
+    }
+
+    private void setWatermark(int segment, long offset) {
+        index.putInt(H_WATERMARK_SEGMENT, segment);
+        index.putLong(H_WATERMARK_OFFSET, offset);
+    }
+
+    private void writeCounters() {
+        index.putInt(H_SIZE, size);
+        index.putInt(H_TOMBSTONES, tombstones);
+    }
+
+    private static int slotPos(int slot) {
+        return INDEX_HEADER + slot * SLOT_SIZE;
+    }
+
+    private static int spread(long hash) {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static long keyHash(PageKey key) {
+        long h = mix(fnv1a(encodeKey(key)));
+        return h == 0 ? 1 : h;
+    }
+
+    private static int groupHash(String domain, String id) {
+        long h = mix(fnv1a(domain + '\n' + id));
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static long fnv1a(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /* ----------------------- Legacy ----------------------- */
+
+    private Optional<String> migrateLegacy(PageKey key) {
+        Optional<String> html = legacy.loadHtml(key);
+        if (html.isPresent()) {
+            Instant fetchedAt = legacy.loadMeta(key).map(PageMeta::fetchedAt).orElse(Instant.now());
+            saveHtml(key, html.get(), new PageMeta(key.url(), fetchedAt, 200, null, null, null));
+        }
+        return html;
+    }
+
+    /**
+     * InputStream über einen (gemappten) ByteBuffer, ohne die Bytes zu kopieren.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
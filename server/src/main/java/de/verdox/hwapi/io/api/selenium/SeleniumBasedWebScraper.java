@@ -2,53 +2,61 @@ package de.verdox.hwapi.io.api.selenium;
 
 import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
 import de.verdox.hwapi.io.api.BasicWebScraper;
+import de.verdox.hwapi.util.DomainCircuitBreaker;
+import de.verdox.hwapi.util.PoliteHttpGate;
 import de.verdox.hwapi.util.SeleniumUtil;
 import jakarta.annotation.PreDestroy;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
-import org.openqa.selenium.By;
-import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.remote.RemoteWebDriver;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.attribute.FileTime;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.BiPredicate;
 import java.util.logging.Level;
+import java.util.stream.Stream;
 
 /**
- * Selenium-basierter Scraper mit ID-Ebene:
- * /data/pages/&lt;domain&gt;/&lt;id&gt;/&lt;hash&gt;.html
+ * Selenium-basierter Scraper mit ID-Ebene (Domain / ID / kanonisierte URL).
  * <p>
  * ID ist Pflicht und darf nie null/leer sein.
- * Dateiname ist Hash der kanonisierten URL (keine täglichen Re-Scrapes notwendig).
+ * Seiten landen im {@link ScrapingCache} samt Metadaten; Frische wird über deren Fetch-Zeit bestimmt
+ * (keine täglichen Re-Scrapes notwendig).
  */
 @Slf4j
 public class SeleniumBasedWebScraper implements BasicWebScraper {
     /**
-     * Ein globaler (geteilter) Treiber – bei Bedarf kannst du das auf einen Pool umstellen.
+     * Geteilter Pool von Selenium-Sessions, mehrere Scraper können parallel laden.
      */
-    @Setter
     @Getter
-    private WebDriver webDriver;
+    private final WebDriverPool driverPool;
+
+    /**
+     * Rate-Limiter pro Host, gilt für Headless- und Selenium-Fetches gleichermaßen.
+     */
+    private final PoliteHttpGate gate = PoliteHttpGate.shared();
+
+    /**
+     * Wählt pro Host/Pfadmuster zwischen Headless- und Selenium-Fetch anhand der bisherigen Erfolgsquoten.
+     */
+    private final FetchRouter router = FetchRouter.shared();
+
+    /**
+     * Schaltet Domains nach einer Challenge vorübergehend auf reinen Cache-Betrieb.
+     */
+    private final DomainCircuitBreaker breaker = DomainCircuitBreaker.shared();
 
     private final String id;
     private final ScrapingCache cache;
@@ -70,6 +78,7 @@ public class SeleniumBasedWebScraper implements BasicWebScraper {
                                    BiPredicate<String, Document> isChallengePage,
                                    BiPredicate<String, Document> shouldSavePage) {
         this.id = id;
+        this.driverPool = WebDriverPool.shared();
         this.cache = Objects.requireNonNull(cache, "cache");
         this.cookieJar = Objects.requireNonNull(cookieJar, "cookieJar");
         this.isChallengePage = isChallengePage;
@@ -86,30 +95,48 @@ public class SeleniumBasedWebScraper implements BasicWebScraper {
         return fetch(domain, id, url, new FetchOptions().setTtl(ttl));
     }
 
+    /**
+     * Sinnvolle Anzahl paralleler Fetches gegen einen Host; mehr würde nur am {@link PoliteHttpGate} warten.
+     */
+    public int maxConcurrentFetches() {
+        return gate.maxPerHostConcurrent();
+    }
+
     public String getPathInCache(String domain, String url) {
-        PageKey key = new PageKey(domain, id, url);
-        return ScrapingPaths.fileFor(key).toAbsolutePath().toString();
+        PageKey key = new PageKey(domain, id, ScrapingPaths.urlCanonical(url));
+        return cache.locationOf(key);
+    }
+
+    /**
+     * Wie {@link #fetchPage(String, String, String, FetchOptions)}, liefert nur das Dokument.
+     */
+    public Document fetch(String domain, String id, String url, FetchOptions fetchOptions) throws MalformedURLException, ChallengeFoundException {
+        return fetchPage(domain, id, url, fetchOptions).document();
     }
 
     /**
      * Haupteinstieg: Seite unter einer festen ID-Gruppe fetchen.
+     * <p>
+     * Jede Seite wird genau einmal geparst; Challenge- und Save-Prüfung sowie alle späteren Extraktionen
+     * arbeiten auf dem Dokument des Ergebnisses.
      *
      * @param domain z. B. "mindfactory.de"
      * @param id     Gruppierungs-ID (niemals null/leer)
      * @param url    Ziel-URL
      * @param fetchOptions Fetch options
      */
-    public Document fetch(String domain, String id, String url, FetchOptions fetchOptions) throws MalformedURLException, ChallengeFoundException {
+    public FetchedPage fetchPage(String domain, String id, String url, FetchOptions fetchOptions) throws MalformedURLException, ChallengeFoundException {
         validateDomain(domain);
         validateId(id);
         String canonUrl = ScrapingPaths.urlCanonical(url);
         PageKey key = new PageKey(domain, id, canonUrl);
 
         // 1) Cache prüfen (TTL)
-        Optional<String> cached = cache.loadHtml(key).flatMap(html -> isFreshEnough(key, fetchOptions.getTtl()) ? Optional.of(html) : Optional.empty());
+        PageMeta cachedMeta = loadMeta(key);
+        Optional<Document> cached = isFreshEnough(cachedMeta, fetchOptions.getTtl()) ? cache.loadDocument(key, baseUri(domain)) : Optional.empty();
 
         if (cached.isPresent()) {
-            Document cachedDocument = Jsoup.parse(cached.get(), baseUri(domain));
+            Document cachedDocument = cached.get();
 
             if (isChallengePage != null && isChallengePage.test(canonUrl, cachedDocument)) {
                 ScrapingService.LOGGER.log(Level.FINE, "Removing cached challenge page: " + canonUrl);
@@ -118,70 +145,95 @@ public class SeleniumBasedWebScraper implements BasicWebScraper {
                 ScrapingService.LOGGER.log(Level.FINE, "Removing page that should not be saved : " + canonUrl);
                 deleteCached(key);
             } else {
-                return cachedDocument;
+                return new FetchedPage(key, cachedDocument, cachedMeta != null ? cachedMeta : unknownMeta(canonUrl), FetchedPage.Source.CACHE);
             }
         }
 
-        if (fetchOptions.isSkipIfNotCache()) {
-            ScrapingService.LOGGER.log(Level.INFO, "Creating shell : " + canonUrl);
-            return Document.createShell(url);
+        // Offener Circuit-Breaker (Challenge auf der Domain) wirkt wie skipIfNotCache, Aufrufer reihen SHELL-Seiten später neu ein
+        DomainCircuitBreaker.Permit permit = fetchOptions.isSkipIfNotCache() ? null : breaker.tryAcquire(domainFromUrl(canonUrl));
+        if (permit == null) {
+            ScrapingService.LOGGER.log(Level.FINE, "Creating shell : " + canonUrl);
+            return new FetchedPage(key, Document.createShell(url), unknownMeta(canonUrl), FetchedPage.Source.SHELL);
         }
 
-        // 2) Live laden via Selenium
-
+        // 2) Live laden (headless oder via Selenium); die Strategie erlaubt headless, der Router entscheidet
+        FetchRouter.Route route = fetchOptions.isTryHeadlessFirst() ? router.route(canonUrl) : FetchRouter.Route.SELENIUM;
+        return fetchLive(domain, id, url, canonUrl, key, cachedMeta, fetchOptions, route, permit);
+    }
 
-        Document doc;
-        String html;
-        if (fetchOptions.isTryHeadlessFirst()) {
+    private FetchedPage fetchLive(String domain, String id, String url, String canonUrl, PageKey key, PageMeta cachedMeta,
+                                  FetchOptions fetchOptions, FetchRouter.Route route, DomainCircuitBreaker.Permit permit) throws MalformedURLException, ChallengeFoundException {
+        String rawHtml;
+        PageMeta meta;
+        FetchedPage.Source source;
+        if (route == FetchRouter.Route.HEADLESS) {
             try {
                 ScrapingService.LOGGER.log(Level.FINE, "Cache miss → Headless fetch: " + canonUrl + " [" + domain + ":" + id + "]");
-                doc = fetchHeadless(canonUrl);
-                html = doc.html();
+                // Veraltete Cache-Einträge mit Validatoren werden nur revalidiert
+                PageMeta stale = cachedMeta != null && (cachedMeta.etag() != null || cachedMeta.lastModified() != null) ? cachedMeta : null;
+                Connection.Response response = gated(canonUrl, () -> fetchHeadless(canonUrl, stale));
+                if (response.statusCode() == 304) {
+                    Optional<FetchedPage> revalidated = revalidated(key, domain, stale);
+                    if (revalidated.isPresent()) {
+                        router.record(canonUrl, route, true);
+                        breaker.onSuccess(permit);
+                        return revalidated.get();
+                    }
+                    // Body fehlt trotz Metadaten → unbedingt neu laden
+                    response = gated(canonUrl, () -> fetchHeadless(canonUrl, null));
+                }
+                rawHtml = response.body();
+                meta = PageMeta.fetchedNow(canonUrl, response.statusCode(), response.header("ETag"), response.header("Last-Modified"));
+                source = FetchedPage.Source.HEADLESS;
             } catch (IOException e) {
-                return fetch(domain, id, url, fetchOptions.setTryHeadlessFirst(false));
+                // 404/410 liefert auch Selenium, das sagt nichts über den Weg aus
+                if (!(e instanceof HttpStatusException status && (status.getStatusCode() == 404 || status.getStatusCode() == 410))) {
+                    router.record(canonUrl, route, false);
+                }
+                return fetchLive(domain, id, url, canonUrl, key, cachedMeta, fetchOptions, FetchRouter.Route.SELENIUM, permit);
             }
         } else {
             ScrapingService.LOGGER.log(Level.FINE, "Cache miss → Selenium fetch: " + canonUrl + " [" + domain + ":" + id + "]");
-            html = fetchWithSelenium(canonUrl, fetchOptions);
-            html = HtmlSlimmer.slimHtml(html, canonUrl, new HtmlSlimmer.Options());
             try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+                rawHtml = fetchWithSelenium(canonUrl, fetchOptions);
+            } catch (MalformedURLException e) {
+                throw e;
+            } catch (IOException e) {
+                router.record(canonUrl, route, false);
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                router.record(canonUrl, route, false);
+                throw e;
             }
-
-            doc = Jsoup.parse(html, baseUri(domain));
+            // Selenium kennt weder Status noch Header der Seite
+            meta = PageMeta.fetchedNow(canonUrl, 200, null, null);
+            source = FetchedPage.Source.SELENIUM;
         }
 
+        // Slimmen ohne DOM, danach der einzige Parse dieser Seite
+        String html = StreamingHtmlSlimmer.DEFAULT.slim(rawHtml, canonUrl);
+        Document doc = Jsoup.parse(html, baseUri(domain));
 
         if (isChallengePage != null && isChallengePage.test(canonUrl, doc)) {
             ScrapingService.LOGGER.log(Level.FINE, "Challenge page detected for URL: " + canonUrl);
-            try {
-
-                if(fetchOptions.isTryHeadlessFirst()) {
-                    return fetch(domain, id, url, fetchOptions.setTryHeadlessFirst(false));
-                }
-
-                Thread.sleep(1000);
-                HtmlSlimmer.slimHtml(webDriver.getPageSource(), canonUrl, new HtmlSlimmer.Options());
-            } catch (InterruptedException ignored) {
-            }
-        }
-
-        if (isChallengePage != null && isChallengePage.test(canonUrl, doc)) {
-            ScrapingService.LOGGER.log(Level.FINE, "Challenge page detected for URL: " + canonUrl);
+            // Challenge ≙ 429: der Host wird für alle Scraper gedrosselt, statt hier fest zu schlafen
+            gate.report(domainFromUrl(canonUrl), 429);
+            router.record(canonUrl, route, false);
 
-            if(fetchOptions.isTryHeadlessFirst()) {
-                return fetch(domain, id, url, fetchOptions.setTryHeadlessFirst(false));
+            if (route == FetchRouter.Route.HEADLESS) {
+                return fetchLive(domain, id, url, canonUrl, key, cachedMeta, fetchOptions, FetchRouter.Route.SELENIUM, permit);
             }
 
+            breaker.onChallenge(permit);
             deleteCached(key);
             throw new ChallengeFoundException();
         }
+        router.record(canonUrl, route, true);
+        breaker.onSuccess(permit);
 
         if (shouldSavePage == null || shouldSavePage.test(canonUrl, doc)) {
             try {
-                cache.saveHtml(key, html);
+                cache.saveHtml(key, html, meta);
             } catch (UncheckedIOException e) {
                 ScrapingService.LOGGER.log(Level.SEVERE, "Failed to persist HTML for: " + canonUrl + " [" + domain + ":" + id + "]", e);
             }
@@ -189,132 +241,125 @@ public class SeleniumBasedWebScraper implements BasicWebScraper {
             deleteCached(key);
         }
 
-        return doc;
+        return new FetchedPage(key, doc, meta, source);
     }
 
 
-    /* ---------------------------------------------------------
-       Driver-Handling
-       --------------------------------------------------------- */
-
-    private Document fetchHeadless(String url) throws IOException {
-        return Jsoup.connect(url)
-                .userAgent("--user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/125 Safari/537.36")
-                .timeout(10_000)
-                .get();
+    /**
+     * Liest eine Seite ausschließlich aus dem Cache (ohne TTL, ohne Netzwerk).
+     * Gecachte Challenge-Seiten gelten als nicht vorhanden.
+     */
+    public Optional<FetchedPage> fetchCachedOnly(String domain, String id, String url) {
+        validateDomain(domain);
+        validateId(id);
+        String canonUrl = ScrapingPaths.urlCanonical(url);
+        PageKey key = new PageKey(domain, id, canonUrl);
+        return cache.loadDocument(key, baseUri(domain))
+                .filter(doc -> isChallengePage == null || !isChallengePage.test(canonUrl, doc))
+                .map(doc -> new FetchedPage(key, doc, Objects.requireNonNullElseGet(loadMeta(key), () -> unknownMeta(canonUrl)), FetchedPage.Source.CACHE));
     }
 
-    private String fetchWithSelenium(String url, FetchOptions fetchOptions) throws MalformedURLException {
-        ensureDriver();
-        tryRestoreCookies(url);
+    /**
+     * Kanonische URLs aller gecachten Seiten einer (Domain, ID)-Gruppe.
+     */
+    public Stream<String> listCachedUrls(String domain, String id) {
+        return cache.listKeys(domain, id).map(PageKey::url);
+    }
 
-        WebDriverWait wait = new WebDriverWait(webDriver, Duration.ofSeconds(10));
+    /* ---------------------------------------------------------
+       Driver-Handling
+       --------------------------------------------------------- */
 
+    /**
+     * Führt einen Netzwerkzugriff über das {@link PoliteHttpGate} des Hosts aus.
+     */
+    private <T> T gated(String url, PoliteHttpGate.NetCall<T> call) throws IOException {
         try {
-            webDriver.get(url);
-        } catch (org.openqa.selenium.NoSuchSessionException ex) {
-            // Session war tot – neu aufsetzen und einmal wiederholen
-            restartDriver();
-            webDriver.get(url);
-        }
-        try {
-            fetchOptions.getBeforeSaveOperation().beforeSave(webDriver);
-        }
-        catch (Throwable ex) {
-            ex.printStackTrace();
+            return gate.run(domainFromUrl(url), call);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
         }
-        wait.until(driver -> {
-            try {
-                return ((JavascriptExecutor)driver).executeScript("return jQuery.active === 0;");
-            }
-            catch (Exception ignored) {
-                return new Object();
-            }
-        });
-        String html = webDriver.getPageSource();
-        tryStoreCookies(url);
-        return html;
     }
 
-    // Neu: zentraler Options-Builder (damit restart/ensure gleich sind)
-    private ChromeOptions buildChromeOptions() {
-        ChromeOptions options = new ChromeOptions();
-        options.setExperimentalOption("excludeSwitches", List.of("enable-automation"));
-        options.setExperimentalOption("useAutomationExtension", false);
-        options.addArguments(
-                "--disable-blink-features=AutomationControlled",
-                "--no-sandbox",
-                "--disable-dev-shm-usage",
-                "--window-size=1920,1080",
-                "--lang=de-DE",
-                "--user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/125 Safari/537.36"
-        );
-        return options;
+    /**
+     * @param validators Metadaten der gecachten Version; falls vorhanden, wird konditional angefragt (304 möglich)
+     */
+    private Connection.Response fetchHeadless(String url, PageMeta validators) throws IOException {
+        URI uri = URI.create(url);
+        Connection connection = Jsoup.connect(url)
+                .userAgent(WebDriverPool.USER_AGENT)
+                .cookies(cookieJar.headerCookies(uri))
+                .timeout(10_000);
+        if (validators != null) {
+            if (validators.etag() != null) connection.header("If-None-Match", validators.etag());
+            if (validators.lastModified() != null) connection.header("If-Modified-Since", validators.lastModified());
+        }
+        Connection.Response response = connection.execute();
+        cookieJar.captureFrom(uri, response.headers("Set-Cookie"));
+        return response;
     }
 
-    // Neu: Session-Alive-Check
-    private static boolean isSessionAlive(WebDriver d) {
-        if (d == null) return false;
-        try {
-            if (d instanceof org.openqa.selenium.remote.RemoteWebDriver rwd) {
-                return rwd.getSessionId() != null;
-            }
-            // Fallback-Heuristik: ein harmloser Befehl
-            d.getTitle(); // kann NoSuchSessionException werfen
-            return true;
-        } catch (org.openqa.selenium.NoSuchSessionException ex) {
-            return false;
-        } catch (Throwable t) {
-            // andere Fehler nicht als "tot" interpretieren
-            return true;
+    /**
+     * 304 Not Modified: nur die Frische des Eintrags erneuern, der Body bleibt unverändert im Cache.
+     */
+    private Optional<FetchedPage> revalidated(PageKey key, String domain, PageMeta stale) {
+        Optional<Document> cached = cache.loadDocument(key, baseUri(domain));
+        if (cached.isEmpty()) {
+            return Optional.empty();
         }
+        ScrapingService.LOGGER.log(Level.FINE, "Not modified: " + key.url());
+        Instant now = Instant.now();
+        cache.touch(key, now);
+        return Optional.of(new FetchedPage(key, cached.get(), stale.withFetchedAt(now), FetchedPage.Source.REVALIDATED));
     }
 
-    public synchronized WebDriver ensureDriver() throws MalformedURLException {
-        if (!isSessionAlive(webDriver)) {
-            // Altes Objekt ggf. entsorgen
+    /**
+     * Nur die Navigation läuft durch das Gate; Leihen des Drivers und das Warten auf die fertige Seite halten keine
+     * Host- oder globalen Slots.
+     */
+    private String fetchWithSelenium(String url, FetchOptions fetchOptions) throws IOException {
+        try (WebDriverPool.Lease lease = driverPool.borrow()) {
+            WebDriver webDriver = lease.driver();
+            tryRestoreCookies(lease, webDriver, url);
+
             try {
-                if (webDriver != null) webDriver.quit();
-            } catch (Exception ignore) {
+                navigate(webDriver, url);
+            } catch (org.openqa.selenium.NoSuchSessionException ex) {
+                // Session war tot – neu aufsetzen und einmal wiederholen
+                webDriver = lease.restart();
+                tryRestoreCookies(lease, webDriver, url);
+                navigate(webDriver, url);
+            } catch (org.openqa.selenium.TimeoutException ex) {
+                // Hängende Session nicht an den nächsten Scraper weitergeben
+                lease.invalidate();
+                throw ex;
             }
-            webDriver = null;
-            // Auch Registry säubern, falls dort noch ein altes Objekt lag
+            lease.pageLoaded();
+            String domain = domainFromUrl(url);
+            // Statt fester Sleeps: warten bis DOM/Netzwerk ruhig sind bzw. die Ready-Selektoren existieren
+            PageReadiness.await(webDriver, domain, fetchOptions.getReadySelectors());
             try {
-                SeleniumUtil.cleanup(id);
-            } catch (Exception ignore) {
+                fetchOptions.getBeforeSaveOperation().beforeSave(webDriver);
             }
-            // Frischen Driver anlegen
-            webDriver = SeleniumUtil.create(id, buildChromeOptions());
-            if (log.isInfoEnabled()) {
-                if (webDriver instanceof RemoteWebDriver rwd) {
-                    log.info("Initialized WebDriver: {}", rwd.getCapabilities());
-                } else {
-                    log.info("Initialized WebDriver: {}", webDriver);
-                }
+            catch (Throwable ex) {
+                ex.printStackTrace();
             }
+            // Nach Interaktionen (Dropdowns etc.) nachgeladene Inhalte abwarten; bei ruhiger Seite sofort fertig,
+            // daher nicht ins Budget der Domain einrechnen
+            PageReadiness.await(webDriver, domain, fetchOptions.getReadySelectors(), false);
+            String html = webDriver.getPageSource();
+            tryStoreCookies(lease, webDriver, url);
+            return html;
         }
-        return webDriver;
     }
 
-    public synchronized void restartDriver() throws MalformedURLException {
-        ScrapingService.LOGGER.log(Level.INFO, "Restarting WebDriver for id={0}", id);
-        try {
-            if (webDriver != null) webDriver.quit();
-        } catch (Exception ignore) {
-        }
-        webDriver = null;
-        try {
-            SeleniumUtil.cleanup(id);
-        } catch (Exception ignore) {
-        }
-        webDriver = SeleniumUtil.create(id, buildChromeOptions());
-        if (log.isInfoEnabled()) {
-            if (webDriver instanceof RemoteWebDriver rwd) {
-                log.info("Reinitialized WebDriver: {}", rwd.getCapabilities());
-            } else {
-                log.info("Reinitialized WebDriver: {}", webDriver);
-            }
-        }
+    private void navigate(WebDriver webDriver, String url) throws IOException {
+        gated(url, () -> {
+            webDriver.get(url);
+            return null;
+        });
     }
 
     @PreDestroy
@@ -323,6 +368,9 @@ public class SeleniumBasedWebScraper implements BasicWebScraper {
     }
 
     public static void cleanup() {
+        WebDriverPool.shutdownShared();
+        ScrapingCaches.closeShared();
+        CookieJar.closeShared();
         SeleniumUtil.cleanUp();
     }
 
@@ -330,21 +378,25 @@ public class SeleniumBasedWebScraper implements BasicWebScraper {
        Cookies
        --------------------------------------------------------- */
 
-    private void tryRestoreCookies(String url) {
+    /**
+     * Gespeicherte Cookies nur setzen, wenn die Session den Host noch nicht kennt; danach hält der Browser sie selbst.
+     */
+    private void tryRestoreCookies(WebDriverPool.Lease lease, WebDriver webDriver, String url) {
         if (cookieJar == null) return;
         String domain = domainFromUrl(url);
+        if (!lease.firstVisit(domain)) return;
         try {
-            //cookieJar.applyTo(webDriver, domain);
+            cookieJar.applyTo(webDriver, CookieJar.slotPartition(lease.slotIndex()), URI.create(url), gate);
         } catch (Exception e) {
             log.debug("Cookie restore failed for domain {}", domain, e);
         }
     }
 
-    private void tryStoreCookies(String url) {
+    private void tryStoreCookies(WebDriverPool.Lease lease, WebDriver webDriver, String url) {
         if (cookieJar == null) return;
         String domain = domainFromUrl(url);
         try {
-            //cookieJar.captureFrom(webDriver, domain);
+            cookieJar.captureFrom(webDriver, CookieJar.slotPartition(lease.slotIndex()), URI.create(url));
         } catch (Exception e) {
             log.debug("Cookie capture failed for domain {}", domain, e);
         }
@@ -363,44 +415,37 @@ public class SeleniumBasedWebScraper implements BasicWebScraper {
        Helpers / Policies
        --------------------------------------------------------- */
 
-    /**
-     * Einfache TTL-Policy:
-     * - null oder Duration.ZERO → immer frisch
-     * - ansonsten: hier könntest du z. B. File-Zeitstempel im Cache prüfen.
-     * Da {@link ScrapingCache} abstrakt ist, wird standardmäßig "true" geliefert.
-     */
     /**
      * TTL-Policy:
      * - null, ZERO oder negativ ⇒ Cache gilt immer als frisch (kein Re-Fetch).
-     * - sonst: prüfe mtime der Cache-Datei gegen now()-ttl.
+     * - sonst: prüfe die Fetch-Zeit aus den Cache-Metadaten gegen now()-ttl.
      */
-    private boolean isFreshEnough(PageKey key, Duration ttl) {
+    private static boolean isFreshEnough(PageMeta meta, Duration ttl) {
         if (ttl == null || ttl.isZero() || ttl.isNegative()) return true;
+        return meta != null && meta.isFresh(ttl);
+    }
+
+    /**
+     * Metadaten aus dem Cache; Lesefehler zählen als „nicht vorhanden“ → neu laden.
+     */
+    private PageMeta loadMeta(PageKey key) {
         try {
-            Path file = fileFor(key);
-            if (!Files.exists(file)) return false;
-            FileTime lastModified = Files.getLastModifiedTime(file);
-            Instant cutoff = Instant.now().minus(ttl);
-            return lastModified.toInstant().isAfter(cutoff);
+            return cache.loadMeta(key).orElse(null);
         } catch (Exception e) {
-            // Defensive: bei Fehler lieber als „nicht frisch“ behandeln → neu laden
-            return false;
+            return null;
         }
     }
 
-    /**
-     * Pfad der Cache-Datei (zentral, falls sich die Logik in ScrapingPaths mal ändert).
-     */
-    private static Path fileFor(PageKey key) {
-        return ScrapingPaths.fileFor(key.domain(), key.id(), key.url());
+    private static PageMeta unknownMeta(String canonUrl) {
+        return new PageMeta(canonUrl, null, 200, null, null, null);
     }
 
     /**
-     * Alte/ungültige Cache-Datei entfernen (ohne harte Fehler).
+     * Alte/ungültige Seite aus dem Cache entfernen (ohne harte Fehler).
      */
     private void deleteCached(PageKey key) {
         try {
-            Files.deleteIfExists(fileFor(key));
+            cache.delete(key);
         } catch (Exception ignored) {
         }
     }
@@ -0,0 +1,549 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
+import org.jsoup.internal.StringUtil;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.logging.Level;
+
+/**
+ * Streaming-Variante von {@link HtmlSlimmer}: ein einziger Durchlauf über den Token-Strom, ohne DOM.
+ * <p>
+ * Kommentare, unerwünschte Tags, Attribute und Tracking-Parameter werden direkt beim Tokenisieren gefiltert,
+ * das Ergebnis wird sofort in den Ausgabepuffer geschrieben. Es entfallen der vollständige Jsoup-Baum,
+ * ein {@code select(...)} pro Tag und Selektor, die zusätzlichen Baumdurchläufe und die Serialisierung.
+ * <p>
+ * Unterschiede zu {@link HtmlSlimmer#slimHtml}:
+ * - {@link HtmlSlimmer.Options#removeSelectors} werden gegen das einzelne Start-Tag ausgewertet; Selektoren mit
+ * Kombinatoren (Leerzeichen, {@code >}, {@code +}, {@code ~}) werden ignoriert.
+ * - Kaputtes Markup wird nicht repariert, das übernimmt der Parser, der das Ergebnis liest.
+ * - Ausgabe ist immer minifiziert; Whitespace-Folgen in Texten werden zu einem Leerzeichen (außer in pre/textarea).
+ * - URLs in {@code srcset} werden gegen die Basis-URL aufgelöst; {@link HtmlSlimmer#slimHtml} lässt sie relativ.
+ * <p>
+ * Instanzen sind unveränderlich und threadsicher.
+ */
+public final class StreamingHtmlSlimmer {
+    public static final StreamingHtmlSlimmer DEFAULT = new StreamingHtmlSlimmer(new HtmlSlimmer.Options());
+
+    private static final Set<String> VOID_TAGS = Set.of(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr");
+    /**
+     * Inhalt wird nicht tokenisiert, sondern bis zum passenden End-Tag übernommen bzw. übersprungen.
+     */
+    private static final Set<String> RAW_TEXT_TAGS = Set.of(
+            "script", "style", "xmp", "iframe", "noembed", "noframes", "title", "textarea");
+    private static final Set<String> GENERIC_ATTRIBUTES = Set.of(
+            "id", "class", "name", "type", "value", "title", "alt", "href", "src", "srcset", "sizes");
+
+    private final HtmlSlimmer.Options opts;
+    private final List<Evaluator> removeEvaluators;
+
+    public StreamingHtmlSlimmer(HtmlSlimmer.Options opts) {
+        this.opts = opts;
+        this.removeEvaluators = new ArrayList<>(opts.removeSelectors.size());
+        for (String selector : opts.removeSelectors) {
+            if (hasCombinator(selector)) {
+                ScrapingService.LOGGER.log(Level.WARNING, "Ignoring selector with combinator in streaming slimmer: " + selector);
+                continue;
+            }
+            removeEvaluators.add(QueryParser.parse(selector));
+        }
+    }
+
+    /**
+     * Gibt „geslimmtes“ HTML zurück; relative href/src werden gegen {@code baseUrl} aufgelöst.
+     */
+    public String slim(String html, String baseUrl) {
+        return new Run(html, baseUrl).run();
+    }
+
+    /* ----------------------- intern ----------------------- */
+
+    /**
+     * Zustand eines einzelnen Durchlaufs.
+     */
+    private final class Run {
+        private final String in;
+        private final int len;
+        private final StringBuilder out;
+        private final URL base;
+        // scheme://authority der Basis-URL, für den häufigen Fall wurzelrelativer Pfade
+        private final String origin;
+        // Element für die Selektor-Auswertung; hängt in einer Dokument-Hülle, sonst baut Jsoup pro attr() einen Parser
+        private final Element scratch = removeEvaluators.isEmpty() ? null : Document.createShell("").body().appendElement("div");
+
+        private int pos;
+        // offene (ausgegebene) Elemente, um unsauber geschlossene entfernte Elemente zu beenden
+        private String[] stack = new String[64];
+        private int depth;
+        private int preDepth;
+        // entferntes Element, dessen Inhalt gerade übersprungen wird
+        private String skipName;
+        private int skipDepth;
+
+        private String[] attrNames = new String[16];
+        private String[] attrValues = new String[16];
+        private int attrCount;
+
+        private Run(String html, String baseUrl) {
+            this.in = html;
+            this.len = html.length();
+            this.out = new StringBuilder(len / 2);
+            this.base = parseBase(baseUrl);
+            this.origin = base == null ? null : base.getProtocol() + "://" + base.getAuthority();
+        }
+
+        private String run() {
+            while (pos < len) {
+                int lt = in.indexOf('<', pos);
+                if (lt < 0) {
+                    text(pos, len);
+                    break;
+                }
+                if (lt > pos) text(pos, lt);
+                pos = lt;
+                if (in.startsWith("<!--", pos)) {
+                    int end = in.indexOf("-->", pos + 4);
+                    pos = end < 0 ? len : end + 3;
+                } else if (pos + 1 < len && (in.charAt(pos + 1) == '!' || in.charAt(pos + 1) == '?')) {
+                    // Doctype / Processing Instruction
+                    int end = in.indexOf('>', pos);
+                    end = end < 0 ? len : end + 1;
+                    if (skipName == null) out.append(in, pos, end);
+                    pos = end;
+                } else if (pos + 2 < len && in.charAt(pos + 1) == '/' && isAsciiLetter(in.charAt(pos + 2))) {
+                    endTag();
+                } else if (pos + 1 < len && isAsciiLetter(in.charAt(pos + 1))) {
+                    startTag();
+                } else {
+                    // einzelnes '<' ist Text
+                    if (skipName == null) out.append("&lt;");
+                    pos++;
+                }
+            }
+            return out.toString();
+        }
+
+        private void text(int from, int to) {
+            if (skipName != null) return;
+            if (!opts.normalizeWhitespace || preDepth > 0) {
+                out.append(in, from, to);
+                return;
+            }
+            int first = from;
+            while (first < to && Character.isWhitespace(in.charAt(first))) first++;
+            // reiner Einrückungs-Whitespace zwischen Tags fällt weg (wie beim Trimmen im DOM-Slimmer)
+            if (first == to) return;
+            int i = from;
+            while (i < to) {
+                int wordStart = i;
+                while (i < to && !Character.isWhitespace(in.charAt(i))) i++;
+                out.append(in, wordStart, i);
+                if (i < to) {
+                    out.append(' ');
+                    while (i < to && Character.isWhitespace(in.charAt(i))) i++;
+                }
+            }
+        }
+
+        private void startTag() {
+            int i = pos + 1;
+            int nameStart = i;
+            while (i < len && isNameChar(in.charAt(i))) i++;
+            String name = lower(nameStart, i);
+
+            attrCount = 0;
+            boolean selfClosing = false;
+            while (i < len) {
+                char c = in.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '>') {
+                    i++;
+                    break;
+                } else if (c == '/') {
+                    i++;
+                    if (i < len && in.charAt(i) == '>') {
+                        selfClosing = true;
+                        i++;
+                        break;
+                    }
+                } else {
+                    i = attribute(i);
+                }
+            }
+            pos = i;
+
+            boolean raw = RAW_TEXT_TAGS.contains(name);
+            if (skipName != null) {
+                if (raw) skipRawText(name, false);
+                else if (name.equals(skipName) && !selfClosing) skipDepth++;
+                return;
+            }
+            if (opts.removeTags.contains(name) || matchesRemoveSelector(name)) {
+                if (raw) skipRawText(name, false);
+                else if (!selfClosing && !VOID_TAGS.contains(name)) {
+                    skipName = name;
+                    skipDepth = 1;
+                }
+                return;
+            }
+
+            out.append('<').append(name);
+            appendAttributes(name);
+            out.append(selfClosing ? "/>" : ">");
+            if (selfClosing || VOID_TAGS.contains(name)) return;
+            if (raw) {
+                skipRawText(name, true);
+                return;
+            }
+            push(name);
+        }
+
+        /**
+         * Liest ein Attribut ab {@code i} und liefert die Position dahinter.
+         */
+        private int attribute(int i) {
+            int nameStart = i;
+            while (i < len) {
+                char c = in.charAt(i);
+                if (Character.isWhitespace(c) || c == '=' || c == '>' || (c == '/' && i + 1 < len && in.charAt(i + 1) == '>')) break;
+                i++;
+            }
+            if (i == nameStart) return i + 1;
+            String name = lower(nameStart, i);
+            while (i < len && Character.isWhitespace(in.charAt(i))) i++;
+            String value = "";
+            if (i < len && in.charAt(i) == '=') {
+                i++;
+                while (i < len && Character.isWhitespace(in.charAt(i))) i++;
+                if (i < len && (in.charAt(i) == '"' || in.charAt(i) == '\'')) {
+                    char quote = in.charAt(i);
+                    int end = in.indexOf(quote, i + 1);
+                    if (end < 0) end = len;
+                    value = in.substring(i + 1, end);
+                    i = Math.min(len, end + 1);
+                } else {
+                    int valueStart = i;
+                    while (i < len && !Character.isWhitespace(in.charAt(i)) && in.charAt(i) != '>') i++;
+                    value = in.substring(valueStart, i);
+                }
+            }
+            if (attrCount == attrNames.length) {
+                attrNames = Arrays.copyOf(attrNames, attrCount * 2);
+                attrValues = Arrays.copyOf(attrValues, attrCount * 2);
+            }
+            attrNames[attrCount] = name;
+            attrValues[attrCount] = value;
+            attrCount++;
+            return i;
+        }
+
+        private void endTag() {
+            int i = pos + 2;
+            int nameStart = i;
+            while (i < len && isNameChar(in.charAt(i))) i++;
+            String name = lower(nameStart, i);
+            int gt = in.indexOf('>', i);
+            pos = gt < 0 ? len : gt + 1;
+
+            if (skipName != null) {
+                if (name.equals(skipName)) {
+                    if (--skipDepth == 0) skipName = null;
+                    return;
+                }
+                // End-Tag eines Vorfahren: das entfernte Element war nicht geschlossen
+                if (indexOf(name) < 0) return;
+                skipName = null;
+                skipDepth = 0;
+            }
+
+            int index = indexOf(name);
+            if (index >= 0) {
+                for (int j = depth - 1; j >= index; j--) {
+                    if (isPreformatted(stack[j])) preDepth--;
+                }
+                depth = index;
+            }
+            out.append("</").append(name).append('>');
+        }
+
+        /**
+         * Springt hinter den Inhalt eines Raw-Text-Elements; mit {@code emit} werden Inhalt und End-Tag übernommen.
+         */
+        private void skipRawText(String name, boolean emit) {
+            int end = findEndTag(name, pos);
+            if (emit) out.append(in, pos, end);
+            if (end >= len) {
+                pos = len;
+                return;
+            }
+            int gt = in.indexOf('>', end);
+            pos = gt < 0 ? len : gt + 1;
+            if (emit) out.append("</").append(name).append('>');
+        }
+
+        private int findEndTag(String name, int from) {
+            int i = from;
+            while ((i = in.indexOf("</", i)) >= 0) {
+                int after = i + 2 + name.length();
+                if (in.regionMatches(true, i + 2, name, 0, name.length()) && (after >= len || !isNameChar(in.charAt(after)))) {
+                    return i;
+                }
+                i += 2;
+            }
+            return len;
+        }
+
+        private boolean matchesRemoveSelector(String name) {
+            if (scratch == null) return false;
+            scratch.tagName(name);
+            scratch.clearAttributes();
+            for (int i = 0; i < attrCount; i++) {
+                scratch.attr(attrNames[i], attrValues[i]);
+            }
+            for (Evaluator evaluator : removeEvaluators) {
+                if (evaluator.matches(scratch, scratch)) return true;
+            }
+            return false;
+        }
+
+        private void appendAttributes(String tag) {
+            Set<String> whitelist = opts.keepAttributesByTag.get(tag);
+            outer:
+            for (int i = 0; i < attrCount; i++) {
+                String name = attrNames[i];
+                String value = attrValues[i];
+                if (value.isBlank() || !keepAttribute(name, whitelist)) continue;
+                // bei doppelten Attributen gewinnt das erste
+                for (int j = 0; j < i; j++) {
+                    if (attrNames[j].equals(name)) continue outer;
+                }
+                out.append(' ').append(name).append("=\"");
+                switch (name) {
+                    case "href", "src" -> appendEscaped(cleanUrl(value));
+                    case "srcset" -> appendEscaped(cleanSrcset(value));
+                    default -> appendRawValue(value);
+                }
+                out.append('"');
+            }
+        }
+
+        private boolean keepAttribute(String name, Set<String> whitelist) {
+            if (opts.dropStyleAttribute && name.equals("style")) return false;
+            if (opts.dropEventHandlerAttributes && name.startsWith("on")) return false;
+            return GENERIC_ATTRIBUTES.contains(name)
+                    || name.startsWith("data-") || name.startsWith("aria-")
+                    || (whitelist != null && whitelist.contains(name));
+        }
+
+        private String cleanUrl(String raw) {
+            String url = decode(raw).trim();
+            return stripTracking(resolve(url));
+        }
+
+        private String cleanSrcset(String raw) {
+            String srcset = decode(raw);
+            StringBuilder sb = new StringBuilder(srcset.length() + 64);
+            int i = 0;
+            while (i < srcset.length()) {
+                int comma = srcset.indexOf(',', i);
+                if (comma < 0) comma = srcset.length();
+                int start = i;
+                while (start < comma && Character.isWhitespace(srcset.charAt(start))) start++;
+                int urlEnd = start;
+                while (urlEnd < comma && !Character.isWhitespace(srcset.charAt(urlEnd))) urlEnd++;
+                String descriptor = srcset.substring(urlEnd, comma).strip();
+                if (!sb.isEmpty()) sb.append(", ");
+                sb.append(stripTracking(resolve(srcset.substring(start, urlEnd))));
+                if (!descriptor.isEmpty()) sb.append(' ').append(descriptor);
+                i = comma + 1;
+            }
+            return sb.toString();
+        }
+
+        private String resolve(String url) {
+            if (base == null || url.isEmpty() || url.startsWith("https://") || url.startsWith("http://")) return url;
+            if (url.startsWith("//")) return base.getProtocol() + ":" + url;
+            if (url.charAt(0) == '/' && !url.contains("/.")) return origin + url;
+            try {
+                return StringUtil.resolve(base, url).toExternalForm();
+            } catch (MalformedURLException | IllegalArgumentException e) {
+                // javascript:, mailto: o.ä. – wie bei absUrl() unverändert übernehmen
+                return url;
+            }
+        }
+
+        /**
+         * Entfernt Tracking-Parameter direkt auf dem Query-String; übrige Parameter bleiben byte-genau erhalten.
+         */
+        private String stripTracking(String url) {
+            int q = url.indexOf('?');
+            if (q < 0) return url;
+            int hash = url.indexOf('#', q);
+            int end = hash < 0 ? url.length() : hash;
+            StringBuilder query = new StringBuilder(end - q);
+            boolean dropped = false;
+            int i = q + 1;
+            while (i < end) {
+                int amp = url.indexOf('&', i);
+                if (amp < 0 || amp > end) amp = end;
+                if (amp > i) {
+                    int eq = url.indexOf('=', i);
+                    String key = url.substring(i, eq < 0 || eq > amp ? amp : eq).toLowerCase(Locale.ROOT);
+                    if (key.startsWith("utm_") || opts.trackingParams.contains(key)) {
+                        dropped = true;
+                    } else {
+                        if (!query.isEmpty()) query.append('&');
+                        query.append(url, i, amp);
+                    }
+                }
+                i = amp + 1;
+            }
+            if (!dropped) return url;
+            StringBuilder sb = new StringBuilder(url.length()).append(url, 0, q);
+            if (!query.isEmpty()) sb.append('?').append(query);
+            return sb.append(url, end, url.length()).toString();
+        }
+
+        private void appendEscaped(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '&') out.append("&amp;");
+                else if (c == '"') out.append("&quot;");
+                else out.append(c);
+            }
+        }
+
+        /**
+         * Roh übernommene Werte sind bereits escaped, nur Anführungszeichen aus '...'-Werten müssen maskiert werden.
+         */
+        private void appendRawValue(String value) {
+            if (value.indexOf('"') < 0) {
+                out.append(value);
+                return;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') out.append("&quot;");
+                else out.append(c);
+            }
+        }
+
+        private void push(String name) {
+            if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+            stack[depth++] = name;
+            if (isPreformatted(name)) preDepth++;
+        }
+
+        private int indexOf(String name) {
+            for (int i = depth - 1; i >= 0; i--) {
+                if (stack[i].equals(name)) return i;
+            }
+            return -1;
+        }
+
+        private String lower(int from, int to) {
+            return in.substring(from, to).toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static URL parseBase(String baseUrl) {
+        if (baseUrl == null || baseUrl.isBlank()) return null;
+        try {
+            return URI.create(baseUrl).toURL();
+        } catch (MalformedURLException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Dekodiert die in URLs üblichen Entities selbst; {@link Parser#unescapeEntities} legt pro Aufruf einen
+     * 32k-Puffer an und wird nur für seltene benannte Entities verwendet.
+     */
+    static String decode(String value) {
+        int amp = value.indexOf('&');
+        if (amp < 0) return value;
+        StringBuilder sb = new StringBuilder(value.length());
+        sb.append(value, 0, amp);
+        for (int i = amp; i < value.length(); i++) {
+            char c = value.charAt(i);
+            int semi;
+            if (c != '&' || (semi = value.indexOf(';', i)) < 0 || semi - i > 10) {
+                sb.append(c);
+                continue;
+            }
+            String entity = value.substring(i + 1, semi);
+            switch (entity) {
+                case "amp" -> sb.append('&');
+                case "quot" -> sb.append('"');
+                case "apos" -> sb.append('\'');
+                case "lt" -> sb.append('<');
+                case "gt" -> sb.append('>');
+                default -> {
+                    if (entity.startsWith("#")) {
+                        try {
+                            boolean hex = entity.length() > 1 && (entity.charAt(1) == 'x' || entity.charAt(1) == 'X');
+                            sb.appendCodePoint(Integer.parseInt(entity.substring(hex ? 2 : 1), hex ? 16 : 10));
+                        } catch (IllegalArgumentException e) {
+                            sb.append(value, i, semi + 1);
+                        }
+                    } else {
+                        sb.append(Parser.unescapeEntities(value.substring(i, semi + 1), true));
+                    }
+                }
+            }
+            i = semi;
+        }
+        return sb.toString();
+    }
+
+    private static boolean isPreformatted(String name) {
+        return name.equals("pre") || name.equals("textarea");
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isNameChar(char c) {
+        return !Character.isWhitespace(c) && c != '/' && c != '>';
+    }
+
+    /**
+     * Kombinatoren außerhalb von [...] und (...); Leerzeichen um Kommas trennen nur Selektorgruppen.
+     */
+    static boolean hasCombinator(String selector) {
+        int nesting = 0;
+        String s = selector.trim();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '[' || c == '(') nesting++;
+            else if (c == ']' || c == ')') nesting--;
+            else if (nesting == 0) {
+                if (c == '>' || c == '+' || c == '~') return true;
+                if (Character.isWhitespace(c)) {
+                    int prev = i - 1;
+                    while (prev >= 0 && Character.isWhitespace(s.charAt(prev))) prev--;
+                    int next = i + 1;
+                    while (next < s.length() && Character.isWhitespace(s.charAt(next))) next++;
+                    if (prev >= 0 && next < s.length() && s.charAt(prev) != ',' && s.charAt(next) != ',') return true;
+                    i = next - 1;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,285 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
+import de.verdox.hwapi.util.SeleniumUtil;
+import lombok.Getter;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.net.MalformedURLException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Begrenzter Pool von WebDriver-Sessions mit Borrow/Return-Semantik.
+ * <p>
+ * Jeder Slot besitzt eine eigene Selenium-Session (eigene ID in {@link SeleniumUtil}).
+ * Beim Ausleihen wird die Session auf Lebendigkeit geprüft, nach {@code maxPagesPerSession}
+ * Seiten wird sie verworfen und beim nächsten Ausleihen frisch aufgebaut.
+ * <p>
+ * Größe und Recycling lassen sich über die Umgebungsvariablen
+ * {@code SELENIUM_MAX_SESSIONS} und {@code SELENIUM_PAGES_PER_SESSION} steuern.
+ */
+public final class WebDriverPool implements AutoCloseable {
+    private static final int DEFAULT_MAX_SESSIONS = 4;
+    private static final int DEFAULT_PAGES_PER_SESSION = 250;
+    private static final Duration DEFAULT_BORROW_TIMEOUT = Duration.ofMinutes(10);
+    /**
+     * Auch für Headless-Fetches, damit geteilte Cookies (z. B. Challenge-Freigaben) zum User-Agent passen.
+     */
+    static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/125 Safari/537.36";
+
+    private static volatile WebDriverPool shared;
+
+    @Getter
+    private final int size;
+    private final int maxPagesPerSession;
+    private final Duration borrowTimeout;
+    private final BlockingQueue<Slot> idle;
+    private final DriverFactory driverFactory;
+    private volatile boolean closed;
+
+    /**
+     * Baut die Session eines Slots auf; austauschbar für Tests.
+     */
+    interface DriverFactory {
+        WebDriver create(String sessionId) throws MalformedURLException;
+    }
+
+    public WebDriverPool(int size, int maxPagesPerSession, Duration borrowTimeout) {
+        this(size, maxPagesPerSession, borrowTimeout, sessionId -> SeleniumUtil.create(sessionId, buildChromeOptions()));
+    }
+
+    WebDriverPool(int size, int maxPagesPerSession, Duration borrowTimeout, DriverFactory driverFactory) {
+        if (size <= 0) throw new IllegalArgumentException("size must be > 0");
+        if (maxPagesPerSession <= 0) throw new IllegalArgumentException("maxPagesPerSession must be > 0");
+        this.size = size;
+        this.maxPagesPerSession = maxPagesPerSession;
+        this.borrowTimeout = borrowTimeout;
+        this.driverFactory = driverFactory;
+        this.idle = new LinkedBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            idle.add(new Slot(i));
+        }
+    }
+
+    /**
+     * Prozessweiter Pool, der von allen {@link SeleniumBasedWebScraper}n geteilt wird.
+     */
+    public static WebDriverPool shared() {
+        WebDriverPool pool = shared;
+        if (pool == null) {
+            synchronized (WebDriverPool.class) {
+                pool = shared;
+                if (pool == null) {
+                    pool = new WebDriverPool(
+                            intFromEnv("SELENIUM_MAX_SESSIONS", DEFAULT_MAX_SESSIONS),
+                            intFromEnv("SELENIUM_PAGES_PER_SESSION", DEFAULT_PAGES_PER_SESSION),
+                            DEFAULT_BORROW_TIMEOUT
+                    );
+                    ScrapingService.LOGGER.log(Level.INFO, "Created WebDriver pool with " + pool.size + " sessions");
+                    shared = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    public static synchronized void shutdownShared() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    /**
+     * Leiht eine lebendige Session aus. Blockiert, bis ein Slot frei wird.
+     * Die Lease muss per {@link Lease#close()} zurückgegeben werden (try-with-resources).
+     */
+    public Lease borrow() throws MalformedURLException {
+        if (closed) throw new IllegalStateException("WebDriver pool is closed");
+        Slot slot;
+        try {
+            slot = idle.poll(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a WebDriver session", e);
+        }
+        if (slot == null) {
+            throw new IllegalStateException("No WebDriver session became available within " + borrowTimeout);
+        }
+        try {
+            slot.ensureAlive();
+        } catch (RuntimeException | MalformedURLException e) {
+            giveBack(slot);
+            throw e;
+        }
+        return new Lease(slot);
+    }
+
+    /**
+     * Verwirft nur die freien Sessions. Ausgeliehene laufen weiter und werden bei der Rückgabe verworfen.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Slot slot; (slot = idle.poll()) != null; ) {
+            slot.discard();
+        }
+    }
+
+    /**
+     * Gibt einen Slot zurück; bei geschlossenem Pool wird er verworfen statt wieder angeboten. Wer den Slot aus
+     * {@link #idle} entfernt, verwirft ihn, so dass ein parallel laufendes {@link #close()} ihn nicht verliert.
+     */
+    private void giveBack(Slot slot) {
+        if (closed) {
+            slot.discard();
+            return;
+        }
+        idle.offer(slot);
+        if (closed && idle.remove(slot)) {
+            slot.discard();
+        }
+    }
+
+    private static int intFromEnv(String name, int fallback) {
+        String raw = System.getenv(name);
+        if (raw == null || raw.isBlank()) return fallback;
+        try {
+            return Math.max(1, Integer.parseInt(raw.trim()));
+        } catch (NumberFormatException e) {
+            ScrapingService.LOGGER.log(Level.WARNING, "Invalid value for " + name + ": " + raw);
+            return fallback;
+        }
+    }
+
+    static ChromeOptions buildChromeOptions() {
+        ChromeOptions options = new ChromeOptions();
+        options.setExperimentalOption("excludeSwitches", List.of("enable-automation"));
+        options.setExperimentalOption("useAutomationExtension", false);
+        options.addArguments(
+                "--disable-blink-features=AutomationControlled",
+                "--no-sandbox",
+                "--disable-dev-shm-usage",
+                "--window-size=1920,1080",
+                "--lang=de-DE",
+                "--user-agent=" + USER_AGENT
+        );
+        return options;
+    }
+
+    private final class Slot {
+        private final int index;
+        private final String sessionId;
+        private WebDriver driver;
+        private int pagesServed;
+        private boolean poisoned;
+        // Hosts, für die diese Session schon Cookies bekommen hat
+        private final Set<String> cookieHosts = new HashSet<>();
+
+        private Slot(int index) {
+            this.index = index;
+            this.sessionId = "webdriver-pool-" + index;
+        }
+
+        private void ensureAlive() throws MalformedURLException {
+            if (poisoned || pagesServed >= maxPagesPerSession || !SeleniumUtil.isSessionAlive(driver)) {
+                if (driver != null) {
+                    ScrapingService.LOGGER.log(Level.FINE, "Recycling WebDriver session " + sessionId + " after " + pagesServed + " pages");
+                }
+                discard();
+                driver = driverFactory.create(sessionId);
+                if (driver == null) {
+                    throw new IllegalStateException("Could not create WebDriver session " + sessionId);
+                }
+                if (driver instanceof RemoteWebDriver rwd) {
+                    ScrapingService.LOGGER.log(Level.INFO, "Initialized WebDriver " + sessionId + ": " + rwd.getCapabilities());
+                } else {
+                    ScrapingService.LOGGER.log(Level.INFO, "Initialized WebDriver " + sessionId + ": " + driver);
+                }
+            }
+        }
+
+        private void discard() {
+            try {
+                if (driver != null) driver.quit();
+            } catch (Exception ignore) {
+            }
+            driver = null;
+            pagesServed = 0;
+            poisoned = false;
+            cookieHosts.clear();
+            SeleniumUtil.cleanup(sessionId);
+        }
+    }
+
+    /**
+     * Ausgeliehene Session. Nach Gebrauch schließen, damit der Slot wieder frei wird.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Slot slot;
+        private boolean returned;
+
+        private Lease(Slot slot) {
+            this.slot = slot;
+        }
+
+        public WebDriver driver() {
+            if (returned) throw new IllegalStateException("Lease already returned");
+            return slot.driver;
+        }
+
+        /**
+         * Index des Slots, stabil über Recycling hinweg (z. B. für slot-gebundene Cookies).
+         */
+        public int slotIndex() {
+            return slot.index;
+        }
+
+        /**
+         * Ob die aktuelle Session den Host zum ersten Mal sieht (dann sollten gespeicherte Cookies gesetzt werden).
+         */
+        public boolean firstVisit(String host) {
+            return slot.cookieHosts.add(host);
+        }
+
+        /**
+         * Zählt eine geladene Seite für das Recycling.
+         */
+        public void pageLoaded() {
+            slot.pagesServed++;
+        }
+
+        /**
+         * Markiert die Session als unbrauchbar, sie wird beim nächsten Ausleihen neu aufgebaut.
+         */
+        public void invalidate() {
+            slot.poisoned = true;
+        }
+
+        /**
+         * Verwirft die aktuelle Session sofort und baut eine neue auf (z. B. nach NoSuchSession).
+         */
+        public WebDriver restart() throws MalformedURLException {
+            ScrapingService.LOGGER.log(Level.INFO, "Restarting WebDriver session " + slot.sessionId);
+            slot.discard();
+            slot.ensureAlive();
+            return slot.driver;
+        }
+
+        @Override
+        public void close() {
+            if (returned) return;
+            returned = true;
+            giveBack(slot);
+        }
+    }
+}
@@ -8,14 +8,15 @@ import de.verdox.hwapi.io.api.WebsiteScrapingStrategy;
 import de.verdox.hwapi.model.GPUChip;
 import de.verdox.hwapi.model.HardwareTypes;
 import de.verdox.hwapi.util.GpuRegexParser;
+import de.verdox.hwapi.util.PoliteHttpGate;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -35,6 +36,7 @@ public class DPGPUScraper implements ComponentWebScraper<GPUChip> {
 
     private final HttpClient http = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build();
     private final ObjectMapper om = new ObjectMapper();
+    private final PoliteHttpGate gate = PoliteHttpGate.shared();
 
     public DPGPUScraper() {
     }
@@ -103,10 +105,7 @@ public class DPGPUScraper implements ComponentWebScraper<GPUChip> {
     private URI resolveLatestJsonAssetUrl() {
         try {
             HttpRequest req = HttpRequest.newBuilder(URI.create(LATEST_RELEASE_API)).header("Accept", "application/vnd.github+json").header("User-Agent", "pc-lager-software/1.0").build();
-            HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() / 100 != 2) {
-                throw new IllegalStateException("GitHub API error: " + resp.statusCode());
-            }
+            HttpResponse<String> resp = send(req);
 
             JsonNode root = om.readTree(resp.body());
             JsonNode assets = root.path("assets");
@@ -120,7 +119,7 @@ public class DPGPUScraper implements ComponentWebScraper<GPUChip> {
             String url = best.path("browser_download_url").asText(null);
             if (url == null) throw new IllegalStateException("browser_download_url not found");
             return URI.create(url);
-        } catch (IOException | InterruptedException e) {
+        } catch (Exception e) {
             throw new RuntimeException("Could not find latest json asset", e);
         }
     }
@@ -129,13 +128,60 @@ public class DPGPUScraper implements ComponentWebScraper<GPUChip> {
         try {
             HttpRequest req = HttpRequest.newBuilder(url).header("User-Agent", "pc-lager-software/1.0").header("Accept", "application/octet-stream") // <- hilft bei Asset-Redirects
                     .GET().build();
+            return send(req).body();
+        } catch (Exception e) {
+            throw new RuntimeException("Download error: " + url, e);
+        }
+    }
+
+    /**
+     * Sendet über das {@link PoliteHttpGate}; Nicht-2xx-Antworten werden als Status-Fehler gemeldet,
+     * damit 429 über Retry-After bzw. Backoff gedrosselt wird. GitHub meldet sein Rate-Limit auch als 403
+     * ({@code x-ratelimit-remaining: 0} oder mit Retry-After); das wird wie 429 behandelt, andere 403 nicht.
+     */
+    private HttpResponse<String> send(HttpRequest req) throws Exception {
+        return gate.run(req.uri(), () -> {
             HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString());
             if (resp.statusCode() / 100 != 2) {
-                throw new IllegalStateException("Download error: " + resp.statusCode());
+                Duration retryAfter = resp.headers().firstValue("Retry-After")
+                        .flatMap(DPGPUScraper::parseRetryAfterSeconds)
+                        .orElse(null);
+                int status = resp.statusCode();
+                if (status == 403 && isGitHubRateLimit(resp, retryAfter)) {
+                    status = 429;
+                    if (retryAfter == null) {
+                        retryAfter = resp.headers().firstValue("x-ratelimit-reset")
+                                .flatMap(DPGPUScraper::parseRateLimitReset)
+                                .orElse(null);
+                    }
+                }
+                throw new PoliteHttpGate.HttpStatusException(status, req.uri().toString(), retryAfter);
             }
-            return resp.body();
-        } catch (IOException | InterruptedException e) {
-            throw new RuntimeException("Download error: " + url, e);
+            return resp;
+        });
+    }
+
+    private static boolean isGitHubRateLimit(HttpResponse<?> resp, Duration retryAfter) {
+        return retryAfter != null || resp.headers().firstValue("x-ratelimit-remaining").map(v -> v.trim().equals("0")).orElse(false);
+    }
+
+    /**
+     * {@code x-ratelimit-reset} ist ein Unix-Zeitstempel in Sekunden.
+     */
+    private static Optional<Duration> parseRateLimitReset(String raw) {
+        try {
+            long seconds = Long.parseLong(raw.trim()) - System.currentTimeMillis() / 1000;
+            return Optional.of(Duration.ofSeconds(Math.max(1, seconds)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Duration> parseRetryAfterSeconds(String raw) {
+        try {
+            return Optional.of(Duration.ofSeconds(Long.parseLong(raw.trim())));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
         }
     }
 
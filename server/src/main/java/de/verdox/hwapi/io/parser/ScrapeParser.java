@@ -5,40 +5,74 @@ import de.verdox.hwapi.model.HardwareSpec;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.*;
 import java.util.logging.Level;
 
+/**
+ * Überträgt Spec-Werte auf ein Hardware-Objekt; gesetzt wird nur, was dort noch auf dem Default steht.
+ * <p>
+ * Für wiederholte Läufe (Scrape, Offline-Replay) wird die Zuordnung einmal pro Hardware-Typ als {@link Plan}
+ * kompiliert und dann auf jede Spec-Map angewendet:
+ * <pre>
+ * static final ScrapeParser.Plan&lt;CPU&gt; CPU_PLAN = new ScrapeParser&lt;CPU&gt;()
+ *         .parseString("Modell", CPU::getModel, CPU::setModel)
+ *         .compile();
+ * ...
+ * CPU_PLAN.apply(scraped.specs(), target);
+ * </pre>
+ * Die Schritte laufen in der Reihenfolge, in der sie registriert wurden; bei mehreren Schlüsseln für dasselbe
+ * Feld gewinnt also der erste vorhandene.
+ */
 public class ScrapeParser<HARDWARE extends HardwareSpec> {
+    /**
+     * Obergrenze für die pro Enum-Schritt gemerkten Rohwerte.
+     */
+    static final int MAX_ENUM_MEMO = 4096;
+
     private final Map<String, List<String>> specs;
-    private final Set<Consumer<HARDWARE>> consumers = ConcurrentHashMap.newKeySet();
+    private final List<Mapping<HARDWARE, ?>> mappings = new ArrayList<>();
+
+    /**
+     * Parser ohne Spec-Map, nur zum Aufbau eines {@link Plan}s über {@link #compile()}.
+     */
+    public ScrapeParser() {
+        this(null);
+    }
 
     public ScrapeParser(Map<String, List<String>> specs) {
         this.specs = specs;
     }
 
     public void parse(HARDWARE hardware) {
-        consumers.forEach(consumer -> consumer.accept(hardware));
+        if (specs == null) {
+            throw new IllegalStateException("This parser has no specs, use compile().apply(specs, hardware)");
+        }
+        for (Mapping<HARDWARE, ?> mapping : mappings) {
+            mapping.apply(specs, hardware);
+        }
+    }
+
+    /**
+     * Friert die bisher registrierten Schritte ein.
+     */
+    public Plan<HARDWARE> compile() {
+        return new Plan<>(List.copyOf(mappings));
     }
 
     public ScrapeParser<HARDWARE> parseString(String key, Function<HARDWARE, String> getter, BiConsumer<HARDWARE, String> setter) {
-        consumers.add(hardware -> parse(hardware, key, String::trim, getter, setter, ""));
-        return this;
+        return add(key, String::trim, getter, setter, "");
     }
 
     public <INPUT extends Enum<INPUT>> ScrapeParser<HARDWARE> parseEnum(String key, Function<HARDWARE, INPUT> getter, BiConsumer<HARDWARE, INPUT> setter, BiPredicate<String, INPUT> isEqual, INPUT defaultValue) {
-        consumers.add(hardware -> parse(hardware, key, (value) -> {
-            INPUT[] enumConstants = (INPUT[]) defaultValue.getClass().getEnumConstants();
-            return Arrays.stream(enumConstants).filter(e -> isEqual.test(value, e)).findFirst().orElse(defaultValue);
-        }, getter, setter, defaultValue));
-        return this;
+        INPUT[] enumConstants = defaultValue.getDeclaringClass().getEnumConstants();
+        return add(key, new EnumResolver<>(enumConstants, isEqual, defaultValue), getter, setter, defaultValue);
     }
 
     public <INPUT extends Number> ScrapeParser<HARDWARE> parseNumber(String key, Function<String, INPUT> dataParser, Function<HARDWARE, INPUT> getter, BiConsumer<HARDWARE, INPUT> setter, INPUT defaultValue) {
-        consumers.add(hardware -> parse(hardware, key, raw -> dataParser.apply(raw.replaceAll("[^0-9-]", "")), getter, setter, defaultValue));
-        return this;
+        return add(key, raw -> dataParser.apply(digitsAndMinus(raw)), getter, setter, defaultValue);
     }
 
-
     public <INPUT> ScrapeParser<HARDWARE> parse(
             HARDWARE hardwareSpec,
             String key,
@@ -46,55 +80,134 @@ public class ScrapeParser<HARDWARE extends HardwareSpec> {
             Function<HARDWARE, INPUT> getter, BiConsumer<HARDWARE, INPUT> setter,
             INPUT defaultValue
     ) {
-        if (!specs.containsKey(key)) {
-            ScrapingService.LOGGER.log(Level.FINER, "Scraper could not find data associated to the key " + key + " in model " + specs.get("model") + " | " + specs.keySet());
-            return this;
+        checkInput(getter, setter);
+        new Mapping<>(key, dataParser, getter, setter, defaultValue).apply(specs, hardwareSpec);
+        return this;
+    }
+
+    private <INPUT> ScrapeParser<HARDWARE> add(String key, Function<String, INPUT> dataParser, Function<HARDWARE, INPUT> getter, BiConsumer<HARDWARE, INPUT> setter, INPUT defaultValue) {
+        checkInput(getter, setter);
+        mappings.add(new Mapping<>(key, dataParser, getter, setter, defaultValue));
+        return this;
+    }
+
+    /**
+     * Kompilierte, unveränderliche Zuordnung; threadsicher und für beliebig viele Spec-Maps wiederverwendbar.
+     */
+    public static final class Plan<HARDWARE extends HardwareSpec> {
+        private final Mapping<HARDWARE, ?>[] mappings;
+
+        @SuppressWarnings("unchecked")
+        private Plan(List<Mapping<HARDWARE, ?>> mappings) {
+            this.mappings = mappings.toArray(new Mapping[0]);
         }
-        List<String> data = specs.get(key);
-        if (data.isEmpty()) {
-            ScrapingService.LOGGER.log(Level.FINER, "Scraper could not find data in the entry set for key " + key + " in model " + specs.get("model") + " | " + specs.keySet());
-            return this;
+
+        public void apply(Map<String, List<String>> specs, HARDWARE hardware) {
+            for (Mapping<HARDWARE, ?> mapping : mappings) {
+                mapping.apply(specs, hardware);
+            }
         }
-        String dataAsString = data.getFirst();
-        set(hardwareSpec, () -> {
+    }
+
+    private record Mapping<HARDWARE extends HardwareSpec, INPUT>(
+            String key,
+            Function<String, INPUT> dataParser,
+            Function<HARDWARE, INPUT> getter,
+            BiConsumer<HARDWARE, INPUT> setter,
+            INPUT defaultValue
+    ) {
+        void apply(Map<String, List<String>> specs, HARDWARE hardwareSpec) {
+            if (hardwareSpec == null) {
+                throw new IllegalArgumentException("The hardware cannot be null!");
+            }
+            List<String> data = specs.get(key);
+            if (data == null || data.isEmpty()) {
+                if (ScrapingService.LOGGER.isLoggable(Level.FINER)) {
+                    ScrapingService.LOGGER.log(Level.FINER, "Scraper could not find data associated to the key " + key + " in model " + specs.get("model") + " | " + specs.keySet());
+                }
+                return;
+            }
+            if (!isDefault(getter.apply(hardwareSpec))) {
+                return;
+            }
+            String dataAsString = data.getFirst();
+            INPUT newValue;
             try {
-                return dataParser.apply(dataAsString);
+                newValue = dataParser.apply(dataAsString);
             } catch (Throwable throwable) {
                 ScrapingService.LOGGER.log(Level.FINER, "An error occured while parsing the string data for key " + key + ": " + dataAsString, throwable);
-                return defaultValue;
+                return;
             }
-        }, getter, setter, input -> input == null || Objects.equals(input, defaultValue));
-        return this;
+            if (isDefault(newValue)) {
+                return;
+            }
+            setter.accept(hardwareSpec, newValue);
+        }
+
+        private boolean isDefault(INPUT input) {
+            return input == null || Objects.equals(input, defaultValue);
+        }
     }
 
-    private <INPUT> void set(
-            HARDWARE hardwareSpec,
-            Supplier<INPUT> value,
-            Function<HARDWARE, INPUT> getter,
-            BiConsumer<HARDWARE, INPUT> setter,
-            Predicate<INPUT> isDefaultValue
-    ) {
-        checkInput(hardwareSpec, getter, setter);
-        INPUT current = getter.apply(hardwareSpec);
-        if (!isDefaultValue.test(current)) {
-            return;
+    /**
+     * Löst Rohwerte über das Prädikat auf und merkt sich das Ergebnis; in einem Katalog wiederholen sich die
+     * Werte (z. B. {@code "AM5"}) ständig, der lineare Durchlauf über alle Konstanten fällt dann weg.
+     */
+    private static final class EnumResolver<INPUT extends Enum<INPUT>> implements Function<String, INPUT> {
+        private final INPUT[] constants;
+        private final BiPredicate<String, INPUT> isEqual;
+        private final INPUT defaultValue;
+        private final ConcurrentMap<String, INPUT> memo = new ConcurrentHashMap<>();
+
+        EnumResolver(INPUT[] constants, BiPredicate<String, INPUT> isEqual, INPUT defaultValue) {
+            this.constants = constants;
+            this.isEqual = isEqual;
+            this.defaultValue = defaultValue;
         }
-        INPUT newValue = value.get();
-        if (isDefaultValue.test(newValue)) {
-            return;
+
+        @Override
+        public INPUT apply(String value) {
+            INPUT known = memo.get(value);
+            if (known != null) return known;
+            INPUT resolved = defaultValue;
+            for (INPUT constant : constants) {
+                if (isEqual.test(value, constant)) {
+                    resolved = constant;
+                    break;
+                }
+            }
+            if (memo.size() < MAX_ENUM_MEMO) {
+                memo.putIfAbsent(value, resolved);
+            }
+            return resolved;
         }
-        setter.accept(hardwareSpec, newValue);
     }
 
-    private static <HARDWARE extends HardwareSpec, INPUT> void checkInput(HARDWARE hardwareSpec, Function<HARDWARE, INPUT> getter, BiConsumer<HARDWARE, INPUT> setter) {
-        if (hardwareSpec == null) {
-            throw new IllegalArgumentException("The hardware cannot be null!");
+    /**
+     * Entspricht {@code raw.replaceAll("[^0-9-]", "")}.
+     */
+    static String digitsAndMinus(String raw) {
+        int i = 0;
+        while (i < raw.length() && isDigitOrMinus(raw.charAt(i))) i++;
+        if (i == raw.length()) return raw;
+        StringBuilder cleaned = new StringBuilder(raw.length()).append(raw, 0, i);
+        for (; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (isDigitOrMinus(c)) cleaned.append(c);
         }
+        return cleaned.toString();
+    }
+
+    private static boolean isDigitOrMinus(char c) {
+        return (c >= '0' && c <= '9') || c == '-';
+    }
+
+    private static <HARDWARE extends HardwareSpec, INPUT> void checkInput(Function<HARDWARE, INPUT> getter, BiConsumer<HARDWARE, INPUT> setter) {
         if (getter == null) {
             throw new IllegalArgumentException("The getter cannot be null!");
         }
         if (setter == null) {
-            throw new IllegalArgumentException("The getter cannot be null!");
+            throw new IllegalArgumentException("The setter cannot be null!");
         }
     }
 }
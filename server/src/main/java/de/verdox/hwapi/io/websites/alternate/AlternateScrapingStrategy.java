@@ -35,6 +35,11 @@ public class AlternateScrapingStrategy implements WebsiteScrapingStrategy {
         }
     }
 
+    @Override
+    public String[] singlePageReadySelectors() {
+        return new String[]{"div.product-name"};
+    }
+
     @Override
     public Map<String, List<String>> extractSpecMap(Document page) throws Throwable {
         Map<String, List<String>> specs = new HashMap<>();
@@ -16,6 +16,26 @@ import de.verdox.hwapi.model.values.USBPort;
 import static de.verdox.hwapi.io.api.ComponentWebScraper.*;
 
 public class CaseKingScrapers {
+    private static final ScrapeParser.Plan<CPU> CPU_SPECS = new ScrapeParser<CPU>()
+            .parseString("CPU-Hersteller", HardwareSpec::getManufacturer, HardwareSpec::setManufacturer)
+            .parseEnum("CPU-Sockel", CPU::getSocket, CPU::setSocket,
+                    (s, sock) -> s.toUpperCase().contains(sock.name().toUpperCase()) || sock.name().toUpperCase().contains(s.toUpperCase()),
+                    HardwareTypes.CpuSocket.UNKNOWN)
+            .parseNumber("CPU-Kerne", Integer::parseInt, CPU::getCores, CPU::setCores, 0)
+            .parseNumber("Leistungs-Kerne", Integer::parseInt, CPU::getPerformanceCores, CPU::setPerformanceCores, 0)
+            .parseNumber("Effizienz-Kerne", Integer::parseInt, CPU::getEfficiencyCores, CPU::setEfficiencyCores, 0)
+            .parseNumber("CPU-Threads", Integer::parseInt, CPU::getThreads, CPU::setThreads, 0)
+            .parseNumber("L3-Cache", Integer::parseInt, CPU::getL3CacheMb, CPU::setL3CacheMb, 0)
+            .parseNumber("Level-3-Cache", Integer::parseInt, CPU::getL3CacheMb, CPU::setL3CacheMb, 0)
+            .parseNumber("TDP", Integer::parseInt, CPU::getTdpWatts, CPU::setTdpWatts, 0)
+            .parseNumber("max. CPU-Takt (Basis)", s -> Double.parseDouble(s) * 1000, CPU::getBaseClockMhz, CPU::setBaseClockMhz, 0d)
+            .parseNumber("max. CPU-Takt (Turbo / Boost)", s -> Double.parseDouble(s) * 1000, CPU::getBoostClockMhz, CPU::setBoostClockMhz, 0d)
+            .parseNumber("Basistakt", s -> Double.parseDouble(s) * 1000, CPU::getBaseClockMhz, CPU::setBaseClockMhz, 0d)
+            .parseNumber("Boost-Takt", s -> Double.parseDouble(s) * 1000, CPU::getBoostClockMhz, CPU::setBoostClockMhz, 0d)
+            .parseNumber("Basistakt (P-Kerne)", s -> Double.parseDouble(s) * 1000, CPU::getBaseClockMhzPerformance, CPU::setBaseClockMhzPerformance, 0d)
+            .parseNumber("Basistakt (E-Kerne)", s -> Double.parseDouble(s) * 1000, CPU::getBaseClockMhzEfficiency, CPU::setBaseClockMhzEfficiency, 0d)
+            .compile();
+
     public static WebsiteScraper create(HardwareSpecService service) {
         return new WebsiteScraper(service, "caseking.de")
                 .withStrategy(new CasekingScrapingStrategy())
@@ -30,25 +50,7 @@ public class CaseKingScrapers {
                 .withCPUScrape(cpuScrape -> cpuScrape
                         .addMainScrapeLogic((scraped, cpu) -> {
                                     var specs = scraped.specs();
-                                    new ScrapeParser<CPU>(specs)
-                                            .parseString("CPU-Hersteller", HardwareSpec::getManufacturer, HardwareSpec::setManufacturer)
-                                            .parseEnum("CPU-Sockel", CPU::getSocket, CPU::setSocket,
-                                                    (s, sock) -> s.toUpperCase().contains(sock.name().toUpperCase()) || sock.name().toUpperCase().contains(s.toUpperCase()),
-                                                    HardwareTypes.CpuSocket.UNKNOWN)
-                                            .parseNumber("CPU-Kerne", Integer::parseInt, CPU::getCores, CPU::setCores, 0)
-                                            .parseNumber("Leistungs-Kerne", Integer::parseInt, CPU::getPerformanceCores, CPU::setPerformanceCores, 0)
-                                            .parseNumber("Effizienz-Kerne", Integer::parseInt, CPU::getEfficiencyCores, CPU::setEfficiencyCores, 0)
-                                            .parseNumber("CPU-Threads", Integer::parseInt, CPU::getThreads, CPU::setThreads, 0)
-                                            .parseNumber("L3-Cache", Integer::parseInt, CPU::getL3CacheMb, CPU::setL3CacheMb, 0)
-                                            .parseNumber("Level-3-Cache", Integer::parseInt, CPU::getL3CacheMb, CPU::setL3CacheMb, 0)
-                                            .parseNumber("TDP", Integer::parseInt, CPU::getTdpWatts, CPU::setTdpWatts, 0)
-                                            .parseNumber("max. CPU-Takt (Basis)", s -> Double.parseDouble(s) * 1000, CPU::getBaseClockMhz, CPU::setBaseClockMhz, 0d)
-                                            .parseNumber("max. CPU-Takt (Turbo / Boost)", s -> Double.parseDouble(s) * 1000, CPU::getBoostClockMhz, CPU::setBoostClockMhz, 0d)
-                                            .parseNumber("Basistakt", s -> Double.parseDouble(s) * 1000, CPU::getBaseClockMhz, CPU::setBaseClockMhz, 0d)
-                                            .parseNumber("Boost-Takt", s -> Double.parseDouble(s) * 1000, CPU::getBoostClockMhz, CPU::setBoostClockMhz, 0d)
-                                            .parseNumber("Basistakt (P-Kerne)", s -> Double.parseDouble(s) * 1000, CPU::getBaseClockMhzPerformance, CPU::setBaseClockMhzPerformance, 0d)
-                                            .parseNumber("Basistakt (E-Kerne)", s -> Double.parseDouble(s) * 1000, CPU::getBaseClockMhzEfficiency, CPU::setBaseClockMhzEfficiency, 0d)
-                                            .parse(cpu);
+                                    CPU_SPECS.apply(specs, cpu);
                                 },
                                 "https://www.caseking.de/pc-komponenten/cpus-prozessoren/amd",
                                 "https://www.caseking.de/pc-komponenten/cpus-prozessoren/intel")
@@ -9,6 +9,19 @@ import de.verdox.hwapi.model.HardwareTypes;
 import static de.verdox.hwapi.io.api.ComponentWebScraper.*;
 
 public class ComputerSalgScrapers {
+    private static final ScrapeParser.Plan<CPU> CPU_SPECS = new ScrapeParser<CPU>()
+            .parseString("Prozessor Modell:", CPU::getModel, CPU::setModel)
+            .parseNumber("Anzahl der CPU Kerne:", Integer::parseInt, CPU::getCores, CPU::setCores, 0)
+            .parseNumber("Anzahl der Threads:", Integer::parseInt, CPU::getThreads, CPU::setThreads, 0)
+            .parseNumber("Prozessortakt:", s -> Double.parseDouble(s) * 1000, CPU::getBaseClockMhz, CPU::setBaseClockMhz, 0d)
+            .parseNumber("Max. Turbotakt:", s -> Double.parseDouble(s) * 1000, CPU::getBoostClockMhz, CPU::setBoostClockMhz, 0d)
+            .parseEnum("Sockel:", CPU::getSocket, CPU::setSocket,
+                    (s, sock) -> s.toUpperCase().contains(sock.name().toUpperCase()) || sock.name().toUpperCase().contains(s.toUpperCase()),
+                    HardwareTypes.CpuSocket.UNKNOWN)
+            .parseNumber("TDP:", Integer::parseInt, CPU::getTdpWatts, CPU::setTdpWatts, 0)
+            .parseNumber("L3 Cache:", Integer::parseInt, CPU::getL3CacheMb, CPU::setL3CacheMb, 0)
+            .parseString("Integrierte Grafik:", CPU::getIntegratedGraphics, CPU::setIntegratedGraphics)
+            .compile();
 
     public static WebsiteScraper create(HardwareSpecService service) {
         return new WebsiteScraper(service, "computersalg.de")
@@ -19,19 +32,7 @@ public class ComputerSalgScrapers {
 
                 // CPU
                 .withCPUScrape(cpu -> cpu.addMainScrapeLogic((scraped, target) -> {
-                            new ScrapeParser<CPU>(scraped.specs())
-                                    .parseString("Prozessor Modell:", CPU::getModel, CPU::setModel)
-                                    .parseNumber("Anzahl der CPU Kerne:", Integer::parseInt, CPU::getCores, CPU::setCores, 0)
-                                    .parseNumber("Anzahl der Threads:", Integer::parseInt, CPU::getThreads, CPU::setThreads, 0)
-                                    .parseNumber("Prozessortakt:", s -> Double.parseDouble(s) * 1000, CPU::getBaseClockMhz, CPU::setBaseClockMhz, 0d)
-                                    .parseNumber("Max. Turbotakt:", s -> Double.parseDouble(s) * 1000, CPU::getBoostClockMhz, CPU::setBoostClockMhz, 0d)
-                                    .parseEnum("Sockel:", CPU::getSocket, CPU::setSocket,
-                                            (s, sock) -> s.toUpperCase().contains(sock.name().toUpperCase()) || sock.name().toUpperCase().contains(s.toUpperCase()),
-                                            HardwareTypes.CpuSocket.UNKNOWN)
-                                    .parseNumber("TDP:", Integer::parseInt, CPU::getTdpWatts, CPU::setTdpWatts, 0)
-                                    .parseNumber("L3 Cache:", Integer::parseInt, CPU::getL3CacheMb, CPU::setL3CacheMb, 0)
-                                    .parseString("Integrierte Grafik:", CPU::getIntegratedGraphics, CPU::setIntegratedGraphics)
-                                    .parse(target);
+                            CPU_SPECS.apply(scraped.specs(), target);
                         },
                         "https://www.computersalg.de/l/1486/amd-cpu",
                         "https://www.computersalg.de/l/1487/intel-cpu"))
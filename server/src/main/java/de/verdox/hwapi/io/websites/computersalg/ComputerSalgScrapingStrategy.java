@@ -54,6 +54,11 @@ public class ComputerSalgScrapingStrategy implements WebsiteScrapingStrategy {
     private static final Pattern MODEL_PATTERN = Pattern.compile("Modell\\s*nummer:\\s*([^|]+)");
     private static final Pattern EAN_PATTERN = Pattern.compile("EAN:\\s*([^|]+)");
 
+    @Override
+    public String[] singlePageReadySelectors() {
+        return new String[]{"div.v-product-headline"};
+    }
+
     @Override
     public Map<String, List<String>> extractSpecMap(Document page) throws Throwable {
 
@@ -12,6 +12,19 @@ import java.util.function.BiPredicate;
 import static de.verdox.hwapi.io.api.ComponentWebScraper.*;
 
 public class MindfactoryScrapers {
+    private static final ScrapeParser.Plan<CPU> CPU_SPECS = new ScrapeParser<CPU>()
+            .parseString("Prozessor Modell:", CPU::getModel, CPU::setModel)
+            .parseNumber("Anzahl der CPU Kerne:", Integer::parseInt, CPU::getCores, CPU::setCores, 0)
+            .parseNumber("Anzahl der Threads:", Integer::parseInt, CPU::getThreads, CPU::setThreads, 0)
+            .parseNumber("Prozessortakt:", s -> Double.parseDouble(s) * 1000, CPU::getBaseClockMhz, CPU::setBaseClockMhz, 0d)
+            .parseNumber("Max. Turbotakt:", s -> Double.parseDouble(s) * 1000, CPU::getBoostClockMhz, CPU::setBoostClockMhz, 0d)
+            .parseEnum("Sockel:", CPU::getSocket, CPU::setSocket,
+                    (s, sock) -> s.toUpperCase().contains(sock.name().toUpperCase()) || sock.name().toUpperCase().contains(s.toUpperCase()),
+                    HardwareTypes.CpuSocket.UNKNOWN)
+            .parseNumber("TDP:", Integer::parseInt, CPU::getTdpWatts, CPU::setTdpWatts, 0)
+            .parseNumber("L3 Cache:", Integer::parseInt, CPU::getL3CacheMb, CPU::setL3CacheMb, 0)
+            .parseString("Integrierte Grafik:", CPU::getIntegratedGraphics, CPU::setIntegratedGraphics)
+            .compile();
 
     public static final BiPredicate<String, Document> CHALLENGE_PREDICATE = (url, document) -> document.selectFirst("div.security-content") != null;
     public static final BiPredicate<String, Document> SHOULD_SAVE = (url, document) -> {
@@ -34,19 +47,7 @@ public class MindfactoryScrapers {
 
                 .withCPUScrape(cpu -> cpu
                         .addMainScrapeLogic((scraped, target) -> {
-                                    new ScrapeParser<CPU>(scraped.specs())
-                                            .parseString("Prozessor Modell:", CPU::getModel, CPU::setModel)
-                                            .parseNumber("Anzahl der CPU Kerne:", Integer::parseInt, CPU::getCores, CPU::setCores, 0)
-                                            .parseNumber("Anzahl der Threads:", Integer::parseInt, CPU::getThreads, CPU::setThreads, 0)
-                                            .parseNumber("Prozessortakt:", s -> Double.parseDouble(s) * 1000, CPU::getBaseClockMhz, CPU::setBaseClockMhz, 0d)
-                                            .parseNumber("Max. Turbotakt:", s -> Double.parseDouble(s) * 1000, CPU::getBoostClockMhz, CPU::setBoostClockMhz, 0d)
-                                            .parseEnum("Sockel:", CPU::getSocket, CPU::setSocket,
-                                                    (s, sock) -> s.toUpperCase().contains(sock.name().toUpperCase()) || sock.name().toUpperCase().contains(s.toUpperCase()),
-                                                    HardwareTypes.CpuSocket.UNKNOWN)
-                                            .parseNumber("TDP:", Integer::parseInt, CPU::getTdpWatts, CPU::setTdpWatts, 0)
-                                            .parseNumber("L3 Cache:", Integer::parseInt, CPU::getL3CacheMb, CPU::setL3CacheMb, 0)
-                                            .parseString("Integrierte Grafik:", CPU::getIntegratedGraphics, CPU::setIntegratedGraphics)
-                                            .parse(target);
+                                    CPU_SPECS.apply(scraped.specs(), target);
                                 },
                                 "https://www.mindfactory.de/Hardware/Prozessoren+(CPU).html"
                         )
@@ -29,6 +29,11 @@ public class MindfactoryScrapingStrategy implements WebsiteScrapingStrategy {
         }
     }
 
+    @Override
+    public String[] singlePageReadySelectors() {
+        return new String[]{"span.product-ean"};
+    }
+
     @Override
     public Map<String, List<String>> extractSpecMap(Document page) throws Throwable {
         Map<String, List<String>> specs = new HashMap<>();
@@ -27,6 +27,11 @@ public class XKomScrapingStrategy implements WebsiteScrapingStrategy {
         }
     }
 
+    @Override
+    public String[] singlePageReadySelectors() {
+        return new String[]{"div.page-title-wrapper.product"};
+    }
+
     @Override
     public Map<String, List<String>> extractSpecMap(Document page) throws Throwable {
         Map<String, List<String>> specs = new HashMap<>();
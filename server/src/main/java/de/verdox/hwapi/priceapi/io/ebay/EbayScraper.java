@@ -1,19 +1,17 @@
 package de.verdox.hwapi.priceapi.io.ebay;
 
-import de.verdox.hwapi.configuration.DataStorage;
 import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
 import de.verdox.hwapi.io.api.Price;
 import de.verdox.hwapi.io.api.selenium.CookieJar;
-import de.verdox.hwapi.io.api.selenium.FScrapingCache;
+import de.verdox.hwapi.io.api.selenium.ScrapingCaches;
 import de.verdox.hwapi.io.api.selenium.FetchOptions;
 import de.verdox.hwapi.io.api.selenium.SeleniumBasedWebScraper;
 import de.verdox.hwapi.model.values.Currency;
 import de.verdox.hwapi.priceapi.io.ebay.api.EbayCategory;
 import de.verdox.hwapi.priceapi.io.ebay.api.EbayMarketplace;
+import de.verdox.hwapi.util.PoliteHttpGate;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.openqa.selenium.By;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.math.BigDecimal;
 import java.net.URLEncoder;
@@ -34,7 +32,7 @@ public class EbayScraper {
     private final SeleniumBasedWebScraper seleniumBasedWebScraper;
 
     public EbayScraper(String id) {
-        this.seleniumBasedWebScraper = new SeleniumBasedWebScraper(id, new FScrapingCache(), new CookieJar(DataStorage.resolve("scraping")));
+        this.seleniumBasedWebScraper = new SeleniumBasedWebScraper(id, ScrapingCaches.shared(), CookieJar.shared());
         seleniumBasedWebScraper.setIsChallengePage((s, doc) -> {
 
             if (doc.selectFirst("div.pgHeading") != null) {
@@ -78,10 +76,7 @@ public class EbayScraper {
                             .setTryHeadlessFirst(true)
                             .setTtl(Duration.ofSeconds(1))
                             .setSkipIfNotCache(false)
-                            .setBeforeSaveOperation(driver -> {
-                                WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(20));
-                                wait.until(webDriver -> webDriver.findElement(By.cssSelector("div.srp-river-results.clearfix")));
-                            })
+                            .setReadySelectors("div.srp-river-results.clearfix")
             );
 
             if (doc.selectFirst("div.srp-save-null-search") != null) {
@@ -90,6 +85,8 @@ public class EbayScraper {
 
             String titleTag = Optional.ofNullable(doc.title()).orElse("").toLowerCase(Locale.ROOT);
             if (titleTag.contains("störung") || titleTag.contains("geprüft") || titleTag.contains("captcha")) {
+                // Wie ein 429 behandeln, damit weitere EAN-Abfragen auf diesem Marktplatz gedrosselt werden
+                PoliteHttpGate.shared().report("www." + marketplace.getDomain(), 429);
                 throw new IllegalStateException("Bot-Challenge nicht passiert – kein Ergebnis-HTML.");
             }
 
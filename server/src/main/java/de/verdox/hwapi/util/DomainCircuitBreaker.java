@@ -0,0 +1,208 @@
+package de.verdox.hwapi.util;
+
+import de.verdox.hwapi.hardwareapi.component.service.ScrapingService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+/**
+ * Circuit-Breaker pro Domain für Bot-Challenges.
+ * <p>
+ * Eine Challenge öffnet den Kreis: bis zum Ende der Abkühlzeit liefern Fetches nur noch den Cache.
+ * Danach ist der Kreis halb offen und genau ein Probe-Request darf ins Netz; gelingt er, schließt der Kreis,
+ * sonst öffnet er erneut mit verdoppelter Abkühlzeit (bis {@link #MAX_COOL_DOWN}).
+ * Jeder erlaubte Request bekommt ein {@link Permit} mit seinem Startzeitpunkt; Ergebnisse von Requests, die schon
+ * vor dem Öffnen liefen, schließen den Kreis nicht und verlängern die Abkühlzeit nicht.
+ * Aufrufer merken sich die so übersprungenen URLs und reihen sie nach {@link #retryAt(String)} erneut ein.
+ * <p>
+ * Zustand, Abkühlzeit und Anzahl Auslösungen sind als Micrometer-Metriken
+ * ({@code scraping.circuit.*}, Tag {@code domain}) verfügbar.
+ */
+public class DomainCircuitBreaker implements MeterBinder {
+    static final Duration BASE_COOL_DOWN = Duration.ofMinutes(2);
+    static final Duration MAX_COOL_DOWN = Duration.ofHours(1);
+    /**
+     * Bleibt eine Probe ohne Rückmeldung (Timeout, Absturz), darf danach die nächste los.
+     */
+    static final Duration PROBE_TIMEOUT = Duration.ofMinutes(2);
+
+    private static volatile DomainCircuitBreaker shared;
+
+    public enum State {CLOSED, HALF_OPEN, OPEN}
+
+    /**
+     * Erlaubnis für einen Netzwerk-Fetch; das Ergebnis wird mit ihr über {@link #onSuccess} bzw.
+     * {@link #onChallenge} gemeldet.
+     */
+    public record Permit(String domain, long startedAt) {
+    }
+
+    private final ConcurrentMap<String, DomainState> domains = new ConcurrentHashMap<>();
+    private final LongSupplier nanoTime;
+    private volatile MeterRegistry registry;
+
+    public DomainCircuitBreaker() {
+        this(System::nanoTime);
+    }
+
+    DomainCircuitBreaker(LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Prozessweiter Breaker, geteilt von allen Scrapern.
+     */
+    public static DomainCircuitBreaker shared() {
+        DomainCircuitBreaker breaker = shared;
+        if (breaker == null) {
+            synchronized (DomainCircuitBreaker.class) {
+                breaker = shared;
+                if (breaker == null) {
+                    breaker = new DomainCircuitBreaker();
+                    shared = breaker;
+                }
+            }
+        }
+        return breaker;
+    }
+
+    /**
+     * Erlaubnis für einen Netzwerk-Fetch auf die Domain oder {@code null}, solange der Kreis offen ist. Im halb
+     * offenen Zustand bekommt nur ein Aufrufer eine Erlaubnis (die Probe); er muss das Ergebnis melden.
+     */
+    public Permit tryAcquire(String domain) {
+        String key = normalize(domain);
+        long now = nanoTime.getAsLong();
+        DomainState state = domains.get(key);
+        return state == null || state.allow(now) ? new Permit(key, now) : null;
+    }
+
+    public void onChallenge(Permit permit) {
+        domainState(permit.domain()).trip(permit.domain(), permit.startedAt(), nanoTime.getAsLong());
+    }
+
+    public void onSuccess(Permit permit) {
+        DomainState state = domains.get(permit.domain());
+        if (state != null) {
+            state.close(permit.domain(), permit.startedAt());
+        }
+    }
+
+    public State state(String domain) {
+        DomainState state = domains.get(normalize(domain));
+        return state == null ? State.CLOSED : state.current(nanoTime.getAsLong());
+    }
+
+    /**
+     * Frühester Zeitpunkt, ab dem wieder ein Request (ggf. die Probe) durchgelassen wird.
+     */
+    public Instant retryAt(String domain) {
+        DomainState state = domains.get(normalize(domain));
+        if (state == null) return Instant.now();
+        long remaining = state.remainingNanos(nanoTime.getAsLong());
+        return Instant.now().plusNanos(Math.max(0, remaining));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        domains.forEach((domain, state) -> register(registry, domain, state));
+    }
+
+    private DomainState domainState(String key) {
+        return domains.computeIfAbsent(key, k -> {
+            DomainState state = new DomainState();
+            MeterRegistry meters = registry;
+            if (meters != null) register(meters, k, state);
+            return state;
+        });
+    }
+
+    private void register(MeterRegistry registry, String domain, DomainState state) {
+        Gauge.builder("scraping.circuit.state", state, s -> s.current(nanoTime.getAsLong()).ordinal())
+                .description("0 = closed, 1 = half open, 2 = open")
+                .tag("domain", domain)
+                .register(registry);
+        Gauge.builder("scraping.circuit.cooldown", state, s -> s.coolDownNanos / 1e9)
+                .baseUnit("seconds")
+                .tag("domain", domain)
+                .register(registry);
+        FunctionCounter.builder("scraping.circuit.trips", state, s -> s.trips)
+                .tag("domain", domain)
+                .register(registry);
+    }
+
+    private static String normalize(String domain) {
+        String d = domain.toLowerCase(Locale.ROOT);
+        return d.startsWith("www.") ? d.substring(4) : d;
+    }
+
+    private static final class DomainState {
+        private boolean open;
+        private long openUntil;
+        private volatile long coolDownNanos;
+        private long probeStartedAt;
+        private boolean probing;
+        private volatile long trips;
+
+        synchronized boolean allow(long now) {
+            if (!open) return true;
+            if (now - openUntil < 0) return false;
+            // halb offen: genau eine Probe, bis sie sich meldet oder verfällt
+            if (probing && now - probeStartedAt < PROBE_TIMEOUT.toNanos()) return false;
+            probing = true;
+            probeStartedAt = now;
+            return true;
+        }
+
+        synchronized void trip(String domain, long startedAt, long now) {
+            if (open && (now - openUntil < 0 || startedAt - openUntil < 0)) {
+                // weitere Challenges von Fetches, die vor dem Öffnen bzw. vor der Probe schon liefen
+                trips++;
+                return;
+            }
+            boolean wasOpen = open;
+            coolDownNanos = wasOpen
+                    ? Math.min(coolDownNanos * 2, MAX_COOL_DOWN.toNanos())
+                    : BASE_COOL_DOWN.toNanos();
+            open = true;
+            probing = false;
+            openUntil = now + coolDownNanos;
+            trips++;
+            ScrapingService.LOGGER.log(Level.WARNING, "Circuit for " + domain + (wasOpen ? " re-opened" : " opened")
+                    + " after challenge, cooling down for " + Duration.ofNanos(coolDownNanos).toSeconds() + "s");
+        }
+
+        /**
+         * Schließt nur auf das Ergebnis der Probe hin, also eines Requests, der erst nach Ablauf der Abkühlzeit
+         * gestartet ist. Frühere Erfolge (z. B. beim Öffnen noch laufende Fetches) ändern nichts.
+         */
+        synchronized void close(String domain, long startedAt) {
+            if (!open || !probing || startedAt - openUntil < 0) return;
+            open = false;
+            probing = false;
+            coolDownNanos = 0;
+            ScrapingService.LOGGER.log(Level.INFO, "Circuit for " + domain + " closed");
+        }
+
+        synchronized State current(long now) {
+            if (!open) return State.CLOSED;
+            return now - openUntil < 0 ? State.OPEN : State.HALF_OPEN;
+        }
+
+        synchronized long remainingNanos(long now) {
+            if (!open) return 0;
+            if (now - openUntil < 0) return openUntil - now;
+            return probing ? probeStartedAt + PROBE_TIMEOUT.toNanos() - now : 0;
+        }
+    }
+}
@@ -1,12 +1,27 @@
 package de.verdox.hwapi.util;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
 import java.net.URI;
+import java.net.http.HttpTimeoutException;
 import java.time.Duration;
-import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Semaphore;
+import java.util.Locale;
+import java.util.concurrent.*;
 
+/**
+ * Höflichkeits-Gate für ausgehende Requests.
+ * <p>
+ * Pro Host wird ein Leaky-Bucket (GCRA) geführt: jede Anfrage reserviert den nächsten freien
+ * Zeitpunkt, der Aufrufer bekommt ein {@link CompletableFuture}, das von einem Timer zu genau
+ * diesem Zeitpunkt abgeschlossen wird. Es wird nie mit {@code Thread.sleep} gewartet und
+ * Concurrency-Slots (global / pro Host) werden erst nach Erhalt des Permits belegt.
+ * <p>
+ * Backoff wird über HTTP-Statuscodes gesteuert (429, 503, ...), nicht über Exception-Texte:
+ * ein solcher Status schiebt den nächsten freien Zeitpunkt des Hosts exponentiell nach hinten,
+ * wovon alle Aufrufer für diesen Host betroffen sind.
+ */
 public class PoliteHttpGate {
     public static class Policy {
         public final int maxGlobalConcurrent;
@@ -14,84 +29,276 @@ public class PoliteHttpGate {
         public final Duration minDelayPerHost;
         public final int maxRetries;
         public final Duration baseBackoff;     // für 429/5xx
+        public final Duration maxBackoff;
 
         public Policy(int maxGlobalConcurrent, int maxPerHostConcurrent,
                       Duration minDelayPerHost, int maxRetries, Duration baseBackoff) {
+            this(maxGlobalConcurrent, maxPerHostConcurrent, minDelayPerHost, maxRetries, baseBackoff, Duration.ofMinutes(5));
+        }
+
+        public Policy(int maxGlobalConcurrent, int maxPerHostConcurrent,
+                      Duration minDelayPerHost, int maxRetries, Duration baseBackoff, Duration maxBackoff) {
             this.maxGlobalConcurrent = maxGlobalConcurrent;
             this.maxPerHostConcurrent = maxPerHostConcurrent;
             this.minDelayPerHost = minDelayPerHost;
             this.maxRetries = maxRetries;
             this.baseBackoff = baseBackoff;
+            this.maxBackoff = maxBackoff;
+        }
+
+        public static Policy defaults() {
+            return new Policy(16, 2, Duration.ofMillis(750), 3, Duration.ofSeconds(2));
         }
     }
 
+    /**
+     * Fehler mit HTTP-Status, damit das Gate anhand des Codes (und ggf. Retry-After) entscheiden kann.
+     */
+    public static class HttpStatusException extends IOException {
+        private final int statusCode;
+        private final Duration retryAfter;
+
+        public HttpStatusException(int statusCode, String url) {
+            this(statusCode, url, null);
+        }
+
+        public HttpStatusException(int statusCode, String url, Duration retryAfter) {
+            super("HTTP " + statusCode + " for " + url);
+            this.statusCode = statusCode;
+            this.retryAfter = retryAfter;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+    }
+
+    private static volatile PoliteHttpGate shared;
+
     private final Policy policy;
     private final Semaphore globalSem;
-    private final ConcurrentMap<String, Semaphore> hostSem = new ConcurrentHashMap<>();
-    private final ConcurrentMap<String, Long> hostNextAllowed = new ConcurrentHashMap<>();
-    private final Random rnd = new Random();
+    private final ConcurrentMap<String, HostState> hosts = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "polite-http-gate-timer");
+        t.setDaemon(true);
+        return t;
+    });
 
     public PoliteHttpGate(Policy policy) {
         this.policy = policy;
-        this.globalSem = new Semaphore(policy.maxGlobalConcurrent);
+        this.globalSem = new Semaphore(policy.maxGlobalConcurrent, true);
+    }
+
+    /**
+     * Prozessweites Gate, geteilt von allen Scrapern.
+     */
+    public static PoliteHttpGate shared() {
+        PoliteHttpGate gate = shared;
+        if (gate == null) {
+            synchronized (PoliteHttpGate.class) {
+                gate = shared;
+                if (gate == null) {
+                    gate = new PoliteHttpGate(Policy.defaults());
+                    shared = gate;
+                }
+            }
+        }
+        return gate;
     }
 
     public interface NetCall<T> { T call() throws Exception; }
 
+    /**
+     * Wie viele Anfragen pro Host gleichzeitig laufen dürfen; Aufrufer dimensionieren ihre Parallelität danach.
+     */
+    public int maxPerHostConcurrent() {
+        return policy.maxPerHostConcurrent;
+    }
+
+    /**
+     * Reserviert den nächsten freien Slot für den Host. Das Future wird zum reservierten Zeitpunkt
+     * vom Timer abgeschlossen, es blockiert keinen Thread.
+     */
+    public CompletableFuture<Void> acquire(String host) {
+        long delayNanos = state(normalizeHost(host)).reserve(System.nanoTime(), policy.minDelayPerHost.toNanos());
+        if (delayNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        timer.schedule(() -> permit.complete(null), delayNanos, TimeUnit.NANOSECONDS);
+        return permit;
+    }
+
+    /**
+     * Blockierende Variante für synchrone Aufrufer. Wartet auf das Permit ohne Slots zu halten
+     * (auf virtuellen Threads praktisch kostenlos) und wiederholt bei 429/5xx gemäß Policy.
+     */
     public <T> T run(URI uri, NetCall<T> call) throws Exception {
-        String host = uri.getHost();
-        hostSem.putIfAbsent(host, new Semaphore(policy.maxPerHostConcurrent));
-        Semaphore perHost = hostSem.get(host);
+        return run(hostOf(uri), call);
+    }
 
+    public <T> T run(String host, NetCall<T> call) throws Exception {
+        host = normalizeHost(host);
         int attempt = 0;
         while (true) {
+            awaitPermit(host);
+            try {
+                return executeOnce(host, call);
+            } catch (RetryableFailure failure) {
+                if (attempt >= policy.maxRetries) {
+                    throw failure.cause;
+                }
+                attempt++;
+            }
+        }
+    }
+
+    /**
+     * Rückmeldung für Aufrufer, die einen Status ohne Exception erhalten
+     * (z. B. Selenium-Challenge-Seiten ≙ 429).
+     */
+    public void report(String host, int statusCode) {
+        report(host, statusCode, null);
+    }
+
+    public void report(String host, int statusCode, Duration retryAfter) {
+        HostState state = state(normalizeHost(host));
+        if (isRetryableStatus(statusCode)) {
+            state.penalize(System.nanoTime(), backoffNanos(state.failures + 1, retryAfter));
+        } else if (statusCode < 400) {
+            state.onSuccess();
+        }
+    }
+
+    /* ----------------------- intern ----------------------- */
+
+    /**
+     * Erst der Host-Slot, dann der globale: wer auf einen ausgelasteten Host wartet, blockiert keinen globalen Slot,
+     * den Anfragen an andere Hosts bräuchten.
+     */
+    private <T> T executeOnce(String host, NetCall<T> call) throws Exception {
+        HostState state = state(host);
+        state.concurrency.acquire();
+        try {
             globalSem.acquire();
-            perHost.acquire();
             try {
-                waitIfNeeded(host);
-                T res = call.call();
-                markUsed(host);
-                return res;
+                T result = call.call();
+                state.onSuccess();
+                return result;
             } catch (Exception e) {
-                markUsed(host);
-                if (shouldRetry(e) && attempt < policy.maxRetries) {
-                    attempt++;
-                    sleepBackoff(attempt);
-                    // retry
-                } else {
-                    throw e;
+                Integer status = statusOf(e);
+                if (status != null && isRetryableStatus(status) || status == null && isTransientIoFailure(e)) {
+                    Duration retryAfter = e instanceof HttpStatusException hse ? hse.getRetryAfter() : null;
+                    state.penalize(System.nanoTime(), backoffNanos(state.failures + 1, retryAfter));
+                    throw new RetryableFailure(e);
                 }
+                throw e;
             } finally {
-                perHost.release();
                 globalSem.release();
             }
+        } finally {
+            state.concurrency.release();
         }
     }
 
-    private void waitIfNeeded(String host) {
-        long now = System.currentTimeMillis();
-        long next = hostNextAllowed.getOrDefault(host, 0L);
-        long sleep = next - now;
-        if (sleep > 0) {
-            try { Thread.sleep(sleep); } catch (InterruptedException ignored) {}
+    private void awaitPermit(String host) throws InterruptedIOException {
+        try {
+            acquire(host).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a permit for " + host);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
         }
     }
 
-    private void markUsed(String host) {
-        long next = System.currentTimeMillis() + policy.minDelayPerHost.toMillis();
-        hostNextAllowed.put(host, next);
+    private long backoffNanos(int failures, Duration retryAfter) {
+        if (retryAfter != null && !retryAfter.isNegative()) {
+            return Math.min(retryAfter.toNanos(), policy.maxBackoff.toNanos());
+        }
+        long base = policy.baseBackoff.toNanos();
+        long expo = base << Math.min(16, Math.max(0, failures - 1));
+        long jitter = ThreadLocalRandom.current().nextLong(Math.max(1, expo / 4));
+        return Math.min(expo + jitter, policy.maxBackoff.toNanos());
     }
 
-    private boolean shouldRetry(Exception e) {
-        String msg = e.getMessage();
-        if (msg == null) return false;
-        return msg.contains("429") || msg.contains("503") || msg.contains("timed out") || msg.contains("refused");
+    private HostState state(String host) {
+        return hosts.computeIfAbsent(host, h -> new HostState(policy.maxPerHostConcurrent));
     }
 
-    private void sleepBackoff(int attempt) {
-        long base = policy.baseBackoff.toMillis();
-        long expo = (long) (base * Math.pow(2, attempt - 1));
-        long jitter = rnd.nextInt((int) Math.min(500, expo / 4));
-        try { Thread.sleep(expo + jitter); } catch (InterruptedException ignored) {}
+    private static Integer statusOf(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpStatusException hse) return hse.getStatusCode();
+            if (t instanceof org.jsoup.HttpStatusException hse) return hse.getStatusCode();
+        }
+        return null;
+    }
+
+    private static boolean isRetryableStatus(int status) {
+        return status == 408 || status == 425 || status == 429 || status == 502 || status == 503 || status == 504;
+    }
+
+    private static boolean isTransientIoFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SocketTimeoutException || t instanceof ConnectException || t instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String hostOf(URI uri) {
+        return normalizeHost(uri.getHost() != null ? uri.getHost() : uri.toString());
+    }
+
+    private static String normalizeHost(String host) {
+        return host.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Zustand pro Host: theoretischer nächster freier Zeitpunkt (GCRA) + Fehlerserie.
+     */
+    private static final class HostState {
+        private final Semaphore concurrency;
+        private long nextFreeNanos = Long.MIN_VALUE;
+        private volatile int failures;
+
+        private HostState(int maxConcurrent) {
+            this.concurrency = new Semaphore(maxConcurrent, true);
+        }
+
+        /**
+         * @return Wartezeit bis zum reservierten Slot (≤ 0 = sofort)
+         */
+        private synchronized long reserve(long now, long interval) {
+            long start = nextFreeNanos == Long.MIN_VALUE ? now : Math.max(now, nextFreeNanos);
+            nextFreeNanos = start + interval;
+            return start - now;
+        }
+
+        private synchronized void penalize(long now, long backoffNanos) {
+            failures++;
+            long until = now + backoffNanos;
+            if (nextFreeNanos == Long.MIN_VALUE || nextFreeNanos < until) {
+                nextFreeNanos = until;
+            }
+        }
+
+        private void onSuccess() {
+            failures = 0;
+        }
+    }
+
+    private static final class RetryableFailure extends Exception {
+        private final Exception cause;
+
+        private RetryableFailure(Exception cause) {
+            super(cause);
+            this.cause = cause;
+        }
     }
 }
@@ -31,6 +31,26 @@ public class SeleniumUtil {
         } catch (Exception ignore) {}
     }
 
+    /**
+     * Prüft, ob die Session des Treibers noch lebt.
+     * Andere Fehler als NoSuchSession werden bewusst nicht als "tot" interpretiert.
+     */
+    public static boolean isSessionAlive(WebDriver d) {
+        if (d == null) return false;
+        try {
+            if (d instanceof RemoteWebDriver rwd) {
+                return rwd.getSessionId() != null;
+            }
+            // Fallback-Heuristik: ein harmloser Befehl
+            d.getTitle(); // kann NoSuchSessionException werfen
+            return true;
+        } catch (org.openqa.selenium.NoSuchSessionException ex) {
+            return false;
+        } catch (Throwable t) {
+            return true;
+        }
+    }
+
     public synchronized static WebDriver create(String id, ChromeOptions capabilities) throws MalformedURLException {
         String pathAsString = System.getenv("SELENIUM_PROFILE");
         if (pathAsString == null) {
@@ -0,0 +1,86 @@
+-- Alle EANs und MPNs eines Specs in einer Spalte, damit die Suche nach beliebigen Bezeichnern ein einziger
+-- GIN-Index-Zugriff ist statt Joins über hardware_spec_eans/hardware_spec_mpns.
+-- Gepflegt wird die Spalte ausschließlich von den Triggern unten, die Entity bildet sie nicht ab.
+ALTER TABLE hardware_spec
+    ADD COLUMN identifiers TEXT[] NOT NULL DEFAULT '{}';
+
+CREATE OR REPLACE FUNCTION hardware_spec_refresh_identifiers(spec_ids BIGINT[]) RETURNS void
+    LANGUAGE sql AS
+$$
+UPDATE hardware_spec h
+SET identifiers = COALESCE((SELECT array_agg(DISTINCT i.identifier ORDER BY i.identifier)
+                            FROM (SELECT e.ean::text AS identifier
+                                  FROM hardware_spec_eans e
+                                  WHERE e.spec_id = h.id
+                                  UNION ALL
+                                  SELECT m.mpn::text
+                                  FROM hardware_spec_mpns m
+                                  WHERE m.spec_id = h.id
+                                    AND m.mpn IS NOT NULL) i), '{}')
+WHERE h.id = ANY (spec_ids);
+$$;
+
+-- Trigger pro Statement mit Übergangstabellen: ein Batch-Insert von Hibernate aktualisiert jeden Spec einmal
+CREATE OR REPLACE FUNCTION hardware_spec_identifiers_inserted() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    PERFORM hardware_spec_refresh_identifiers(ARRAY(SELECT DISTINCT spec_id FROM new_rows));
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION hardware_spec_identifiers_deleted() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    PERFORM hardware_spec_refresh_identifiers(ARRAY(SELECT DISTINCT spec_id FROM old_rows));
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION hardware_spec_identifiers_updated() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    PERFORM hardware_spec_refresh_identifiers(ARRAY(SELECT spec_id FROM old_rows
+                                                    UNION
+                                                    SELECT spec_id FROM new_rows));
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_hardware_spec_eans_insert
+    AFTER INSERT ON hardware_spec_eans
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION hardware_spec_identifiers_inserted();
+
+CREATE TRIGGER trg_hardware_spec_eans_delete
+    AFTER DELETE ON hardware_spec_eans
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION hardware_spec_identifiers_deleted();
+
+CREATE TRIGGER trg_hardware_spec_eans_update
+    AFTER UPDATE ON hardware_spec_eans
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION hardware_spec_identifiers_updated();
+
+CREATE TRIGGER trg_hardware_spec_mpns_insert
+    AFTER INSERT ON hardware_spec_mpns
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION hardware_spec_identifiers_inserted();
+
+CREATE TRIGGER trg_hardware_spec_mpns_delete
+    AFTER DELETE ON hardware_spec_mpns
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION hardware_spec_identifiers_deleted();
+
+CREATE TRIGGER trg_hardware_spec_mpns_update
+    AFTER UPDATE ON hardware_spec_mpns
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION hardware_spec_identifiers_updated();
+
+-- Bestand einmalig übernehmen
+SELECT hardware_spec_refresh_identifiers(ARRAY(SELECT id FROM hardware_spec));
+
+CREATE INDEX idx_hardware_spec_identifiers ON hardware_spec USING GIN (identifiers);
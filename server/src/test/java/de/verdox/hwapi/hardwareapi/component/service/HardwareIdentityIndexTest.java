@@ -0,0 +1,112 @@
+package de.verdox.hwapi.hardwareapi.component.service;
+
+import de.verdox.hwapi.model.CPU;
+import de.verdox.hwapi.model.GPU;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HardwareIdentityIndexTest {
+
+    @Test
+    void backwardShiftDeleteKeepsProbeChainsReachable() {
+        HardwareIdentityIndex.LongLongMap map = new HardwareIdentityIndex.LongLongMap();
+        // Schlüssel mit demselben Heimatslot, dazu einer, der in die Kette hinein sondiert
+        List<Long> chain = collidingKeys(3, 1023);
+        long neighbour = collidingKeys(1, 0).getFirst();
+        for (int i = 0; i < chain.size(); i++) map.putIfAbsent(chain.get(i), value(i + 1));
+        map.putIfAbsent(neighbour, value(9));
+
+        map.removeIfValueId(chain.getFirst(), 1);
+
+        assertEquals(HardwareIdentityIndex.LongLongMap.MISSING, map.get(chain.getFirst()));
+        assertEquals(value(2), map.get(chain.get(1)));
+        assertEquals(value(3), map.get(chain.get(2)));
+        assertEquals(value(9), map.get(neighbour));
+
+        map.removeIfValueId(chain.get(1), 2);
+        map.removeIfValueId(chain.get(2), 2); // andere ID: bleibt
+        assertEquals(value(3), map.get(chain.get(2)));
+        assertEquals(value(9), map.get(neighbour));
+    }
+
+    @Test
+    void growKeepsAllEntriesAndFirstValue() {
+        HardwareIdentityIndex.LongLongMap map = new HardwareIdentityIndex.LongLongMap();
+        for (long i = 1; i <= 20_000; i++) map.putIfAbsent(HardwareIdentityIndex.eanKey(Long.toString(i)), value(i));
+        for (long i = 1; i <= 20_000; i++) map.putIfAbsent(HardwareIdentityIndex.eanKey(Long.toString(i)), value(i + 1));
+        for (long i = 1; i <= 20_000; i++) {
+            assertEquals(value(i), map.get(HardwareIdentityIndex.eanKey(Long.toString(i))));
+        }
+    }
+
+    @Test
+    void removeAllWithValueIdRemovesOnlyThatId() {
+        HardwareIdentityIndex.LongLongMap map = new HardwareIdentityIndex.LongLongMap();
+        List<Long> keys = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            long key = HardwareIdentityIndex.hashKey("MPN-" + i);
+            keys.add(key);
+            map.putIfAbsent(key, value(i % 3 == 0 ? 42 : i + 100));
+        }
+        map.removeAllWithValueId(42);
+        for (int i = 0; i < keys.size(); i++) {
+            long expected = i % 3 == 0 ? HardwareIdentityIndex.LongLongMap.MISSING : value(i + 100);
+            assertEquals(expected, map.get(keys.get(i)), "key " + i);
+        }
+    }
+
+    @Test
+    void keysAreNormalizedLikeTheRepository() {
+        assertEquals(HardwareIdentityIndex.keyOfMpn("ab-12.x"), HardwareIdentityIndex.keyOfMpn(" AB12X "));
+        assertEquals(HardwareIdentityIndex.keyOfEan("4006381 333931"), HardwareIdentityIndex.keyOfEan("4006381333931"));
+        assertNotEquals(HardwareIdentityIndex.keyOfEan("04006381333931"), HardwareIdentityIndex.keyOfEan("4006381333931"));
+    }
+
+    @Test
+    void findsSpecsByNormalizedIdentifiersAndEvictsStaleHits() {
+        HardwareIdentityIndex index = new HardwareIdentityIndex(null, null);
+        CPU cpu = new CPU();
+        cpu.setId(7);
+        cpu.addEAN("4006381333931");
+        cpu.addMPN("BX8071513600K");
+        GPU gpu = new GPU();
+        gpu.setId(8);
+        gpu.addMPN("RTX-4070");
+        index.indexAfterCommit(List.of(cpu, gpu));
+
+        assertEquals(new HardwareIdentityIndex.Hit(7, CPU.class), index.findByEan("4006381333931").orElseThrow());
+        assertEquals(new HardwareIdentityIndex.Hit(7, CPU.class), index.findByMpn("bx8071513600k").orElseThrow());
+        assertEquals(new HardwareIdentityIndex.Hit(8, GPU.class), index.findByEanOrMpn("rtx 4070").orElseThrow());
+
+        // Schreibweise des Specs: Eintrag bleibt
+        index.evictIfStale(gpu, "rtx 4070");
+        assertTrue(index.findByMpn("RTX4070").isPresent());
+        // Spec trägt den Bezeichner nicht mehr
+        gpu.getMPNs().clear();
+        index.evictIfStale(gpu, "rtx 4070");
+        assertTrue(index.findByMpn("RTX4070").isEmpty());
+    }
+
+    private static long value(long id) {
+        return id << 8;
+    }
+
+    /**
+     * Schlüssel, deren Heimatslot in der Anfangskapazität (1024) {@code home} ist (gleiche Streuung wie
+     * {@code LongLongMap.mix}); mit {@code home = 1023} läuft die Sondierkette über das Tabellenende.
+     */
+    private static List<Long> collidingKeys(int count, int home) {
+        List<Long> keys = new ArrayList<>();
+        for (long candidate = 1; keys.size() < count; candidate++) {
+            long h = candidate * 0x9e3779b97f4a7c15L;
+            if (((int) (h ^ (h >>> 32)) & 1023) == home) keys.add(candidate);
+        }
+        return keys;
+    }
+}
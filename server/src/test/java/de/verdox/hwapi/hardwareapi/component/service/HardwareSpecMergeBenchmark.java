@@ -0,0 +1,108 @@
+package de.verdox.hwapi.hardwareapi.component.service;
+
+import de.verdox.hwapi.model.HardwareSpec;
+import de.verdox.hwapi.model.HardwareTypeUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+
+/**
+ * Misst {@link HardwareSpecService#mergeAll} je Hardware-Typ gegen die konfigurierte Datenbank, so wie ihn
+ * {@code /specs/{type}/bulk} aufruft.
+ * <p>
+ * Kein regulärer Test (Surefire nimmt ihn nur explizit mit), Aufruf z. B.:
+ * {@code mvn -pl server -am test -Dtest=HardwareSpecMergeBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * -Dspring.profiles.active=dev -Dbenchmark.merge.size=10000}. Pro Batch (Pipeline-Größe) wird in einer Transaktion erst die
+ * Hälfte der Specs als Bestand angelegt und der Persistenzkontext geleert; gemessen wird dann {@code mergeAll} über
+ * den ganzen Batch, also je zur Hälfte Treffer auf den Bestand und neue Specs. Danach wird zurückgerollt.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class HardwareSpecMergeBenchmark {
+    @Autowired
+    private HardwareSpecService hardwareSpecService;
+    @Autowired
+    private HardwareSpecBulkWriter bulkWriter;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    // kein Scraping-Lauf beim Start des Kontexts
+    @MockitoBean
+    private ScrapingService scrapingService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${benchmark.merge.size:10000}")
+    private int size;
+
+    @Value("${scraping.pipeline.batch-size:200}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void run() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        for (Class<? extends HardwareSpec<?>> type : HardwareTypeUtil.getSupportedSpecTypes()) {
+            try {
+                measure(type, 2 * batchSize);
+                long nanos = measure(type, size);
+                double seconds = nanos / 1e9;
+                ScrapingService.LOGGER.log(Level.INFO, String.format(Locale.ROOT, "Merge benchmark %-12s %,8d specs in %7.2f s (%,.0f specs/s)",
+                        type.getSimpleName(), size, seconds, size / seconds));
+            } catch (RuntimeException e) {
+                ScrapingService.LOGGER.log(Level.WARNING, "Merge benchmark for " + type.getSimpleName() + " failed", e);
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private long measure(Class<? extends HardwareSpec<?>> type, int count) {
+        Class rawType = type;
+        long nanos = 0;
+        for (int offset = 0; offset < count; offset += batchSize) {
+            int batch = Math.min(batchSize, count - offset);
+            List<HardwareSpec<?>> existing = synthetic(type, offset, batch / 2, "");
+            List<HardwareSpec<?>> upload = synthetic(type, offset, batch, " (Upload)");
+            long[] elapsed = new long[1];
+            transactionTemplate.executeWithoutResult(status -> {
+                bulkWriter.write(existing);
+                entityManager.clear();
+                long start = System.nanoTime();
+                hardwareSpecService.mergeAll(rawType, (List) upload);
+                elapsed[0] = System.nanoTime() - start;
+                status.setRollbackOnly();
+            });
+            nanos += elapsed[0];
+        }
+        return nanos;
+    }
+
+    private static List<HardwareSpec<?>> synthetic(Class<? extends HardwareSpec<?>> type, int offset, int count, String modelSuffix) {
+        List<HardwareSpec<?>> specs = new ArrayList<>(count);
+        for (int i = offset; i < offset + count; i++) {
+            HardwareSpec<?> spec;
+            try {
+                spec = type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot instantiate " + type.getSimpleName(), e);
+            }
+            spec.setManufacturer("benchmark");
+            spec.setModel(type.getSimpleName() + " Benchmark " + i + modelSuffix);
+            spec.addMPN("BENCH-" + type.getSimpleName().toUpperCase(Locale.ROOT) + "-" + i);
+            spec.addEAN(String.format(Locale.ROOT, "%013d", 2_000_000_000_000L + i));
+            specs.add(spec);
+        }
+        return specs;
+    }
+}
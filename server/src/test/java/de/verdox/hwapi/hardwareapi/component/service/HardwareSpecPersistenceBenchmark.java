@@ -0,0 +1,111 @@
+package de.verdox.hwapi.hardwareapi.component.service;
+
+import de.verdox.hwapi.component.repository.CPURepository;
+import de.verdox.hwapi.component.repository.HardwareSpecRepository;
+import de.verdox.hwapi.model.CPU;
+import de.verdox.hwapi.model.HardwareTypes;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Vergleicht den früheren Repository-Schreibpfad ({@code saveAll} plus typspezifisches {@code save} je Spec)
+ * mit {@link HardwareSpecBulkWriter} gegen die konfigurierte Datenbank.
+ * <p>
+ * Kein regulärer Test (Surefire nimmt ihn nur explizit mit), Aufruf z. B.:
+ * {@code mvn -pl server -am test -Dtest=HardwareSpecPersistenceBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * -Dspring.profiles.active=dev -Dbenchmark.persistence.sizes=10000,100000}. Für jede Größe aus {@code benchmark.persistence.sizes}
+ * werden synthetische CPUs in Batches der Pipeline-Größe geschrieben, jeder Batch in einer eigenen Transaktion, die
+ * nach dem Flush zurückgerollt wird: gemessen werden ORM und Statements, in der Datenbank bleibt nichts zurück
+ * (nur die Sequenz rückt weiter).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class HardwareSpecPersistenceBenchmark {
+    @Autowired
+    private HardwareSpecRepository baseRepo;
+    @Autowired
+    private CPURepository cpuRepository;
+    @Autowired
+    private HardwareSpecBulkWriter bulkWriter;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    // kein Scraping-Lauf beim Start des Kontexts
+    @MockitoBean
+    private ScrapingService scrapingService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${benchmark.persistence.sizes:10000,100000}")
+    private List<Integer> sizes;
+
+    @Value("${scraping.pipeline.batch-size:200}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void run() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // einmal klein aufwärmen (Hibernate-Statements, JIT, Verbindungspool)
+        measure("warmup repositories", 2 * batchSize, this::legacyWrite);
+        measure("warmup bulk", 2 * batchSize, bulkWriter::write);
+        for (int size : sizes) {
+            measure("repositories", size, this::legacyWrite);
+            measure("bulk", size, bulkWriter::write);
+        }
+    }
+
+    private void legacyWrite(List<CPU> batch) {
+        baseRepo.saveAll(batch);
+        for (CPU cpu : batch) {
+            cpuRepository.save(cpu);
+        }
+        entityManager.flush();
+    }
+
+    private void measure(String name, int size, Consumer<List<CPU>> writer) {
+        long nanos = 0;
+        for (int offset = 0; offset < size; offset += batchSize) {
+            List<CPU> batch = syntheticCpus(offset, Math.min(batchSize, size - offset));
+            long start = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status -> {
+                writer.accept(batch);
+                status.setRollbackOnly();
+            });
+            nanos += System.nanoTime() - start;
+        }
+        double seconds = nanos / 1e9;
+        ScrapingService.LOGGER.log(Level.INFO, String.format(Locale.ROOT, "Persistence benchmark %-20s %,8d specs in %7.2f s (%,.0f specs/s)",
+                name, size, seconds, size / seconds));
+    }
+
+    private static List<CPU> syntheticCpus(int offset, int count) {
+        List<CPU> cpus = new ArrayList<>(count);
+        for (int i = offset; i < offset + count; i++) {
+            CPU cpu = new CPU();
+            cpu.setManufacturer("benchmark");
+            cpu.setModel("Benchmark CPU " + i);
+            cpu.addMPN("BENCH-" + i);
+            cpu.addEAN(String.format(Locale.ROOT, "%013d", 2_000_000_000_000L + i));
+            cpu.setSocket(HardwareTypes.CpuSocket.values()[i % HardwareTypes.CpuSocket.values().length]);
+            cpu.setCores(4 + i % 28);
+            cpu.setThreads(2 * (4 + i % 28));
+            cpu.setBaseClockMhz(3000 + i % 1000);
+            cpus.add(cpu);
+        }
+        return cpus;
+    }
+}
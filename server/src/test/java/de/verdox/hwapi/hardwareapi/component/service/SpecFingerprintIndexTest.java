@@ -0,0 +1,54 @@
+package de.verdox.hwapi.hardwareapi.component.service;
+
+import de.verdox.hwapi.io.api.ComponentWebScraper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SpecFingerprintIndexTest {
+    private static final String URL = "https://shop.example/p/1";
+
+    @Test
+    void ignoresOrderAndWhitespace() {
+        Map<String, List<String>> first = new LinkedHashMap<>();
+        first.put("Speicher", List.of("12 GB", "GDDR6X"));
+        first.put("Chip", List.of("AD104"));
+        Map<String, List<String>> second = new LinkedHashMap<>();
+        second.put(" Chip", List.of("AD104 "));
+        second.put("Speicher", List.of("GDDR6X", "12  GB\n"));
+
+        assertEquals(fingerprint(first), fingerprint(second));
+    }
+
+    @Test
+    void changesWithValues() {
+        assertNotEquals(fingerprint(Map.of("Speicher", List.of("12 GB"))), fingerprint(Map.of("Speicher", List.of("16 GB"))));
+        // Groß-/Kleinschreibung bleibt erhalten, normalisiert wird nur Whitespace
+        assertNotEquals(fingerprint(Map.of("Modell", List.of("RTX 4070 Ti"))), fingerprint(Map.of("Modell", List.of("rtx 4070 ti"))));
+        // Wert darf nicht in den nächsten Key „rutschen“
+        assertNotEquals(fingerprint(Map.of("a", List.of("b"), "c", List.of())), fingerprint(Map.of("a", List.of(), "bc", List.of())));
+    }
+
+    @Test
+    void toleratesNullKeysAndValues() {
+        Map<String, List<String>> withNulls = new LinkedHashMap<>();
+        withNulls.put(null, List.of("ignored"));
+        withNulls.put("Chip", Arrays.asList("AD104", null));
+        withNulls.put("Leer", null);
+        Map<String, List<String>> clean = new LinkedHashMap<>();
+        clean.put("Chip", List.of("AD104"));
+        clean.put("Leer", List.of());
+
+        assertEquals(fingerprint(clean), fingerprint(withNulls));
+    }
+
+    private static String fingerprint(Map<String, List<String>> specs) {
+        return SpecFingerprintIndex.fingerprint(new ComponentWebScraper.ScrapedSpecs(URL, specs));
+    }
+}
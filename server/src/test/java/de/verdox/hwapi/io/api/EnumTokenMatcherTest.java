@@ -0,0 +1,63 @@
+package de.verdox.hwapi.io.api;
+
+import de.verdox.hwapi.model.HardwareTypes;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static de.verdox.hwapi.io.api.SpecValueParsingBenchmark.KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * {@link EnumTokenMatcher} muss dieselbe Konstante wählen wie das frühere {@code (?i)(^|\W)NAME(\W|$)} je Konstante,
+ * geprüft nach absteigender Namenslänge.
+ */
+class EnumTokenMatcherTest {
+
+    enum Socket {
+        UNKNOWN, AM4, AM5, LGA1700, LGA_1700, DDR5, DDR5_ECC
+    }
+
+    @Test
+    void matchesRegexVariantForAllHardwareEnums() {
+        Random random = new Random(42);
+        for (Class<?> type : HardwareTypes.class.getDeclaredClasses()) {
+            if (type.isEnum()) {
+                assertSameAsRegex(type.asSubclass(Enum.class), random);
+            }
+        }
+    }
+
+    @Test
+    void matchesRegexVariantForEdgeCases() {
+        List<String> values = List.of("", "am4", "AM4/AM5", "xAM4", "AM4x", "AM4_", "_AM4", "LGA_1700", "lga1700 Sockel",
+                "DDR5_ECC", "DDR5-ECC", "DDR5 ECC", "ÄM4", "ÄAM4", "AM4Ä", "am5\nam4", "\tAM5\t");
+        for (String value : values) {
+            Map<String, List<String>> map = Map.of(KEY, List.of(value));
+            assertEquals(SpecValueParsingBenchmark.legacyExtractFirstEnumPatternMatching(Socket.class, KEY, map),
+                    ComponentWebScraper.extractFirstEnumPatternMatching(Socket.class, KEY, map), value);
+        }
+    }
+
+    @Test
+    void prefersLongestNameThenDeclarationOrder() {
+        EnumTokenMatcher<Socket> matcher = EnumTokenMatcher.of(Socket.class);
+        assertEquals(Socket.DDR5_ECC, matcher.find("DDR5, DDR5_ECC"));
+        assertEquals(Socket.AM4, matcher.find("AM5 oder AM4"));
+        assertEquals(Socket.AM5, matcher.find(List.of("Sockel", "am5")));
+        assertNull(matcher.find("XAM4"));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void assertSameAsRegex(Class<? extends Enum> type, Random random) {
+        Class<Enum> enumClass = (Class<Enum>) type;
+        List<Map<String, List<String>>> inputs = SpecValueParsingBenchmark.enumValues(enumClass, random, 500);
+        for (Map<String, List<String>> input : inputs) {
+            assertEquals(SpecValueParsingBenchmark.legacyExtractFirstEnumPatternMatching(enumClass, KEY, input),
+                    ComponentWebScraper.extractFirstEnumPatternMatching(enumClass, KEY, input), type.getSimpleName() + ": " + input);
+        }
+    }
+}
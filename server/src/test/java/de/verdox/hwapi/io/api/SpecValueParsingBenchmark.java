@@ -0,0 +1,182 @@
+package de.verdox.hwapi.io.api;
+
+import de.verdox.hwapi.model.HardwareTypes;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Vergleicht die Spec-Parser aus {@link ComponentWebScraper} mit ihren früheren Regex-Varianten.
+ * <p>
+ * Aufruf: {@code java ... SpecValueParsingBenchmark}. Für jede Enum aus {@link HardwareTypes} werden Spec-Werte
+ * erzeugt, wie sie in Shops vorkommen (Name in Fließtext, klein geschrieben, als Teil eines längeren Worts, ohne
+ * Treffer), dazu Zahlenwerte mit Einheiten. Vor der Messung wird geprüft, dass alte und neue Variante für alle
+ * Eingaben dasselbe liefern. Gemessen werden Zeit und allokierte Bytes pro Aufruf nach Aufwärmen.
+ */
+public final class SpecValueParsingBenchmark {
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 20;
+    static final String KEY = "spec";
+
+    private SpecValueParsingBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        List<String> numbers = numericValues(random, 2_000);
+        verifyNumbers(numbers);
+
+        System.out.println("Numeric values: " + numbers.size());
+        measure("parseFirstInt (regex)", numbers.size(), () -> sum(numbers, v -> legacyParseFirstInt(KEY, Map.of(KEY, List.of(v)))));
+        measure("parseFirstInt (scanner)", numbers.size(), () -> sum(numbers, v -> ComponentWebScraper.parseFirstInt(KEY, Map.of(KEY, List.of(v)))));
+        measure("parseFirstDouble (regex)", numbers.size(), () -> sum(numbers, v -> (long) legacyParseFirstDouble(KEY, Map.of(KEY, List.of(v)))));
+        measure("parseFirstDouble (scanner)", numbers.size(), () -> sum(numbers, v -> (long) ComponentWebScraper.parseFirstDouble(KEY, Map.of(KEY, List.of(v)))));
+
+        for (Class<?> type : HardwareTypes.class.getDeclaredClasses()) {
+            if (type.isEnum()) {
+                benchmarkEnum(type.asSubclass(Enum.class), random);
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void benchmarkEnum(Class<? extends Enum> type, Random random) {
+        Class<Enum> enumClass = (Class<Enum>) type;
+        List<Map<String, List<String>>> inputs = enumValues(enumClass, random, 500);
+        for (Map<String, List<String>> input : inputs) {
+            Enum expected = legacyExtractFirstEnumPatternMatching(enumClass, KEY, input);
+            Enum actual = ComponentWebScraper.extractFirstEnumPatternMatching(enumClass, KEY, input);
+            if (expected != actual) {
+                throw new IllegalStateException(type.getSimpleName() + ": " + input + " -> " + actual + ", expected " + expected);
+            }
+        }
+        System.out.println(type.getSimpleName() + " (" + enumClass.getEnumConstants().length + " constants):");
+        measure("  pattern matching (regex)", inputs.size(), () -> {
+            long hits = 0;
+            for (Map<String, List<String>> input : inputs) hits += legacyExtractFirstEnumPatternMatching(enumClass, KEY, input).ordinal();
+            return hits;
+        });
+        measure("  pattern matching (automaton)", inputs.size(), () -> {
+            long hits = 0;
+            for (Map<String, List<String>> input : inputs) hits += ComponentWebScraper.extractFirstEnumPatternMatching(enumClass, KEY, input).ordinal();
+            return hits;
+        });
+    }
+
+    private static void measure(String name, int operations, java.util.function.LongSupplier run) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += run.getAsLong();
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += run.getAsLong();
+        }
+        double nsPerOp = (System.nanoTime() - start) / (double) ITERATIONS / operations;
+        double bytesPerOp = (allocatedBytes() - allocatedBefore) / (double) ITERATIONS / operations;
+        System.out.printf(Locale.ROOT, "  %-32s %10.1f ns/op %10.1f B/op (sink %d)%n", name, nsPerOp, bytesPerOp, sink & 0xff);
+    }
+
+    private static long sum(List<String> values, ToLongFunction<String> parser) {
+        long sum = 0;
+        for (String value : values) sum += parser.applyAsLong(value);
+        return sum;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    /* ----------------------- Eingaben ----------------------- */
+
+    static List<String> numericValues(Random random, int count) {
+        String[] templates = {"%d MHz", "%d,%d cm", "%d.%d GB", "ca. %d W", "-%d °C", "%d x %d", "%d.%d.%d", "%d mm (%d)", "bis zu %d,%d GHz", "%d"};
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String template = templates[random.nextInt(templates.length)];
+            Object[] parts = new Object[3];
+            for (int p = 0; p < parts.length; p++) parts[p] = random.nextInt(random.nextBoolean() ? 100 : 100_000);
+            values.add(String.format(Locale.ROOT, template, parts));
+        }
+        values.addAll(List.of("", "-", ".", "-.5", "0.000000000000000000000001", "12345678901234567890123", "9223372036854775807", "9223372036854775808", "-9223372036854775808", "1-2", "007"));
+        return values;
+    }
+
+    static <E extends Enum<E>> List<Map<String, List<String>>> enumValues(Class<E> enumClass, Random random, int count) {
+        E[] constants = enumClass.getEnumConstants();
+        List<Map<String, List<String>>> inputs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = constants[random.nextInt(constants.length)].name();
+            String value = switch (random.nextInt(5)) {
+                case 0 -> "Typ: " + name + " (Retail)";
+                case 1 -> name.toLowerCase(Locale.ROOT) + ", 2 Stück";
+                case 2 -> "X" + name + "-Serie";
+                case 3 -> "keine Angabe";
+                default -> name + "/" + constants[random.nextInt(constants.length)].name();
+            };
+            inputs.add(random.nextInt(4) == 0 ? Map.of(KEY, List.of(value, "Herstellerangabe")) : Map.of(KEY, List.of(value)));
+        }
+        return inputs;
+    }
+
+    private static void verifyNumbers(List<String> values) {
+        for (String value : values) {
+            Map<String, List<String>> map = Map.of(KEY, List.of(value));
+            if (legacyParseFirstInt(KEY, map) != ComponentWebScraper.parseFirstInt(KEY, map)) {
+                throw new IllegalStateException("parseFirstInt differs for '" + value + "'");
+            }
+            if (Double.compare(legacyParseFirstDouble(KEY, map), ComponentWebScraper.parseFirstDouble(KEY, map)) != 0) {
+                throw new IllegalStateException("parseFirstDouble differs for '" + value + "'");
+            }
+        }
+    }
+
+    /* ----------------------- frühere Implementierungen ----------------------- */
+
+    static long legacyParseFirstInt(String key, Map<String, List<String>> map) {
+        List<String> values = map.getOrDefault(key, new ArrayList<>());
+        if (values.isEmpty()) return 0;
+        String cleaned = values.getFirst().replaceAll("[^0-9-]", "");
+        if (cleaned.isBlank()) return 0;
+        try {
+            return Long.parseLong(cleaned);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static double legacyParseFirstDouble(String key, Map<String, List<String>> map) {
+        List<String> values = map.getOrDefault(key, new ArrayList<>());
+        if (values.isEmpty()) return 0;
+        String cleaned = values.getFirst().replaceAll("[^0-9,.-]", "").replace(",", ".");
+        if (cleaned.isBlank()) return 0;
+        try {
+            return Double.parseDouble(cleaned);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static <E extends Enum<E>> E legacyExtractFirstEnumPatternMatching(Class<E> enumClass, String key, Map<String, List<String>> map) {
+        String text = String.join(" ", map.getOrDefault(key, List.of()));
+        List<E> enumsBySpecificity = Arrays.stream(enumClass.getEnumConstants())
+                .sorted(Comparator.comparingInt((E e) -> e.name().length()).reversed())
+                .toList();
+        for (E e : enumsBySpecificity) {
+            Pattern p = Pattern.compile("(?i)(^|\\W)" + Pattern.quote(e.name()) + "(\\W|$)");
+            if (p.matcher(text).find()) {
+                return e;
+            }
+        }
+        return enumClass.getEnumConstants()[0];
+    }
+}
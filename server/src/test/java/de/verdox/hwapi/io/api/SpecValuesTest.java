@@ -0,0 +1,55 @@
+package de.verdox.hwapi.io.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static de.verdox.hwapi.io.api.SpecValueParsingBenchmark.KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Die Scanner in {@link SpecValues} müssen dasselbe liefern wie die früheren Regex-Varianten
+ * ({@code replaceAll("[^0-9-]", "")} bzw. {@code replaceAll("[^0-9,.-]", "")} plus {@code Long/Double.parse...}).
+ */
+class SpecValuesTest {
+
+    @Test
+    void parseFirstIntMatchesRegexVariant() {
+        for (String value : inputs()) {
+            Map<String, List<String>> map = Map.of(KEY, List.of(value));
+            assertEquals(SpecValueParsingBenchmark.legacyParseFirstInt(KEY, map), ComponentWebScraper.parseFirstInt(KEY, map), value);
+        }
+    }
+
+    @Test
+    void parseFirstDoubleMatchesRegexVariant() {
+        for (String value : inputs()) {
+            Map<String, List<String>> map = Map.of(KEY, List.of(value));
+            assertEquals(SpecValueParsingBenchmark.legacyParseFirstDouble(KEY, map), ComponentWebScraper.parseFirstDouble(KEY, map), value);
+        }
+    }
+
+    @Test
+    void missingOrEmptyValuesAreZero() {
+        assertEquals(0, ComponentWebScraper.parseFirstInt(KEY, Map.of()));
+        assertEquals(0, ComponentWebScraper.parseFirstDouble(KEY, Map.of(KEY, List.of())));
+        assertEquals(0, SpecValues.parseLong("k. A."));
+        assertEquals(0d, SpecValues.parseDouble("1,5,0"));
+    }
+
+    @Test
+    void parsesTypicalShopValues() {
+        assertEquals(2610, SpecValues.parseLong("2610 MHz"));
+        assertEquals(-40, SpecValues.parseLong("-40 °C"));
+        assertEquals(26.7, SpecValues.parseDouble("26,7 cm"));
+        assertEquals(5.2, SpecValues.parseDouble("bis zu 5.2 GHz"));
+    }
+
+    private static List<String> inputs() {
+        List<String> values = SpecValueParsingBenchmark.numericValues(new Random(42), 5_000);
+        values.addAll(List.of("1e5", "+3", "--1", "1.", ",5", "0,1,2", "12.34.56", "١٢٣", "9007199254740993", "1.7976931348623157E308"));
+        return values;
+    }
+}
@@ -0,0 +1,67 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedScrapingCacheTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void garbageCollectionRemovesOnlyUnreferencedBlobs() throws IOException {
+        CompressedScrapingCache cache = new CompressedScrapingCache(root);
+        PageKey changed = new PageKey("shop", "cpu", "https://shop.example/p/1");
+        PageKey deleted = new PageKey("shop", "cpu", "https://shop.example/p/2");
+        PageKey shared = new PageKey("shop", "gpu", "https://shop.example/p/3");
+
+        cache.saveHtml(changed, "<p>99,00 €</p>");
+        cache.saveHtml(changed, "<p>89,00 €</p>");
+        cache.saveHtml(deleted, "<p>same</p>");
+        cache.saveHtml(shared, "<p>same</p>");
+        cache.delete(deleted);
+        assertEquals(3, blobCount());
+
+        assertEquals(1, cache.collectGarbage());
+        assertEquals(2, blobCount());
+        assertEquals("<p>89,00 €</p>", cache.loadHtml(changed).orElseThrow());
+        assertEquals("<p>same</p>", cache.loadHtml(shared).orElseThrow());
+    }
+
+    @Test
+    void garbageCollectionSeesIndexesNotLoadedInThisInstance() throws IOException {
+        PageKey key = new PageKey("shop", "cpu", "https://shop.example/p/1");
+        new CompressedScrapingCache(root).saveHtml(key, "<p>persisted</p>");
+
+        CompressedScrapingCache restarted = new CompressedScrapingCache(root);
+        assertEquals(0, restarted.collectGarbage());
+        assertTrue(restarted.loadHtml(key).isPresent());
+    }
+
+    @Test
+    void indexIsCompactedWhileRunning() throws IOException {
+        CompressedScrapingCache cache = new CompressedScrapingCache(root);
+        PageKey key = new PageKey("shop", "cpu", "https://shop.example/p/1");
+        cache.saveHtml(key, "<p>page</p>");
+        for (int i = 0; i < 500; i++) {
+            cache.touch(key, Instant.ofEpochSecond(i));
+        }
+        Path index = root.resolve("index").resolve("shop").resolve("cpu.ndjson");
+        assertTrue(Files.readAllLines(index).size() <= 2 + 64);
+        assertEquals(Instant.ofEpochSecond(499), new CompressedScrapingCache(root).loadMeta(key).orElseThrow().fetchedAt());
+    }
+
+    private long blobCount() throws IOException {
+        try (Stream<Path> files = Files.walk(root.resolve("blobs"))) {
+            return files.filter(p -> p.toString().endsWith(".html.gz")).count();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Vergleicht {@link HtmlSlimmer#slimHtml} (DOM) mit {@link StreamingHtmlSlimmer} (ein Durchlauf).
+ * <p>
+ * Aufruf: {@code java ... HtmlSlimmerBenchmark [seite.html ...]}. Ohne Argumente wird eine synthetische
+ * Shop-Seite von ca. 2 MB erzeugt (Skripte, Styles, SVG-Icons, Produktkacheln mit Tracking-Links).
+ * Gemessen werden Zeit und allokierte Bytes pro Seite; beide Varianten werden vorher aufgewärmt.
+ */
+public final class HtmlSlimmerBenchmark {
+    private static final int WARMUP = 30;
+    private static final int ITERATIONS = 30;
+    private static final String BASE_URL = "https://shop.example.com/kategorie/grafikkarten";
+
+    private HtmlSlimmerBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> pages = new ArrayList<>();
+        for (String arg : args) {
+            pages.add(Files.readString(Path.of(arg), StandardCharsets.UTF_8));
+        }
+        if (pages.isEmpty()) {
+            pages.add(syntheticShopPage(2 * 1024 * 1024));
+        }
+
+        HtmlSlimmer.Options options = new HtmlSlimmer.Options();
+        StreamingHtmlSlimmer streaming = new StreamingHtmlSlimmer(options);
+        for (String page : pages) {
+            System.out.printf(Locale.ROOT, "Page: %.2f MB%n", page.length() / 1024d / 1024d);
+            measure("dom", page, () -> HtmlSlimmer.slimHtml(page, BASE_URL, options));
+            measure("streaming", page, () -> streaming.slim(page, BASE_URL));
+        }
+    }
+
+    private static void measure(String name, String page, java.util.function.Supplier<String> slimmer) {
+        int outputLength = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            outputLength = slimmer.get().length();
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            outputLength += slimmer.get().length() & 1;
+        }
+        double ms = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+        double allocatedMb = (allocatedBytes() - allocatedBefore) / 1024d / 1024d / ITERATIONS;
+        double mbPerSecond = page.length() / 1024d / 1024d / (ms / 1000d);
+        System.out.printf(Locale.ROOT, "  %-10s %8.2f ms/page %8.1f MB/s %8.2f MB allocated/page, output %d chars%n",
+                name, ms, mbPerSecond, allocatedMb, outputLength);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    static String syntheticShopPage(int targetSize) {
+        StringBuilder sb = new StringBuilder(targetSize + 4096);
+        sb.append("<!DOCTYPE html><html lang=\"de\"><head><meta charset=\"utf-8\"><title>Grafikkarten</title>\n");
+        sb.append("<link rel=\"preconnect\" href=\"https://cdn.example.com\"><link rel=\"stylesheet\" href=\"/css/app.css?v=123\">\n");
+        sb.append("<style>").append(".tile{display:flex;margin:0 4px}\n".repeat(200)).append("</style>\n");
+        sb.append("<script>").append("window.dataLayer=window.dataLayer||[];dataLayer.push({'event':'view','id':'<div>'});\n".repeat(300)).append("</script>\n");
+        sb.append("</head><body class=\"catalog\">\n<!-- header -->\n<div class=\"header\" style=\"color:red\" onclick=\"track()\">");
+        sb.append("<svg viewBox=\"0 0 24 24\"><path d=\"M12 2L2 7l10 5 10-5-10-5z\"/></svg></div>\n<ul class=\"product-list\">\n");
+        int i = 0;
+        while (sb.length() < targetSize) {
+            sb.append("  <li class=\"product-tile\" data-sku=\"").append(100000 + i).append("\" data-position=\"").append(i).append("\" style=\"order:").append(i).append("\">\n");
+            sb.append("    <a href=\"/p/geforce-rtx-").append(i).append("?utm_source=listing&amp;utm_medium=tile&amp;ref=").append(i).append("\" class=\"product-link\" onmouseover=\"prefetch(this)\">\n");
+            sb.append("      <img src=\"/img/").append(i).append(".webp\" srcset=\"/img/").append(i).append("@2x.webp 2x, /img/").append(i).append("@3x.webp 3x\" alt=\"GeForce RTX ").append(i).append("\" loading=\"lazy\" width=\"240\" height=\"240\">\n");
+            sb.append("      <span class=\"product-name\">GeForce RTX ").append(i).append("   Gaming   OC  12GB GDDR6X</span>\n");
+            sb.append("      <svg class=\"icon\"><use href=\"#star\"></use></svg><svg class=\"icon\"><use href=\"#star\"></use></svg>\n");
+            sb.append("    </a>\n    <div class=\"ad\" data-ad=\"slot-").append(i).append("\"><iframe src=\"https://ads.example.com/").append(i).append("\"></iframe></div>\n");
+            sb.append("    <ul class=\"specs\"><li>Chip: AD10").append(i % 10).append("</li><li>Speicher: 12 GB</li><li>EAN: 4711").append(100000 + i).append("</li></ul>\n");
+            sb.append("    <script type=\"application/ld+json\">{\"@type\":\"Product\",\"sku\":\"").append(100000 + i).append("\"}</script>\n");
+            sb.append("  </li>\n");
+            i++;
+        }
+        sb.append("</ul>\n<noscript><img src=\"/pixel.gif\"></noscript></body></html>");
+        return sb.toString();
+    }
+}
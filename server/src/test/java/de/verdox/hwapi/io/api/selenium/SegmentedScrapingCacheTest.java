@@ -0,0 +1,141 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentedScrapingCacheTest {
+    private static final String DOMAIN = "segmented-cache-test.invalid";
+
+    @TempDir
+    Path root;
+
+    @Test
+    void readsBackPagesFromTheActiveSegment() {
+        try (SegmentedScrapingCache cache = new SegmentedScrapingCache(root)) {
+            PageKey key = key(1);
+            cache.saveHtml(key, "<p>first</p>");
+            assertEquals("<p>first</p>", cache.loadHtml(key).orElseThrow());
+            cache.saveHtml(key, "<p>second</p>");
+            assertEquals("<p>second</p>", cache.loadHtml(key).orElseThrow());
+            cache.saveHtml(key(2), "<p>other</p>");
+            assertEquals("<p>second</p>", cache.loadHtml(key).orElseThrow());
+        }
+    }
+
+    @Test
+    void listsKeysFromActiveAndSealedSegments() {
+        try (SegmentedScrapingCache cache = new SegmentedScrapingCache(root, 256)) {
+            String filler = "x".repeat(64);
+            for (int i = 0; i < 6; i++) {
+                cache.saveHtml(key(i), "<p>" + i + filler + "</p>");
+            }
+            cache.saveHtml(new PageKey(DOMAIN, "gpu", "https://" + DOMAIN + "/g/1"), "<p>gpu</p>");
+            cache.delete(key(2));
+            assertEquals(Set.of(key(0), key(1), key(3), key(4), key(5)), cache.listKeys(DOMAIN, "cpu").collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    void rebuiltIndexKeepsDeletedPagesDeleted() throws IOException {
+        try (SegmentedScrapingCache cache = new SegmentedScrapingCache(root)) {
+            cache.saveHtml(key(1), "<p>kept</p>");
+            cache.saveHtml(key(2), "<p>deleted</p>");
+            cache.saveHtml(key(3), "<p>deleted, then saved again</p>");
+            cache.delete(key(2));
+            cache.delete(key(3));
+            cache.saveHtml(key(3), "<p>saved again</p>");
+        }
+        Files.delete(root.resolve("index.idx"));
+
+        try (SegmentedScrapingCache cache = new SegmentedScrapingCache(root)) {
+            assertEquals("<p>kept</p>", cache.loadHtml(key(1)).orElseThrow());
+            assertTrue(cache.loadHtml(key(2)).isEmpty());
+            assertEquals("<p>saved again</p>", cache.loadHtml(key(3)).orElseThrow());
+        }
+    }
+
+    @Test
+    void rebuildTruncatesTornRecord() throws IOException {
+        try (SegmentedScrapingCache cache = new SegmentedScrapingCache(root)) {
+            cache.saveHtml(key(1), "<p>one</p>");
+            cache.saveHtml(key(2), "<p>two</p>");
+        }
+        Path segment = root.resolve("segment-000000.dat");
+        long complete = Files.size(segment);
+        Files.write(segment, new byte[]{0x48, 0x57, 0x41}, StandardOpenOption.APPEND);
+        Files.delete(root.resolve("index.idx"));
+
+        try (SegmentedScrapingCache cache = new SegmentedScrapingCache(root)) {
+            assertEquals("<p>one</p>", cache.loadHtml(key(1)).orElseThrow());
+            assertEquals("<p>two</p>", cache.loadHtml(key(2)).orElseThrow());
+        }
+        assertEquals(complete, Files.size(segment));
+    }
+
+    @Test
+    void compactionKeepsLivePagesAndDeletes() throws IOException {
+        String filler = "x".repeat(64);
+        try (SegmentedScrapingCache cache = new SegmentedScrapingCache(root, 256)) {
+            for (int i = 0; i < 8; i++) {
+                cache.saveHtml(key(i), "<p>" + i + filler + "</p>");
+            }
+            for (int i = 0; i < 8; i++) {
+                if (i % 4 != 0) cache.delete(key(i));
+            }
+            long before = segmentCount();
+            cache.compact();
+            assertTrue(segmentCount() < before);
+            assertEquals("<p>0" + filler + "</p>", cache.loadHtml(key(0)).orElseThrow());
+            assertEquals("<p>4" + filler + "</p>", cache.loadHtml(key(4)).orElseThrow());
+            assertTrue(cache.loadHtml(key(1)).isEmpty());
+        }
+        Files.delete(root.resolve("index.idx"));
+
+        try (SegmentedScrapingCache cache = new SegmentedScrapingCache(root, 256)) {
+            for (int i = 0; i < 8; i++) {
+                assertEquals(i % 4 == 0, cache.loadHtml(key(i)).isPresent(), "page " + i);
+            }
+        }
+    }
+
+    @Test
+    void indexGrowsBeyondInitialCapacity() {
+        // über 0,7 × 16384 Einträge: die mmap-Tabelle muss mindestens einmal umhashen
+        int count = 12_000;
+        try (SegmentedScrapingCache cache = new SegmentedScrapingCache(root)) {
+            for (int i = 0; i < count; i++) {
+                cache.saveHtml(key(i), "<p>" + i + "</p>");
+            }
+            for (int i = 0; i < count; i += 2) {
+                cache.delete(key(i));
+            }
+        }
+        try (SegmentedScrapingCache cache = new SegmentedScrapingCache(root)) {
+            for (int i = 0; i < count; i++) {
+                assertEquals(i % 2 == 1, cache.loadHtml(key(i)).isPresent(), "page " + i);
+            }
+            assertEquals("<p>11999</p>", cache.loadHtml(key(11_999)).orElseThrow());
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(root)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+
+    private static PageKey key(int i) {
+        return new PageKey(DOMAIN, "cpu", "https://" + DOMAIN + "/p/" + i);
+    }
+}
@@ -0,0 +1,126 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Beide Slimmer müssen für die Scraper dasselbe Dokument liefern. Verglichen wird deshalb nicht der Text der Ausgabe,
+ * sondern das daraus geparste Dokument (Elemente, Attribute, normalisierter Text).
+ */
+class StreamingHtmlSlimmerTest {
+    private static final String BASE_URL = "https://shop.example.com/kategorie/grafikkarten";
+
+    @Test
+    void syntheticShopPageMatchesDomSlimmer() {
+        assertEquivalent(HtmlSlimmerBenchmark.syntheticShopPage(64 * 1024));
+    }
+
+    @Test
+    void productPageMatchesDomSlimmer() {
+        assertEquivalent("""
+                <!DOCTYPE html>
+                <html><head>
+                  <title>RTX 4070 &amp; Co</title>
+                  <meta http-equiv="refresh" content="30">
+                  <link rel="preload" href="/font.woff2">
+                  <link rel="canonical" href="/p/4070">
+                  <style>.a { color: red }</style>
+                </head>
+                <body onload="init()">
+                  <!-- tracking -->
+                  <h1 class="title" style="font-weight:bold">GeForce   RTX
+                    4070</h1>
+                  <table class="specs">
+                    <tr><th>Speicher</th><td>12&nbsp;GB GDDR6X</td></tr>
+                    <tr><th>EAN</th><td>4711000000001</td></tr>
+                  </table>
+                  <a href="../p/4070-ti?utm_campaign=x&amp;color=black#reviews">Ti</a>
+                  <img src="/img/a.webp" alt="Bild &quot;1&quot;" data-lazy="1">
+                  <div class="ads"><a href="https://ads.example.com">Werbung</a></div>
+                  <pre>  Zeile 1
+                    Zeile 2</pre>
+                  <noscript><img src="/pixel.gif"></noscript>
+                  <template><p>nie</p></template>
+                  <svg><path d="M0 0"/></svg>
+                </body></html>
+                """);
+    }
+
+    @Test
+    void removesTrackingParametersAndResolvesUrls() {
+        String slim = StreamingHtmlSlimmer.DEFAULT.slim(
+                "<a href=\"/p/1?utm_source=mail&amp;id=7&amp;gclid=abc\">x</a><script>alert(1)</script>", BASE_URL);
+        Element link = Jsoup.parse(slim).selectFirst("a");
+        assertEquals("https://shop.example.com/p/1?id=7", link.attr("href"));
+        assertFalse(slim.contains("alert"));
+        assertTrue(Jsoup.parse(slim).select("script").isEmpty());
+    }
+
+    @Test
+    void invalidBaseUrlKeepsRelativeLinks() {
+        for (String base : new String[]{"not a url", "https://shop.example.com/a b", "mailto"}) {
+            String slim = StreamingHtmlSlimmer.DEFAULT.slim("<a href=\"/p/1\">x</a>", base);
+            assertEquals("/p/1", Jsoup.parse(slim).selectFirst("a").attr("href"), base);
+        }
+    }
+
+    private static void assertEquivalent(String html) {
+        HtmlSlimmer.Options options = new HtmlSlimmer.Options();
+        String dom = HtmlSlimmer.slimHtml(html, BASE_URL, options);
+        String streaming = new StreamingHtmlSlimmer(options).slim(html, BASE_URL);
+        List<String> expected = canonical(dom), actual = canonical(streaming);
+        for (int i = 0; i < Math.min(expected.size(), actual.size()); i++) {
+            assertEquals(expected.get(i), actual.get(i), "node " + i);
+        }
+        assertEquals(expected.size(), actual.size());
+    }
+
+    private static List<String> canonical(String html) {
+        List<String> out = new ArrayList<>();
+        canonical(Jsoup.parse(html, BASE_URL).body(), out);
+        return out;
+    }
+
+    private static void canonical(Node node, List<String> out) {
+        if (node instanceof TextNode text) {
+            String normalized = text.getWholeText().replaceAll("\\s+", " ").strip();
+            if (!normalized.isEmpty()) out.add("#" + normalized);
+        } else if (node instanceof Element element) {
+            List<String> attributes = new ArrayList<>();
+            for (Attribute attribute : element.attributes()) {
+                String value = attribute.getKey().equals("srcset") ? resolveSrcset(attribute.getValue()) : attribute.getValue();
+                attributes.add(attribute.getKey() + "=" + value);
+            }
+            attributes.sort(null);
+            out.add("<" + element.normalName() + " " + attributes);
+            for (Node child : element.childNodes()) {
+                canonical(child, out);
+            }
+            out.add("</" + element.normalName());
+        }
+    }
+
+    /**
+     * {@link HtmlSlimmer} lässt srcset-URLs relativ, der Streaming-Slimmer löst sie auf (siehe dessen Javadoc).
+     */
+    private static String resolveSrcset(String srcset) {
+        List<String> parts = new ArrayList<>();
+        for (String part : srcset.split(",")) {
+            String[] bits = part.strip().split("\\s+", 2);
+            parts.add(URI.create(BASE_URL).resolve(bits[0]) + (bits.length > 1 ? " " + bits[1] : ""));
+        }
+        return String.join(", ", parts);
+    }
+}
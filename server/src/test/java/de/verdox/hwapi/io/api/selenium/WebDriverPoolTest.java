@@ -0,0 +1,78 @@
+package de.verdox.hwapi.io.api.selenium;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebDriver;
+
+import java.net.MalformedURLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class WebDriverPoolTest {
+    private final List<WebDriver> created = new ArrayList<>();
+
+    private WebDriverPool pool(int size, int pagesPerSession) {
+        return new WebDriverPool(size, pagesPerSession, Duration.ofMillis(200), sessionId -> {
+            WebDriver driver = mock(WebDriver.class);
+            created.add(driver);
+            return driver;
+        });
+    }
+
+    @Test
+    void reusesSessionUntilPageLimit() throws MalformedURLException {
+        WebDriverPool pool = pool(1, 2);
+        WebDriver first;
+        try (WebDriverPool.Lease lease = pool.borrow()) {
+            first = lease.driver();
+            lease.pageLoaded();
+        }
+        try (WebDriverPool.Lease lease = pool.borrow()) {
+            assertSame(first, lease.driver());
+            lease.pageLoaded();
+        }
+        try (WebDriverPool.Lease lease = pool.borrow()) {
+            assertNotSame(first, lease.driver());
+        }
+        verify(first).quit();
+    }
+
+    @Test
+    void closeKeepsLeasedSessionsRunningAndDiscardsThemOnReturn() throws MalformedURLException {
+        WebDriverPool pool = pool(2, 100);
+        WebDriverPool.Lease leased = pool.borrow();
+        try (WebDriverPool.Lease idle = pool.borrow()) {
+            idle.driver();
+        }
+        WebDriver leasedDriver = leased.driver();
+        WebDriver idleDriver = created.get(1);
+
+        pool.close();
+        verify(idleDriver).quit();
+        verify(leasedDriver, never()).quit();
+
+        leased.close();
+        verify(leasedDriver).quit();
+        assertThrows(IllegalStateException.class, pool::borrow);
+        assertEquals(2, created.size());
+    }
+
+    @Test
+    void borrowTimesOutWhenAllSlotsAreLeased() throws MalformedURLException {
+        WebDriverPool pool = pool(1, 100);
+        try (WebDriverPool.Lease ignored = pool.borrow()) {
+            assertThrows(IllegalStateException.class, pool::borrow);
+        }
+        try (WebDriverPool.Lease lease = pool.borrow()) {
+            assertSame(created.getFirst(), lease.driver());
+        }
+    }
+}
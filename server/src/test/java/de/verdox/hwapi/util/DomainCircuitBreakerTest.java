@@ -0,0 +1,67 @@
+package de.verdox.hwapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DomainCircuitBreakerTest {
+    private static final String DOMAIN = "shop.example";
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final DomainCircuitBreaker breaker = new DomainCircuitBreaker(clock::get);
+
+    @Test
+    void probeReopensWithDoubledCoolDownAndClosesOnSuccess() {
+        DomainCircuitBreaker.Permit inFlight = breaker.tryAcquire(DOMAIN);
+        DomainCircuitBreaker.Permit tripping = breaker.tryAcquire(DOMAIN);
+        assertEquals(DomainCircuitBreaker.State.CLOSED, breaker.state(DOMAIN));
+
+        breaker.onChallenge(tripping);
+        assertEquals(DomainCircuitBreaker.State.OPEN, breaker.state(DOMAIN));
+        assertNull(breaker.tryAcquire(DOMAIN));
+        // lief schon vor dem Öffnen: schließt den Kreis nicht
+        breaker.onSuccess(inFlight);
+        assertEquals(DomainCircuitBreaker.State.OPEN, breaker.state(DOMAIN));
+
+        advance(DomainCircuitBreaker.BASE_COOL_DOWN);
+        assertEquals(DomainCircuitBreaker.State.HALF_OPEN, breaker.state(DOMAIN));
+        DomainCircuitBreaker.Permit probe = breaker.tryAcquire(DOMAIN);
+        assertNotNull(probe);
+        assertNull(breaker.tryAcquire(DOMAIN));
+        breaker.onChallenge(probe);
+
+        assertEquals(DomainCircuitBreaker.State.OPEN, breaker.state(DOMAIN));
+        advance(DomainCircuitBreaker.BASE_COOL_DOWN);
+        assertEquals(DomainCircuitBreaker.State.OPEN, breaker.state(DOMAIN), "cool-down must have doubled");
+        advance(DomainCircuitBreaker.BASE_COOL_DOWN);
+        assertEquals(DomainCircuitBreaker.State.HALF_OPEN, breaker.state(DOMAIN));
+
+        DomainCircuitBreaker.Permit secondProbe = breaker.tryAcquire(DOMAIN);
+        assertNotNull(secondProbe);
+        breaker.onSuccess(secondProbe);
+        assertEquals(DomainCircuitBreaker.State.CLOSED, breaker.state(DOMAIN));
+        assertNotNull(breaker.tryAcquire(DOMAIN));
+    }
+
+    @Test
+    void staleChallengeDuringProbeDoesNotExtendCoolDown() {
+        DomainCircuitBreaker.Permit stale = breaker.tryAcquire(DOMAIN);
+        breaker.onChallenge(breaker.tryAcquire(DOMAIN));
+        advance(DomainCircuitBreaker.BASE_COOL_DOWN);
+        DomainCircuitBreaker.Permit probe = breaker.tryAcquire(DOMAIN);
+
+        breaker.onChallenge(stale);
+        assertEquals(DomainCircuitBreaker.State.HALF_OPEN, breaker.state(DOMAIN));
+        breaker.onSuccess(probe);
+        assertEquals(DomainCircuitBreaker.State.CLOSED, breaker.state(DOMAIN));
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
@@ -46,7 +46,7 @@ public interface CPUCoolerRepository extends HardwareSpecificRepo<CPUCooler> {
             select distinct h
             from #{#entityName} h
             join h.MPNs e
-            where e in :eans
+            where e in :mpns
             """)
     List<CPUCooler> findAllByMPNNormIn(@Param("mpns") Set<String> mpns);
 
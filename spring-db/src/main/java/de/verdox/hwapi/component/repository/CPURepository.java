@@ -45,7 +45,7 @@ public interface CPURepository extends HardwareSpecificRepo<CPU> {
             select distinct h
             from #{#entityName} h
             join h.MPNs e
-            where e in :eans
+            where e in :mpns
             """)
     List<CPU> findAllByMPNNormIn(@Param("mpns") Set<String> mpns);
 }
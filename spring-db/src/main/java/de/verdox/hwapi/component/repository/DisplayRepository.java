@@ -46,7 +46,7 @@ public interface DisplayRepository extends HardwareSpecificRepo<Display> {
             select distinct h
             from #{#entityName} h
             join h.MPNs e
-            where e in :eans
+            where e in :mpns
             """)
     List<Display> findAllByMPNNormIn(@Param("mpns") Set<String> mpns);
 }
@@ -53,7 +53,7 @@ public interface GPUChipRepository extends HardwareSpecificRepo<GPUChip> {
             select distinct h
             from #{#entityName} h
             join h.MPNs e
-            where e in :eans
+            where e in :mpns
             """)
     List<GPUChip> findAllByMPNNormIn(@Param("mpns") Set<String> mpns);
 }
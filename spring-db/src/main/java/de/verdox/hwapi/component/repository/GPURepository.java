@@ -46,7 +46,7 @@ public interface GPURepository extends HardwareSpecificRepo<GPU> {
             select distinct h
             from #{#entityName} h
             join h.MPNs e
-            where e in :eans
+            where e in :mpns
             """)
     List<GPU> findAllByMPNNormIn(@Param("mpns") Set<String> mpns);
 
@@ -2,6 +2,8 @@ package de.verdox.hwapi.component.repository;
 
 import de.verdox.hwapi.model.HardwareSpec;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -12,6 +14,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface HardwareSpecRepository extends JpaRepository<HardwareSpec<?>, Long>, JpaSpecificationExecutor<HardwareSpec<?>> {
@@ -25,6 +28,17 @@ public interface HardwareSpecRepository extends JpaRepository<HardwareSpec<?>, L
         String getMPN();
     }
 
+    /**
+     * Eine Zeile je Bezeichner (EAN oder MPN) eines Specs.
+     */
+    interface IdentityView {
+        long getId();
+
+        Class<?> getSpecType();
+
+        String getIdentifier();
+    }
+
     Optional<HardwareSpec<?>> findByModelIgnoreCase(String model);
 
     boolean existsByModelIgnoreCase(String model);
@@ -96,6 +110,27 @@ public interface HardwareSpecRepository extends JpaRepository<HardwareSpec<?>, L
     })
     List<HardwareSpec<?>> findAllByEanOrMpn(@Param("inputs") Collection<String> inputs);
 
+    /**
+     * IDs aller Specs, die einen der Bezeichner als EAN oder MPN führen; ein Zugriff auf den GIN-Index über
+     * {@code hardware_spec.identifiers}. Nur unter PostgreSQL mit Migration V6, {@code inputs} darf nicht leer sein.
+     */
+    @Query(value = """
+            select h.id
+            from hardware_spec h
+            where h.identifiers && cast(array[:inputs] as text[])
+            """, nativeQuery = true)
+    List<Long> findIdsByAnyIdentifier(@Param("inputs") Collection<String> inputs);
+
+    @Query("""
+            select h
+            from HardwareSpec h
+            where h.id in :ids
+            """)
+    @EntityGraph(attributePaths = {
+            "EANs", "MPNs"
+    })
+    List<HardwareSpec<?>> findAllWithIdentifiersByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("""
             select distinct h.manufacturer
             from HardwareSpec h
@@ -129,6 +164,26 @@ public interface HardwareSpecRepository extends JpaRepository<HardwareSpec<?>, L
             """)
     Page<HardwareLightView> findAllLight(Pageable pageable);
 
+    @Query("""
+               select h.id as id,
+                      type(h) as specType,
+                      e as identifier
+               from HardwareSpec h
+               join h.EANs e
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<IdentityView> streamEanIdentities();
+
+    @Query("""
+               select h.id as id,
+                      type(h) as specType,
+                      m as identifier
+               from HardwareSpec h
+               join h.MPNs m
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<IdentityView> streamMpnIdentities();
+
     Optional<HardwareSpec<?>> findById(long id);
 
     // Für Locking bei Merge:
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.*;
+import java.util.function.Function;
 
 public interface HardwareSpecificRepo<HARDWARE extends HardwareSpec<HARDWARE>> extends JpaRepository<HARDWARE, Long>, JpaSpecificationExecutor<HARDWARE> {
     static String normalizeEAN_MPN(String s) {
@@ -31,21 +32,35 @@ public interface HardwareSpecificRepo<HARDWARE extends HardwareSpec<HARDWARE>> e
             """)
     List<HARDWARE> findAllByIdInOrderByIdAsc(@Param("ids") List<Long> ids);
 
+    /**
+     * Bezeichner (EAN oder MPN) → ID eines Specs, ohne die Entity selbst zu laden.
+     */
+    interface IdentifierIdView {
+        String getIdentifier();
+
+        long getId();
+    }
+
+    /**
+     * Maximale Anzahl Werte pro {@code in}-Liste; PostgreSQL erlaubt höchstens 32767 Bind-Parameter je Statement.
+     */
+    int IN_CHUNK = 1000;
+
     @Query("""
-            select e, h
-            from CPU h
+            select e as identifier, h.id as id
+            from #{#entityName} h
             join h.EANs e
             where e in :eans
             """)
-    List<Object[]> findPairsByEans(@Param("eans") Set<String> eans);
+    List<IdentifierIdView> findPairsByEans(@Param("eans") Collection<String> eans);
 
     @Query("""
-            select e, h
-            from CPU h
-            join h.MPNs e
-            where e in :mpns
+            select m as identifier, h.id as id
+            from #{#entityName} h
+            join h.MPNs m
+            where m in :mpns
             """)
-    List<Object[]> findPairsByMpns(@Param("eans") Set<String> mpns);
+    List<IdentifierIdView> findPairsByMpns(@Param("mpns") Collection<String> mpns);
 
     @Query("""
             select h
@@ -63,7 +78,7 @@ public interface HardwareSpecificRepo<HARDWARE extends HardwareSpec<HARDWARE>> e
 
     @Query("""
             select distinct h
-            from CPU h
+            from #{#entityName} h
             join h.EANs e
             where e in :eans
             """)
@@ -73,31 +88,33 @@ public interface HardwareSpecificRepo<HARDWARE extends HardwareSpec<HARDWARE>> e
             select distinct h
             from #{#entityName} h
             join h.MPNs e
-            where e in :eans
+            where e in :mpns
             """)
     List<HARDWARE> findAllByMPNNormIn(@Param("mpns") Set<String> mpns);
 
-    // Bequeme Map<EAN, Entity>
-    default Map<String, HARDWARE> findAllByEanIn(Set<String> eans) {
-        if (eans == null || eans.isEmpty()) return Map.of();
-        var rows = findPairsByEans(eans);
-        Map<String, HARDWARE> out = new LinkedHashMap<>(rows.size());
-        for (Object[] r : rows) {
-            String ean = (String) r[0];
-            @SuppressWarnings("unchecked") HARDWARE hw = (HARDWARE) r[1];
-            out.put(ean, hw);
-        }
-        return out;
+    /**
+     * EAN → ID für alle bekannten EANs, in Blöcken von {@link #IN_CHUNK}.
+     */
+    default Map<String, Long> findIdsByEanIn(Set<String> eans) {
+        return collectIds(eans, this::findPairsByEans);
+    }
+
+    /**
+     * MPN → ID für alle bekannten MPNs, in Blöcken von {@link #IN_CHUNK}.
+     */
+    default Map<String, Long> findIdsByMpnIn(Set<String> mpns) {
+        return collectIds(mpns, this::findPairsByMpns);
     }
 
-    default Map<String, HARDWARE> findAllByMPNInNormalized(Set<String> mpns) {
-        if (mpns == null || mpns.isEmpty()) return Map.of();
-        var rows = findPairsByMpns(mpns);
-        Map<String, HARDWARE> out = new LinkedHashMap<>(rows.size());
-        for (Object[] r : rows) {
-            String mpn = (String) r[0];
-            @SuppressWarnings("unchecked") HARDWARE hw = (HARDWARE) r[1];
-            out.put(mpn, hw);
+    private static Map<String, Long> collectIds(Set<String> identifiers, Function<List<String>, List<IdentifierIdView>> query) {
+        if (identifiers == null || identifiers.isEmpty()) return Map.of();
+        List<String> all = new ArrayList<>(identifiers);
+        Map<String, Long> out = new HashMap<>(all.size() * 2);
+        for (int from = 0; from < all.size(); from += IN_CHUNK) {
+            for (IdentifierIdView row : query.apply(all.subList(from, Math.min(from + IN_CHUNK, all.size())))) {
+                // wie bisher gewinnt bei mehrfach vergebenen Bezeichnern der erste Treffer
+                out.putIfAbsent(row.getIdentifier(), row.getId());
+            }
         }
         return out;
     }
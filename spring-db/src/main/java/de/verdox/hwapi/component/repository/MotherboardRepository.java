@@ -47,7 +47,7 @@ public interface MotherboardRepository extends HardwareSpecificRepo<Motherboard>
             select distinct h
             from #{#entityName} h
             join h.MPNs e
-            where e in :eans
+            where e in :mpns
             """)
     List<Motherboard> findAllByMPNNormIn(@Param("mpns") Set<String> mpns);
 
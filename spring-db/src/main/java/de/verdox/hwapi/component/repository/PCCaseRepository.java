@@ -45,7 +45,7 @@ public interface PCCaseRepository extends HardwareSpecificRepo<PCCase> {
             select distinct h
             from #{#entityName} h
             join h.MPNs e
-            where e in :eans
+            where e in :mpns
             """)
     List<PCCase> findAllByMPNNormIn(@Param("mpns") Set<String> mpns);
 }
@@ -47,7 +47,7 @@ public interface PSURepository extends HardwareSpecificRepo<PSU> {
             select distinct h
             from #{#entityName} h
             join h.MPNs e
-            where e in :eans
+            where e in :mpns
             """)
     List<PSU> findAllByMPNNormIn(@Param("mpns") Set<String> mpns);
 
@@ -47,7 +47,7 @@ public interface RAMRepository extends HardwareSpecificRepo<RAM> {
             select distinct h
             from #{#entityName} h
             join h.MPNs e
-            where e in :eans
+            where e in :mpns
             """)
     List<RAM> findAllByMPNNormIn(@Param("mpns") Set<String> mpns);
 
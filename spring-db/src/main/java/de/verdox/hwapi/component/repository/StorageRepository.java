@@ -44,7 +44,7 @@ public interface StorageRepository extends HardwareSpecificRepo<Storage> {
             select distinct h
             from #{#entityName} h
             join h.MPNs e
-            where e in :eans
+            where e in :mpns
             """)
     List<Storage> findAllByMPNNormIn(@Param("mpns") Set<String> mpns);
 }